@@ -0,0 +1,224 @@
+package scrapscramble.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Annotation processor that finds every card annotated with one of the card
+ * annotations and generates a registry class that creates them by calling
+ * their factories directly. This replaces scanning the classpath when the
+ * application starts.
+ */
+public class CardRegistryProcessor extends AbstractProcessor {
+
+    /**
+     * The package of the cards and of the generated registry.
+     */
+    private static final String CARDS_PACKAGE = "scrapscramble.game.cards";
+    /**
+     * The simple name of the generated registry.
+     */
+    private static final String REGISTRY_NAME = "GeneratedCardRegistry";
+
+    private static final String UPGRADE_FROM_METHOD = CARDS_PACKAGE + ".annotations.UpgradeFromMethod";
+    private static final String UPGRADE_FROM_CLASS = CARDS_PACKAGE + ".annotations.UpgradeFromClass";
+    private static final String TOKEN_FROM_METHOD = CARDS_PACKAGE + ".annotations.TokenFromMethod";
+    private static final String TOKEN_FROM_CLASS = CARDS_PACKAGE + ".annotations.TokenFromClass";
+
+    /**
+     * Whether the registry has already been written. It is only written once, in
+     * the first round, where all hand-written sources are present.
+     */
+    private boolean generated;
+
+    private Messager messager;
+    private Filer filer;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.messager = processingEnv.getMessager();
+        this.filer = processingEnv.getFiler();
+        this.generated = false;
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(UPGRADE_FROM_METHOD, UPGRADE_FROM_CLASS, TOKEN_FROM_METHOD, TOKEN_FROM_CLASS);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (this.generated || roundEnv.processingOver()) return false;
+        this.generated = true;
+
+        TypeMirror upgradeType = this.typeOf(CARDS_PACKAGE + ".Upgrade");
+        TypeMirror cardType = this.typeOf(CARDS_PACKAGE + ".Card");
+        if (upgradeType == null || cardType == null) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Could not find the card classes.");
+            return false;
+        }
+
+        List<String> upgrades = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (Element e : this.sorted(roundEnv, UPGRADE_FROM_CLASS, UPGRADE_FROM_METHOD)) {
+            String call = this.factoryCall(e, upgradeType);
+            if (call != null) upgrades.add(call);
+        }
+        for (Element e : this.sorted(roundEnv, TOKEN_FROM_CLASS, TOKEN_FROM_METHOD)) {
+            String call = this.factoryCall(e, cardType);
+            if (call != null) tokens.add(call);
+        }
+
+        try {
+            this.writeRegistry(upgrades, tokens);
+        } catch (IOException e) {
+            this.messager.printMessage(Diagnostic.Kind.ERROR, "Could not write the card registry: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Finds the type with the given name.
+     * @param name The fully qualified name of the type.
+     * @return The type, or null if it doesn't exist.
+     */
+    private TypeMirror typeOf(String name) {
+        TypeElement element = this.processingEnv.getElementUtils().getTypeElement(name);
+        return element == null ? null : element.asType();
+    }
+
+    /**
+     * Collects all elements annotated with the given annotations. The elements
+     * are ordered by the name of their class and then by the order in which they
+     * are declared, so that the registry is the same between builds.
+     * @param roundEnv The current round.
+     * @param annotationNames The fully qualified names of the annotations.
+     * @return A list of the annotated elements.
+     */
+    private List<Element> sorted(RoundEnvironment roundEnv, String... annotationNames) {
+        List<Element> ret = new ArrayList<>();
+        for (String name : annotationNames) {
+            TypeElement annotation = this.processingEnv.getElementUtils().getTypeElement(name);
+            if (annotation == null) continue;
+            ret.addAll(roundEnv.getElementsAnnotatedWith(annotation));
+        }
+        ret.sort(Comparator.comparing(this::ownerName).thenComparingInt(this::declarationIndex));
+        return ret;
+    }
+
+    private String ownerName(Element e) {
+        TypeElement owner = e.getKind() == ElementKind.METHOD ? (TypeElement) e.getEnclosingElement() : (TypeElement) e;
+        return owner.getQualifiedName().toString();
+    }
+
+    private int declarationIndex(Element e) {
+        if (e.getKind() != ElementKind.METHOD) return -1;
+        return e.getEnclosingElement().getEnclosedElements().indexOf(e);
+    }
+
+    /**
+     * Creates the java expression that creates the card of an annotated element,
+     * reporting an error if the element can't be used as a card factory.
+     * @param e An annotated class or method.
+     * @param required The type the card must be assignable to.
+     * @return The expression, or null if the element is invalid.
+     */
+    private String factoryCall(Element e, TypeMirror required) {
+        var types = this.processingEnv.getTypeUtils();
+        if (e instanceof ExecutableElement method) {
+            TypeElement owner = (TypeElement) method.getEnclosingElement();
+            if (!method.getModifiers().containsAll(Set.of(Modifier.PUBLIC, Modifier.STATIC))
+                    || !method.getParameters().isEmpty()) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Card factory methods must be public, static and have no parameters.", e);
+                return null;
+            }
+            if (!types.isAssignable(method.getReturnType(), required)) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Card factory methods must return a " + required + ".", e);
+                return null;
+            }
+            return owner.getQualifiedName() + "." + method.getSimpleName() + "()";
+        }
+        if (e instanceof TypeElement type) {
+            boolean hasEmptyConstructor = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                    .anyMatch(c -> c.getParameters().isEmpty() && c.getModifiers().contains(Modifier.PUBLIC));
+            if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)
+                    || !hasEmptyConstructor) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Card classes must be public, not abstract and have a public empty constructor.", e);
+                return null;
+            }
+            if (!types.isAssignable(type.asType(), required)) {
+                this.messager.printMessage(Diagnostic.Kind.ERROR, "Card classes must extend " + required + ".", e);
+                return null;
+            }
+            return "new " + type.getQualifiedName() + "()";
+        }
+        this.messager.printMessage(Diagnostic.Kind.ERROR, "Unsupported card annotation target.", e);
+        return null;
+    }
+
+    /**
+     * Writes the source of the registry.
+     * @param upgrades Expressions creating the upgrades.
+     * @param tokens Expressions creating the tokens and spare parts.
+     * @throws IOException If the source file couldn't be written.
+     */
+    private void writeRegistry(List<String> upgrades, List<String> tokens) throws IOException {
+        var file = this.filer.createSourceFile(CARDS_PACKAGE + "." + REGISTRY_NAME);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            out.println("package " + CARDS_PACKAGE + ";");
+            out.println();
+            out.println("import java.util.ArrayList;");
+            out.println("import java.util.List;");
+            out.println();
+            out.println("/**");
+            out.println(" * Creates every card annotated with one of the card annotations. Generated");
+            out.println(" * by " + CardRegistryProcessor.class.getName() + ", do not edit.");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + CardRegistryProcessor.class.getName() + "\")");
+            out.println("final class " + REGISTRY_NAME + " {");
+            out.println();
+            out.println("    private " + REGISTRY_NAME + "() {");
+            out.println("    }");
+            this.writeFactoryMethod(out, "Upgrade", "upgrades", upgrades);
+            this.writeFactoryMethod(out, "Card", "tokens", tokens);
+            out.println("}");
+        }
+    }
+
+    private void writeFactoryMethod(PrintWriter out, String type, String name, List<String> calls) {
+        out.println();
+        out.println("    static List<" + type + "> " + name + "() {");
+        out.println("        List<" + type + "> ret = new ArrayList<>(" + calls.size() + ");");
+        for (String call : calls) {
+            out.println("        ret.add(" + call + ");");
+        }
+        out.println("        return ret;");
+        out.println("    }");
+    }
+}
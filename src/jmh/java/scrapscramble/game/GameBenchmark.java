@@ -0,0 +1,102 @@
+package scrapscramble.game;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.effects.Effect;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.cards.effects.EffectTrigger;
+import scrapscramble.game.cards.effects.context.EffectContext;
+import scrapscramble.game.player.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the parts of a round that are done by the game itself: fights and
+ * moving on to the next round.
+ */
+public class GameBenchmark {
+
+    /**
+     * Two players about to fight. The loser's lives are restored by every
+     * invocation so that fights keep happening.
+     */
+    @State(Scope.Thread)
+    public static class FightState {
+
+        /**
+         * "small" is a typical fight of a few attacks, "huge" has stats in the
+         * hundreds of millions and "stepwise" is the small fight with an effect
+         * after every attack, which can't be resolved at once.
+         */
+        @Param({"small", "huge", "stepwise"})
+        public String stats;
+
+        Game game;
+        Player p1, p2;
+
+        @Setup
+        public void setUp() {
+            game = new Game(new EffectCaller(), new GameRandom(1));
+            game.setCombatLogging(false);
+            p1 = game.addPlayer("Player 1");
+            p2 = game.addPlayer("Player 2");
+            int scale = stats.equals("huge") ? 100_000_000 : 1;
+            p1.setAttack(5 * scale);
+            p1.setHealth(9 * scale);
+            p2.setAttack(4 * scale);
+            p2.setHealth(13 * scale);
+            p1.getCreatureData().setStatusKeyword(StatusKeyword.Rush, 1);
+            if (stats.equals("stepwise")) {
+                p1.getEffects().add(new Effect(EffectTrigger.AfterThisAttacks) {
+                    @Override
+                    public void activate(EffectContext ctx) {}
+                });
+            }
+        }
+    }
+
+    /**
+     * A game that is in progress. It's started again every 20 rounds, so the
+     * histories of the players don't keep growing, which is done outside of the
+     * measurement.
+     */
+    @State(Scope.Thread)
+    public static class RoundState {
+
+        private static final int ROUNDS = 20;
+
+        @Param({"2", "8", "16", "64"})
+        public int players;
+
+        Game game;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            if (game != null && game.getRound() < ROUNDS) return;
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < players; i++) names.add("Player " + (i + 1));
+            game = new Game(new EffectCaller(), new GameRandom(1));
+            game.start(players, names, CardCatalog.getInstance().createPool());
+        }
+    }
+
+    @Benchmark
+    public FightOutput fight(FightState state) {
+        state.p1.setLives(3);
+        state.p2.setLives(3);
+        return state.game.fight(state.p1, state.p2);
+    }
+
+    @Benchmark
+    public Game nextRound(RoundState state) {
+        state.game.nextRound();
+        return state.game;
+    }
+}
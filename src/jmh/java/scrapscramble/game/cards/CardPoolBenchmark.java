@@ -0,0 +1,49 @@
+package scrapscramble.game.cards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scrapscramble.game.GameRandom;
+
+/**
+ * Measures copying the card pool, which happens for every player, and drawing
+ * random upgrades from it, which happens for every slot of every shop.
+ */
+@State(Scope.Thread)
+public class CardPoolBenchmark {
+
+    private CardPool pool;
+    private GameRandom random;
+
+    @Setup
+    public void setUp() {
+        pool = CardCatalog.getInstance().createPool();
+        random = new GameRandom(1);
+    }
+
+    @Benchmark
+    public CardPool clonePool() throws CloneNotSupportedException {
+        return pool.clone();
+    }
+
+    @Benchmark
+    public CardPool derivePool() {
+        return pool.derive();
+    }
+
+    @Benchmark
+    public Upgrade randomUpgrade() {
+        return pool.randomUpgrade(random);
+    }
+
+    @Benchmark
+    public Upgrade randomUpgradeByRarityAndCost() {
+        return pool.randomUpgrade(random, Rarity.Common, 10);
+    }
+
+    @Benchmark
+    public Upgrade randomUpgradeWithFilter() {
+        return pool.randomUpgrade(random, u -> u.getRarity() == Rarity.Legendary);
+    }
+}
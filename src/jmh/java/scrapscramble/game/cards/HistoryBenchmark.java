@@ -0,0 +1,38 @@
+package scrapscramble.game.cards;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scrapscramble.game.GameRandom;
+
+/**
+ * Measures counting cards across a history as long as a game that lasted 20
+ * rounds, with a few upgrades bought every round.
+ */
+@State(Scope.Thread)
+public class HistoryBenchmark {
+
+    private static final int ROUNDS = 20;
+    private static final int UPGRADES_PER_ROUND = 6;
+
+    private History<Upgrade> history;
+
+    @Setup
+    public void setUp() {
+        CardPool pool = CardCatalog.getInstance().createPool();
+        GameRandom random = new GameRandom(1);
+        history = new History<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            if (round > 0) history.createLayer();
+            for (int i = 0; i < UPGRADES_PER_ROUND; i++) {
+                history.addCard(pool.randomUpgrade(random));
+            }
+        }
+    }
+
+    @Benchmark
+    public int countFromEverything() {
+        return history.countFromEverything(u -> u.getCost() >= 5);
+    }
+}
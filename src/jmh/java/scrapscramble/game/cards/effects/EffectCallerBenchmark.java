@@ -0,0 +1,60 @@
+package scrapscramble.game.cards.effects;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scrapscramble.game.cards.effects.context.EffectContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures activating the effects of a player. Only one in four effects has the
+ * activated trigger, like a player whose effects are spread over several triggers.
+ */
+@State(Scope.Thread)
+public class EffectCallerBenchmark {
+
+    private static final EffectTrigger[] TRIGGERS = {
+            EffectTrigger.AftermathPlayer, EffectTrigger.StartOfCombat,
+            EffectTrigger.OnBuyingUpgrade, EffectTrigger.AftermathOpponent};
+
+    @Param({"10", "50", "200"})
+    public int effects;
+
+    private EffectCaller caller;
+    private List<Effect> list;
+    private EffectRegistry registry;
+    private EffectContext ctx;
+    private long activations;
+
+    @Setup
+    public void setUp() {
+        caller = new EffectCaller();
+        list = new ArrayList<>();
+        for (int i = 0; i < effects; i++) {
+            list.add(new Effect(TRIGGERS[i % TRIGGERS.length]) {
+                @Override
+                public void activate(EffectContext ctx) {
+                    activations++;
+                }
+            });
+        }
+        registry = new EffectRegistry(list);
+        ctx = new EffectContext(EffectTrigger.AftermathPlayer, null, null, null);
+    }
+
+    @Benchmark
+    public long activateList() {
+        caller.activate(list, ctx);
+        return activations;
+    }
+
+    @Benchmark
+    public long activateRegistry() {
+        caller.activate(registry, ctx);
+        return activations;
+    }
+}
@@ -0,0 +1,49 @@
+package scrapscramble.game.player;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scrapscramble.game.Game;
+import scrapscramble.game.GameRandom;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.cards.effects.EffectCaller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures attaching upgrades to a player. Every invocation attaches the same
+ * upgrades to a new player, so the player's effects don't pile up between
+ * invocations. Creating the player is part of the measurement but only derives
+ * the card pool of the game.
+ */
+@State(Scope.Thread)
+public class PlayerBenchmark {
+
+    private static final int UPGRADES = 10;
+
+    private Game game;
+    private List<Upgrade> upgrades;
+
+    @Setup
+    public void setUp() {
+        game = new Game(new EffectCaller(), new GameRandom(1));
+        game.start(2, List.of("Player 1", "Player 2"), CardCatalog.getInstance().createPool());
+        GameRandom random = new GameRandom(2);
+        upgrades = new ArrayList<>();
+        for (int i = 0; i < UPGRADES; i++) {
+            upgrades.add(game.getCardPool().randomUpgrade(random));
+        }
+    }
+
+    @Benchmark
+    public Player attachUpgrades() {
+        Player player = new Player(game, "Benchmark");
+        for (Upgrade upgrade : upgrades) {
+            player.attachUpgrade(game, upgrade);
+        }
+        return player;
+    }
+}
@@ -0,0 +1,42 @@
+package scrapscramble.game.player;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import scrapscramble.game.Game;
+import scrapscramble.game.GameRandom;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.effects.EffectCaller;
+
+import java.util.List;
+
+/**
+ * Measures refreshing a shop, which every player does at the start of every round.
+ * Higher maximum mana lets more expensive upgrades into the shop.
+ */
+@State(Scope.Thread)
+public class ShopBenchmark {
+
+    @Param({"10", "30", "60"})
+    public int maximumMana;
+
+    private Game game;
+    private Player player;
+
+    @Setup
+    public void setUp() {
+        game = new Game(new EffectCaller(), new GameRandom(1));
+        game.start(2, List.of("Player 1", "Player 2"), CardCatalog.getInstance().createPool());
+        player = game.getPlayers().get(0);
+        player.setMaximumManaCap(maximumMana);
+        player.setMaximumMana(maximumMana);
+    }
+
+    @Benchmark
+    public Shop refresh() {
+        player.getShop().refresh(game, player, false);
+        return player.getShop();
+    }
+}
@@ -6,16 +6,26 @@ import discord4j.core.GatewayDiscordClient;
 import discord4j.core.object.presence.ClientActivity;
 import discord4j.core.object.presence.ClientPresence;
 import discord4j.rest.RestClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import scrapscramble.game.cards.CardCatalog;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @SpringBootApplication
 public class DiscordBotApplication {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiscordBotApplication.class);
 
     public static void main(String[] args) {
         //Start spring application
@@ -40,4 +50,32 @@ public class DiscordBotApplication {
     public RestClient discordRestClient(GatewayDiscordClient client) {
         return client.getRestClient();
     }
+
+    //Shared by the mailboxes of all lobbies. A lobby only uses one of the threads at a
+    //time, and its tasks wait on discord, so there are more threads than cores.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService lobbyExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), r -> {
+            Thread thread = new Thread(r, "lobby-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //Only times the fight playback of every lobby, the messages themselves are sent by discord4j.
+    @Bean(destroyMethod = "dispose")
+    public Scheduler playbackScheduler() {
+        return Schedulers.newSingle("fight-playback", true);
+    }
+
+    //Built once on start up so that starting a game never has to collect the cards.
+    @Bean
+    public CardCatalog cardCatalog() {
+        CardCatalog catalog = CardCatalog.getInstance();
+        LOGGER.info("Built the card catalog in {} ms ({} upgrades, {} tokens, {} spare parts)",
+                catalog.getBuildTime().toMillis(), catalog.getUpgrades().size(),
+                catalog.getTokens().size(), catalog.getSpareParts().size());
+        return catalog;
+    }
 }
@@ -1,7 +1,8 @@
 package scrapscramble.bot.commands;
 
 import discord4j.core.event.domain.interaction.ChatInputInteractionEvent;
-import discord4j.core.object.entity.Guild;
+import discord4j.core.object.command.ApplicationCommandInteractionOption;
+import discord4j.core.object.command.ApplicationCommandInteractionOptionValue;
 import discord4j.core.spec.EmbedCreateSpec;
 import discord4j.rest.util.Color;
 import org.jetbrains.annotations.NotNull;
@@ -10,18 +11,28 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 import scrapscramble.bot.game.GameLobby;
 import scrapscramble.bot.game.LobbyHandler;
+import scrapscramble.bot.game.LobbySnapshotStore;
 import scrapscramble.game.cards.Rarity;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
 
 @Component
 public class LobbyCommands implements SlashCommand {
 
+    /**
+     * The longest a lobby can wait between fights, in milliseconds.
+     */
+    private static final long MAXIMUM_FIGHT_PACING = 10_000;
+
     private final LobbyHandler lobbyHandler;
 
+    private final LobbySnapshotStore snapshotStore;
+
     @Autowired
-    public LobbyCommands(LobbyHandler lobbyHandler) {
+    public LobbyCommands(LobbyHandler lobbyHandler, LobbySnapshotStore snapshotStore) {
         this.lobbyHandler = lobbyHandler;
+        this.snapshotStore = snapshotStore;
     }
 
     @Override
@@ -45,6 +56,7 @@ public class LobbyCommands implements SlashCommand {
             case "start" -> this.lobbyStart(event);
             case "fight" -> this.lobbyFight(event);
             case "nextround" -> this.lobbyNextRound(event);
+            case "pacing" -> this.lobbyPacing(event);
             default -> event.reply()
                     .withEphemeral(true)
                     .withContent("No such lobby command exists!");
@@ -58,16 +70,18 @@ public class LobbyCommands implements SlashCommand {
      */
     private Mono<Void> joinLobby(@NotNull ChatInputInteractionEvent event) {
 
-        boolean result = lobbyHandler.joinLobby(event.getInteraction().getGuild().block(),
-                event.getInteraction().getUser());
-
-        if (result) {
-            return event.reply()
-                    .withContent("Lobby joined!");
-        } else {
-            return event.reply()
-                    .withContent("Couldn't join the lobby.");
-        }
+        return event.getInteraction().getGuild()
+                .map(guild -> lobbyHandler.joinLobby(guild, event.getInteraction().getUser()))
+                .defaultIfEmpty(false)
+                .flatMap(result -> {
+                    if (result) {
+                        return event.reply()
+                                .withContent("Lobby joined!");
+                    } else {
+                        return event.reply()
+                                .withContent("Couldn't join the lobby.");
+                    }
+                });
     }
 
     /**
@@ -76,18 +90,19 @@ public class LobbyCommands implements SlashCommand {
      * @return
      */
     private Mono<Void> leaveLobby(@NotNull ChatInputInteractionEvent event) {
-        Guild guild = event.getInteraction().getGuild().block();
-        if (guild == null) return event.reply().withContent("Must be used in a server!");
+        return event.getInteraction().getGuild()
+                .flatMap(guild -> {
+                    boolean result = lobbyHandler.leaveLobby(guild, event.getInteraction().getUser());
 
-        boolean result = lobbyHandler.leaveLobby(guild, event.getInteraction().getUser());
-
-        if (result) {
-            return event.reply()
-                    .withContent("Lobby left successfully!");
-        } else {
-            return event.reply()
-                    .withContent("Couldn't leave a lobby.");
-        }
+                    if (result) {
+                        return event.reply()
+                                .withContent("Lobby left successfully!");
+                    } else {
+                        return event.reply()
+                                .withContent("Couldn't leave a lobby.");
+                    }
+                })
+                .switchIfEmpty(Mono.defer(() -> event.reply().withContent("Must be used in a server!")));
     }
 
     /**
@@ -126,7 +141,8 @@ public class LobbyCommands implements SlashCommand {
                 lobby.getSettings().getShopQuantity(Rarity.Common) + "/" +
                 lobby.getSettings().getShopQuantity(Rarity.Rare) + "/" +
                 lobby.getSettings().getShopQuantity(Rarity.Epic) + "/" +
-                lobby.getSettings().getShopQuantity(Rarity.Legendary);
+                lobby.getSettings().getShopQuantity(Rarity.Legendary) + "\n";
+        settingsInfo += "Fight Pacing: " + lobby.getFightPacing().toMillis() + " ms";
 
         embedBuilder.addField("[Settings]", settingsInfo, true);
 
@@ -151,11 +167,26 @@ public class LobbyCommands implements SlashCommand {
         }
 
         var lobby = lobbyHandler.getLobbyOfUser(event.getInteraction().getUser());
-        var channel = event.getInteraction().getChannel().block();
-        lobby.startGame(channel);
-
-        return event.reply()
-                .withContent("Game started successfully!");
+        if (lobby.inGame()) {
+            return event.reply()
+                    .withContent("The game has already started!")
+                    .withEphemeral(true);
+        }
+        return event.getInteraction().getChannel()
+                .flatMap(channel -> Mono.fromFuture(lobby.getMailbox().submit(() -> {
+                    // another start may have run first
+                    if (lobby.inGame()) {
+                        return event.reply()
+                                .withContent("The game has already started!")
+                                .withEphemeral(true);
+                    }
+                    var uis = lobby.startGame(channel, this.snapshotStore.createJournal(lobby.getGuildId()));
+                    this.snapshotStore.save(lobby);
+                    return event.reply()
+                            .withContent("Game started successfully!")
+                            .then(uis);
+                })))
+                .flatMap(reply -> reply);
     }
 
     private Mono<Void> lobbyFight(ChatInputInteractionEvent event) {
@@ -191,10 +222,11 @@ public class LobbyCommands implements SlashCommand {
                     .withEphemeral(true);
         }
         var lobby = lobbyHandler.getLobbyOfUser(event.getInteraction().getUser());
-        var outputs = lobby.getGame().conductFights();
-        lobby.getPublicUI().sendFightOutputs(outputs);
-
-        return ret;
+        // the fights are shown in the background, so the next round can stop them
+        return Mono.fromFuture(lobby.getMailbox().run(() -> {
+            var outputs = lobby.getGame().conductFights();
+            lobby.playFights(outputs);
+        })).then(ret);
     }
 
     private Mono<Void> lobbyNextRound(ChatInputInteractionEvent event) {
@@ -215,8 +247,37 @@ public class LobbyCommands implements SlashCommand {
         }
         var ret = event.reply();
         var lobby = lobbyHandler.getLobbyOfUser(event.getInteraction().getUser());
-        lobby.getGame().nextRound();
-        lobby.sendEveryoneNewUIs();
-        return ret;
+        return Mono.fromFuture(lobby.getMailbox().submit(() -> {
+            lobby.stopFightPlayback();
+            lobby.getGame().nextRound();
+            this.snapshotStore.save(lobby);
+            return lobby.sendEveryoneNewUIs();
+        })).flatMap(uis -> ret.then(uis));
+    }
+
+    /**
+     * Command for when the player changes how long to wait between fights.
+     * @param event
+     * @return
+     */
+    private Mono<Void> lobbyPacing(ChatInputInteractionEvent event) {
+        var lobby = lobbyHandler.getLobbyOfUser(event.getInteraction().getUser());
+        if (lobby == null) {
+            return event.reply()
+                    .withContent("You're not in a lobby!")
+                    .withEphemeral(true);
+        }
+        long millis = event.getOptions().get(0).getOption("milliseconds")
+                .flatMap(ApplicationCommandInteractionOption::getValue)
+                .map(ApplicationCommandInteractionOptionValue::asLong)
+                .orElse(-1L);
+        if (millis < 0 || millis > MAXIMUM_FIGHT_PACING) {
+            return event.reply()
+                    .withContent("The pacing must be between 0 and " + MAXIMUM_FIGHT_PACING + " milliseconds!")
+                    .withEphemeral(true);
+        }
+        return Mono.fromFuture(lobby.getMailbox().run(() -> lobby.setFightPacing(Duration.ofMillis(millis))))
+                .then(event.reply()
+                        .withContent("Fights will be shown " + millis + " ms apart."));
     }
 }
@@ -3,43 +3,91 @@ package scrapscramble.bot.game;
 import discord4j.core.object.entity.User;
 import discord4j.core.object.entity.channel.MessageChannel;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import scrapscramble.bot.ui.PlayerUI;
 import scrapscramble.bot.ui.PublicUI;
+import scrapscramble.game.FightOutput;
 import scrapscramble.game.Game;
+import scrapscramble.game.GameJournal;
 import scrapscramble.game.GameSettings;
+import scrapscramble.game.cards.CardCatalog;
 import scrapscramble.game.cards.CardPool;
 import scrapscramble.game.player.Player;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 @Component
 @Scope("prototype")
 public class GameLobby {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(GameLobby.class);
+
+    /**
+     * The most UIs sent to players at the same time. Discord4J already waits for
+     * the rate limits, this only keeps a big lobby from taking all of the budget.
+     */
+    private static final int UI_SEND_CONCURRENCY = 4;
+
+    /**
+     * How long to wait between fights when showing them, unless the lobby changes it.
+     */
+    public static final Duration DEFAULT_FIGHT_PACING = Duration.ofSeconds(1);
+
+    /**
+     * The catalog of all cards, shared by every lobby.
+     */
+    private CardCatalog cardCatalog;
+
+    /**
+     * Held while the users of the lobby change and while a game is being set up,
+     * so that nobody joins or leaves between the game taking its players and
+     * the players being given to the users.
+     */
+    private final Object membersLock = new Object();
+
     /**
      * Name of the lobby. Usually contains the name of the server it's in.
      */
     private String name;
 
+    /**
+     * The id of the discord server the lobby is in.
+     */
+    private long guildId;
+
     /**
      * A list of all discord user ids of the users in the lobby. The order in
-     * the list determines their order in the game.
+     * the list determines their order in the game. Can be read from any thread
+     * while players join or leave.
      */
     private List<Long> discordUserIds;
 
     /**
-     * Maps the discord user ids to their player info.
+     * Maps the discord user ids to their player info. Can be read from any thread
+     * while players join or leave.
      */
     private Map<Long, PlayerInfo> idToPlayerInfo;
 
     /**
      * The game that the players are playing. Being null indicates that the lobby is
-     * not in a game.
+     * not in a game. Set inside the mailbox, but read by joining users on other threads.
      */
-    private Game game;
+    private volatile Game game;
 
     /**
      * The settings that will be used in the game.
@@ -52,16 +100,79 @@ public class GameLobby {
      */
     private PublicUI publicUI;
 
+    /**
+     * Records the actions of the game, or null if they're not recorded.
+     */
+    private GameJournal journal;
+
+    /**
+     * Runs everything that reads or changes the game, one task at a time. The game
+     * is not thread-safe, so it must only be used from tasks of this mailbox.
+     */
+    private LobbyMailbox mailbox;
+
+    /**
+     * Times the fights that are being shown.
+     */
+    private Scheduler playbackScheduler;
+
+    /**
+     * How long to wait between fights when showing them.
+     */
+    private Duration fightPacing;
+
+    /**
+     * The fights being shown right now, or null if there are none. Only used
+     * from tasks of the mailbox.
+     */
+    private Disposable fightPlayback;
+
     /**
      * Constructor. Creates a new lobby with no players in it.
      */
     public GameLobby() {
-        this.discordUserIds = new ArrayList<>();
+        this.discordUserIds = new CopyOnWriteArrayList<>();
         this.game = null;
-        this.idToPlayerInfo = new HashMap<>();
+        this.idToPlayerInfo = new ConcurrentHashMap<>();
         this.name = "Default Lobby Name";
         this.settings = new GameSettings();
         this.publicUI = null;
+        this.fightPacing = DEFAULT_FIGHT_PACING;
+    }
+
+    /**
+     * Gives the lobby the catalog its games take their cards from.
+     * @param cardCatalog The catalog of all cards.
+     */
+    @Autowired
+    public void setCardCatalog(CardCatalog cardCatalog) {
+        this.cardCatalog = cardCatalog;
+    }
+
+    /**
+     * Gives the lobby the threads its mailbox runs on.
+     * @param lobbyExecutor The threads shared by the mailboxes of all lobbies.
+     */
+    @Autowired
+    public void setLobbyExecutor(@Qualifier("lobbyExecutor") Executor lobbyExecutor) {
+        this.mailbox = new LobbyMailbox(lobbyExecutor);
+    }
+
+    /**
+     * Gives the lobby the scheduler that times the fights it shows.
+     * @param playbackScheduler The scheduler shared by all lobbies.
+     */
+    @Autowired
+    public void setPlaybackScheduler(@Qualifier("playbackScheduler") Scheduler playbackScheduler) {
+        this.playbackScheduler = playbackScheduler;
+    }
+
+    /**
+     * Gets the mailbox that every use of the lobby's game must go through.
+     * @return The mailbox.
+     */
+    public LobbyMailbox getMailbox() {
+        return this.mailbox;
     }
 
     /**
@@ -79,16 +190,19 @@ public class GameLobby {
      * @return Whether the player was successfully added to the lobby or no.
      */
     public boolean addPlayer(User user, String nickname) {
-        if (this.inGame()) return false; // the game has already started
-        if (this.discordUserIds.contains(user.getId().asLong())) {
-            return false; // the player is already in the lobby
+        synchronized (this.membersLock) {
+            if (this.inGame()) return false; // the game has already started
+            if (this.discordUserIds.contains(user.getId().asLong())) {
+                return false; // the player is already in the lobby
+            }
+            PlayerInfo info = new PlayerInfo();
+            info.setNickname(nickname);
+            info.setUser(user);
+            // the info goes in first, so that anyone who sees the id can find it
+            this.idToPlayerInfo.put(user.getId().asLong(), info);
+            this.discordUserIds.add(user.getId().asLong());
+            return true;
         }
-        this.discordUserIds.add(user.getId().asLong());
-        PlayerInfo info = new PlayerInfo();
-        info.setNickname(nickname);
-        info.setUser(user);
-        this.idToPlayerInfo.put(user.getId().asLong(), info);
-        return true;
     }
 
     /**
@@ -97,10 +211,12 @@ public class GameLobby {
      * @return True if the player was removed successfully, false otherwise.
      */
     public boolean removePlayer(long id) {
-        boolean result = this.discordUserIds.remove(id);
-        if (!result) return false;
-        this.idToPlayerInfo.remove(id);
-        return true;
+        synchronized (this.membersLock) {
+            boolean result = this.discordUserIds.remove(id);
+            if (!result) return false;
+            this.idToPlayerInfo.remove(id);
+            return true;
+        }
     }
 
     /**
@@ -127,12 +243,39 @@ public class GameLobby {
         this.name = name;
     }
 
+    /**
+     * Gets the id of the discord server the lobby is in.
+     * @return The server id.
+     */
+    public long getGuildId() {
+        return this.guildId;
+    }
+
+    /**
+     * Sets the id of the discord server the lobby is in.
+     * @param guildId The server id.
+     */
+    public void setGuildId(long guildId) {
+        this.guildId = guildId;
+    }
+
+    /**
+     * Gets the discord user ids of the users in the lobby, in the order they
+     * joined.
+     * @return An unmodifiable view of the user ids.
+     */
+    public List<Long> getUserIds() {
+        return Collections.unmodifiableList(this.discordUserIds);
+    }
+
     /**
      * Gets a list of all player nicknames.
      * @return A list of all player nicknames.
      */
     public List<String> getNicknames() {
-        return this.discordUserIds.stream().map(x -> this.idToPlayerInfo.get(x).getNickname()).toList();
+        // players who are leaving right now may no longer have their info
+        return this.discordUserIds.stream().map(this.idToPlayerInfo::get).filter(Objects::nonNull)
+                .map(PlayerInfo::getNickname).toList();
     }
 
     /**
@@ -144,40 +287,160 @@ public class GameLobby {
     }
 
     /**
-     * Starts a game for the lobby.
+     * Gets how long to wait between fights when showing them.
+     * @return The time between fights.
+     */
+    public Duration getFightPacing() {
+        return this.fightPacing;
+    }
+
+    /**
+     * Sets how long to wait between fights when showing them. Fights that are
+     * already being shown keep their pacing.
+     * @param fightPacing The time between fights.
+     */
+    public void setFightPacing(Duration fightPacing) {
+        this.fightPacing = fightPacing;
+    }
+
+    /**
+     * Starts a game for the lobby. The game starts right away, while the UIs are
+     * only sent once the returned mono is subscribed to.
      * @param channel Discord channel where to display public information.
+     * @param journal Where to record the actions of the game, or null to not record them.
+     * @return A mono that completes once every UI and the pairings have been sent.
      */
-    public void startGame(MessageChannel channel) {
-        // initialise the game object
-        this.game = new Game();
-        this.game.start(this.size(), this.getNicknames(), CardPool.fromAnnotations());
+    public Mono<Void> startGame(MessageChannel channel, @Nullable GameJournal journal) {
+        this.setUpGame(journal);
+        var uis = sendEveryoneNewUIs();
+        // create the public ui
+        this.publicUI = new PublicUI(this, channel);
+        return uis.then(this.publicUI.sendPairings());
+    }
+
+    /**
+     * Creates the game and gives every user of the lobby their player. Users
+     * can't join or leave meanwhile, and can no longer join once it's done.
+     * @param journal Where to record the actions of the game, or null to not record them.
+     */
+    void setUpGame(@Nullable GameJournal journal) {
+        synchronized (this.membersLock) {
+            Game game = new Game();
+            this.journal = journal;
+            game.setRecorder(journal);
+            // fights of a round don't share any players, so they're conducted in parallel
+            game.setFightExecutor(ForkJoinPool.commonPool());
+            game.start(this.size(), this.getNicknames(), CardPool.fromCatalog(this.cardCatalog));
+            var players = game.getPlayers();
+            for (int i = 0; i < players.size(); i++) {
+                long userId = this.discordUserIds.get(i);
+                var ui = new PlayerUI(this.idToPlayerInfo.get(userId).getUser(), game, players.get(i));
+                this.idToPlayerInfo.get(userId).setUi(ui);
+                this.idToPlayerInfo.get(userId).setPlayerGameObject(players.get(i));
+            }
+            // set last, so anyone who sees the game also finds the players
+            this.game = game;
+        }
+    }
+
+    /**
+     * Continues a game that was restored from a snapshot. The users must already
+     * be in the lobby, in the same order as when the snapshot was taken.
+     * @param game The restored game.
+     * @param channel Discord channel where to display public information.
+     * @param playerIndices The position of each user's player in the game, or -1
+     *                      for users that have been eliminated.
+     * @param journal Where to keep recording the actions of the game, or null to
+     *                not record them.
+     * @return A mono that completes once every UI has been sent again.
+     */
+    public Mono<Void> restoreGame(Game game, MessageChannel channel, List<Integer> playerIndices,
+                            @Nullable GameJournal journal) {
+        this.game = game;
+        this.journal = journal;
+        this.game.setRecorder(journal);
+        this.settings = game.getSettings();
+        this.game.setFightExecutor(ForkJoinPool.commonPool());
         var players = this.game.getPlayers();
-        for (int i = 0; i < players.size(); i++) {
-            long userId = this.discordUserIds.get(i);
-            var ui = new PlayerUI(this.idToPlayerInfo.get(userId).getUser(), game, players.get(i));
-            this.idToPlayerInfo.get(userId).setUi(ui);
-            this.idToPlayerInfo.get(userId).setPlayerGameObject(players.get(i));
+        for (int i = 0; i < this.discordUserIds.size(); i++) {
+            var info = this.idToPlayerInfo.get(this.discordUserIds.get(i));
+            int index = playerIndices.get(i);
+            Player player;
+            if (index >= 0) {
+                player = players.get(index);
+            } else {
+                // eliminated players are no longer part of the game
+                player = new Player(game, info.getNickname());
+                player.setLives(0);
+            }
+            info.setPlayerGameObject(player);
+            info.setUi(new PlayerUI(info.getUser(), game, player));
         }
-        sendEveryoneNewUIs();
-        // create the public ui
         this.publicUI = new PublicUI(this, channel);
-        this.publicUI.sendPairings();
+        return sendEveryoneNewUIs();
     }
 
-    public void sendEveryoneNewUIs() {
+    /**
+     * Sends a new UI to every player that's still alive. The UIs are built right
+     * away, but only sent once the returned mono is subscribed to, a few players
+     * at a time. A UI that can't be sent doesn't stop the others; the players who
+     * didn't get theirs are listed in the public channel instead.
+     * @return A mono that completes once every UI has been sent or has failed.
+     */
+    public Mono<Void> sendEveryoneNewUIs() {
+        List<Mono<String>> sends = new ArrayList<>();
         for (var player : this.idToPlayerInfo.values()) {
+            // users who are still joining or leaving may have no player
+            if (player.getPlayerGameObject() == null || player.getUi() == null) continue;
             if (player.getPlayerGameObject().getLives() <= 0) continue;
-            player.getUi().sendNewUI();
+            String nickname = player.getNickname();
+            // emits the nickname of the player only if their UI couldn't be sent
+            sends.add(player.getUi().sendNewUI()
+                    .then(Mono.<String>empty())
+                    .onErrorResume(e -> {
+                        LOGGER.warn("Couldn't send the UI of {} in the lobby {}: {}", nickname, this.name, e.getMessage());
+                        return Mono.just(nickname);
+                    }));
         }
+        return Flux.fromIterable(sends)
+                .flatMap(send -> send, UI_SEND_CONCURRENCY)
+                .collectList()
+                .flatMap(failed -> {
+                    if (failed.isEmpty() || this.publicUI == null) return Mono.empty();
+                    return this.publicUI.sendUndeliveredUIs(failed);
+                });
+    }
+
+    /**
+     * Starts showing fights in the public channel, one at a time, at the pace of
+     * the lobby. Fights that were still being shown are stopped. Must run in the
+     * mailbox of the lobby.
+     * @param outputs The outputs of the fights.
+     */
+    public void playFights(List<FightOutput> outputs) {
+        this.stopFightPlayback();
+        this.fightPlayback = this.publicUI.sendFightOutputs(outputs, this.fightPacing, this.playbackScheduler)
+                .subscribe(null, e -> LOGGER.error("Couldn't show the fights of the lobby {}", this.name, e));
+    }
+
+    /**
+     * Stops showing the fights that haven't been shown yet, if any. Must run in
+     * the mailbox of the lobby.
+     */
+    public void stopFightPlayback() {
+        if (this.fightPlayback == null) return;
+        this.fightPlayback.dispose();
+        this.fightPlayback = null;
     }
 
     /**
      * Refreshes the UI of a given player by their discord it. Directly calls
      * the refresh method of the PlayerUI object related to the player.
      * @param id The discord id of the player.
+     * @return A mono that completes once the UI has been refreshed.
      */
-    public void refreshPlayerUI(long id) {
-        this.idToPlayerInfo.get(id).getUi().updateCurrentUI();
+    public Mono<Void> refreshPlayerUI(long id) {
+        return this.idToPlayerInfo.get(id).getUi().updateCurrentUI();
     }
 
     /**
@@ -212,6 +475,14 @@ public class GameLobby {
         return this.game;
     }
 
+    /**
+     * Gets the journal that records the actions of the game.
+     * @return The journal, or null if the actions are not recorded.
+     */
+    public @Nullable GameJournal getJournal() {
+        return this.journal;
+    }
+
     /**
      * Gets the public ui object that is used to send general messages about
      * the game.
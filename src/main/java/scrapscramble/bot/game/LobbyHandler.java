@@ -1,41 +1,75 @@
 package scrapscramble.bot.game;
 
+import discord4j.common.util.Snowflake;
+import discord4j.core.GatewayDiscordClient;
 import discord4j.core.object.entity.Guild;
 import discord4j.core.object.entity.User;
+import discord4j.core.object.entity.channel.MessageChannel;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Component
 public class LobbyHandler {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(LobbyHandler.class);
+
     /**
      * The spring application context.
      */
-    @Autowired
-    private ApplicationContext applicationContext;
+    private final ApplicationContext applicationContext;
+
+    /**
+     * The discord client, used to find the users and channels of restored lobbies.
+     */
+    private final GatewayDiscordClient client;
+
+    /**
+     * Keeps the lobbies that are in a game on disk.
+     */
+    private final LobbySnapshotStore snapshotStore;
 
     /**
      * Contains all lobbies in the game. Lobbies are limited to one per discord server.
-     * The key in the map is the id of the discord server.
+     * The key in the map is the id of the discord server. Every change to a lobby's
+     * players happens inside an atomic operation on its entry, so changes to the same
+     * lobby happen one at a time while different lobbies never wait for each other.
      */
-    private Map<Long, GameLobby> lobbies;
+    private final ConcurrentMap<Long, GameLobby> lobbies;
 
     /**
      * Maps all users that are currently in a lobby to their lobby. Used for ease of
-     * access.
+     * access. A user is only added to a lobby after claiming their entry here, so
+     * they can never end up in two lobbies.
      */
-    private Map<Long, GameLobby> userToLobby;
+    private final ConcurrentMap<Long, GameLobby> userToLobby;
 
     /**
      * Constructor. Creates a new lobby handler with no lobbies created.
+     * @param applicationContext The spring application context, used to create lobbies.
+     * @param client The discord client.
+     * @param snapshotStore Keeps the lobbies that are in a game on disk.
      */
-    public LobbyHandler() {
-        this.lobbies = new HashMap<>();
-        this.userToLobby = new HashMap<>();
+    @Autowired
+    public LobbyHandler(ApplicationContext applicationContext, GatewayDiscordClient client,
+                        LobbySnapshotStore snapshotStore) {
+        this.applicationContext = applicationContext;
+        this.client = client;
+        this.snapshotStore = snapshotStore;
+        this.lobbies = new ConcurrentHashMap<>();
+        this.userToLobby = new ConcurrentHashMap<>();
     }
 
     /**
@@ -45,14 +79,17 @@ public class LobbyHandler {
      * @return True if a lobby was successfully created, false otherwise.
      */
     public boolean createLobby(Guild guild, User user) {
-        if (this.lobbies.containsKey(guild.getId().asLong())) return false; // lobby already exists in the guild
-        if (this.userToLobby.containsKey(user.getId().asLong())) return false; // player is already in a lobby
+        long guildId = guild.getId().asLong(), userId = user.getId().asLong();
+        if (this.lobbies.containsKey(guildId)) return false; // lobby already exists in the guild
 
-        GameLobby lobby = applicationContext.getBean(GameLobby.class);
+        GameLobby lobby = this.newLobby(guildId);
         lobby.addPlayer(user, user.getUsername());
-        this.lobbies.put(guild.getId().asLong(), lobby);
-        this.userToLobby.put(user.getId().asLong(), lobby);
-
+        if (this.userToLobby.putIfAbsent(userId, lobby) != null) return false; // player is already in a lobby
+        if (this.lobbies.putIfAbsent(guildId, lobby) != null) {
+            // another lobby was created in the guild in the meantime
+            this.userToLobby.remove(userId, lobby);
+            return false;
+        }
         return true;
     }
     
@@ -86,7 +123,8 @@ public class LobbyHandler {
 
     /**
      * A discord user joins a lobby. If there is currently no lobby in the guild a
-     * new one is created.
+     * new one is created. Joining is atomic: if two users join an empty guild at
+     * the same time, they end up in the same lobby.
      * @param guild The guild in which the lobby.
      * @param user The user that wants to join.
      * @return True if joined the lobby of the guild successfully, false otherwise.
@@ -94,38 +132,175 @@ public class LobbyHandler {
      * is already in the guild's lobby.
      */
     public boolean joinLobby(Guild guild, User user) {
-        if (this.getLobbyOfUser(user) != null) return false; // user is already in a lobby
-
-        GameLobby lobby = this.lobbies.get(guild.getId().asLong());
-        if (lobby == null) {
-            return this.createLobby(guild, user);
-        } else {
-            lobby.addPlayer(user, user.getUsername());
-            this.userToLobby.put(user.getId().asLong(), lobby);
-        }
+        return this.joinLobby(guild.getId().asLong(), user);
+    }
 
-        return true;
+    /**
+     * A discord user joins the lobby of a server, creating it if there is none.
+     * See {@link LobbyHandler#joinLobby(Guild, User)}.
+     * @param guildId The id of the server.
+     * @param user The user that wants to join.
+     * @return True if joined the lobby of the server successfully, false otherwise.
+     */
+    public boolean joinLobby(long guildId, User user) {
+        long userId = user.getId().asLong();
+        if (this.userToLobby.containsKey(userId)) return false; // user is already in a lobby
+
+        boolean[] joined = {false};
+        this.lobbies.compute(guildId, (id, lobby) -> {
+            GameLobby target = lobby == null ? this.newLobby(guildId) : lobby;
+            if (this.userToLobby.putIfAbsent(userId, target) != null) return lobby; // joined another lobby meanwhile
+            if (!target.addPlayer(user, user.getUsername())) {
+                this.userToLobby.remove(userId, target);
+                return lobby;
+            }
+            joined[0] = true;
+            return target;
+        });
+        return joined[0];
     }
 
     /**
-     * A user leaves the lobby they're currently in if any.
+     * A user leaves the lobby they're currently in if any. The lobby is removed
+     * once its last player leaves.
      * @param guild The guild the player used the command. It should be the one
      *              where their lobby is in.
      * @param user The user to be removed.
      * @return True if the user was successfully removed from the lobby, false otherwise.
      */
     public boolean leaveLobby(Guild guild, User user) {
-        GameLobby lobby = this.getLobbyOfUser(user);
-        if (lobby == null) return false; // user is not in a lobby
-        if (this.lobbies.get(guild.getId().asLong()) != lobby) return false;
-        boolean success = this.getLobbyOfUser(user).removePlayer(user.getId().asLong());
-        if (!success) return false;
-
-        this.userToLobby.remove(user.getId().asLong());
-        if (lobby.size() == 0) {
-            this.lobbies.remove(guild.getId().asLong());
+        return this.leaveLobby(guild.getId().asLong(), user.getId().asLong());
+    }
+
+    /**
+     * A user leaves the lobby of a server if they're in it. See
+     * {@link LobbyHandler#leaveLobby(Guild, User)}.
+     * @param guildId The id of the server.
+     * @param userId The id of the user to be removed.
+     * @return True if the user was successfully removed from the lobby, false otherwise.
+     */
+    public boolean leaveLobby(long guildId, long userId) {
+
+        boolean[] left = {false};
+        this.lobbies.computeIfPresent(guildId, (id, lobby) -> {
+            if (this.userToLobby.get(userId) != lobby) return lobby; // user is not in this lobby
+            if (!lobby.removePlayer(userId)) return lobby;
+            this.userToLobby.remove(userId, lobby);
+            left[0] = true;
+            if (lobby.size() > 0) return lobby;
+            // runs after the actions still waiting in the mailbox, so none of them saves the lobby again
+            lobby.getMailbox().execute(() -> {
+                lobby.stopFightPlayback();
+                if (lobby.getJournal() != null) lobby.getJournal().close();
+                this.snapshotStore.delete(guildId, lobby.getJournal());
+            });
+            return null;
+        });
+        return left[0];
+    }
+
+    /**
+     * Creates a new empty lobby.
+     * @param guildId The id of the server the lobby is in.
+     * @return The lobby.
+     */
+    private GameLobby newLobby(long guildId) {
+        GameLobby lobby = applicationContext.getBean(GameLobby.class);
+        lobby.setGuildId(guildId);
+        return lobby;
+    }
+
+    /**
+     * Restores the lobbies whose games were stored before the bot was last shut
+     * down. The games are read from disk first, then the users and channels of
+     * every lobby are looked up on discord at the same time, without blocking the
+     * start up. Lobbies whose users or channel can no longer be found are skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreLobbies() {
+        long start = System.nanoTime();
+        var stored = this.snapshotStore.loadAll();
+        long decoded = System.nanoTime();
+        LOGGER.info("Read {} stored games in {} ms", stored.size(), (decoded - start) / 1_000_000);
+        Flux.fromIterable(stored)
+                .filter(lobby -> !this.lobbies.containsKey(lobby.getGuildId()))
+                .flatMap(this::restoreLobby)
+                .count()
+                .subscribe(restored -> LOGGER.info("Restored {} lobbies in {} ms after looking up their users",
+                        restored, (System.nanoTime() - decoded) / 1_000_000));
+    }
+
+    /**
+     * Looks up the users and channel of a stored lobby and adds the lobby back.
+     * The journal of a lobby that can't be restored is closed. A stored lobby with
+     * no users is deleted, as no one could ever leave it.
+     * @param stored The stored lobby.
+     * @return The restored lobby, or an empty mono if it couldn't be restored.
+     */
+    private Mono<GameLobby> restoreLobby(LobbySnapshotStore.StoredLobby stored) {
+        if (stored.getUserIds().isEmpty()) {
+            LOGGER.warn("Deleting the stored lobby in {} as it has no users", stored.getGuildId());
+            if (stored.getJournal() != null) stored.getJournal().close();
+            this.snapshotStore.delete(stored.getGuildId(), stored.getJournal());
+            return Mono.empty();
         }
+        Mono<List<User>> users = Flux.fromIterable(stored.getUserIds())
+                .flatMapSequential(id -> this.client.getUserById(Snowflake.of(id)))
+                .collectList();
+        Mono<MessageChannel> channel = this.client.getChannelById(Snowflake.of(stored.getChannelId()))
+                .ofType(MessageChannel.class);
+        return Mono.zip(users, channel)
+                .flatMap(found -> Mono.justOrEmpty(this.addRestoredLobby(stored, found.getT1(), found.getT2())))
+                .onErrorResume(e -> {
+                    LOGGER.error("Couldn't restore the stored lobby in {}", stored.getGuildId(), e);
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromRunnable(() -> {
+                    if (stored.getJournal() != null) stored.getJournal().close();
+                }));
+    }
 
-        return true;
+    /**
+     * Adds a stored lobby back, with its game, once its users and channel have been
+     * found, and sends its players their UIs again.
+     * @param stored The stored lobby.
+     * @param users The users of the lobby that could be found, in lobby order.
+     * @param channel The channel public information is sent to.
+     * @return The restored lobby, or null if some users are gone, the server
+     * already has a new lobby or one of the users joined another lobby.
+     */
+    private @Nullable GameLobby addRestoredLobby(LobbySnapshotStore.StoredLobby stored, List<User> users,
+                                                 MessageChannel channel) {
+        if (users.size() != stored.getUserIds().size()) {
+            LOGGER.warn("Couldn't find every user of the stored lobby in {}", stored.getGuildId());
+            return null;
+        }
+        GameLobby lobby = this.newLobby(stored.getGuildId());
+        lobby.setLobbyName(stored.getName());
+        for (int i = 0; i < users.size(); i++) {
+            lobby.addPlayer(users.get(i), stored.getNicknames().get(i));
+        }
+        var uis = lobby.restoreGame(stored.getGame(), channel, stored.getPlayerIndices(), stored.getJournal());
+
+        boolean[] added = {false};
+        this.lobbies.compute(stored.getGuildId(), (id, existing) -> {
+            // someone created a new lobby in the server while the bot was starting
+            if (existing != null) return existing;
+            List<Long> claimed = new ArrayList<>();
+            for (long userId : stored.getUserIds()) {
+                if (this.userToLobby.putIfAbsent(userId, lobby) != null) {
+                    // the user joined another lobby while the bot was starting
+                    LOGGER.warn("Couldn't restore the lobby in {} as {} is in another lobby", id, userId);
+                    for (long claimedId : claimed) this.userToLobby.remove(claimedId, lobby);
+                    return null;
+                }
+                claimed.add(userId);
+            }
+            added[0] = true;
+            return lobby;
+        });
+        if (!added[0]) return null;
+        uis.subscribe(null, e -> LOGGER.error("Couldn't send the UIs of the restored lobby {}", lobby.getLobbyName(), e));
+        return lobby;
     }
 }
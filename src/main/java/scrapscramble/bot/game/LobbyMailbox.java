@@ -0,0 +1,107 @@
+package scrapscramble.bot.game;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs the tasks of a single lobby one at a time, in the order they were given,
+ * on a pool of threads shared by all lobbies. Tasks of the same lobby never run
+ * at the same time, so they can change the game without any locks, while the
+ * tasks of different lobbies run in parallel.
+ */
+public class LobbyMailbox implements Executor {
+
+    /**
+     * The most tasks run in a row before the thread is given back to the pool,
+     * so a busy lobby doesn't keep other lobbies waiting.
+     */
+    private static final int BATCH_SIZE = 32;
+
+    /**
+     * The threads the tasks run on.
+     */
+    private final Executor pool;
+    /**
+     * The tasks waiting to run.
+     */
+    private final Queue<Runnable> tasks;
+    /**
+     * Whether a thread of the pool is running the tasks or is about to.
+     */
+    private final AtomicBoolean scheduled;
+
+    /**
+     * Creates a new mailbox with no tasks.
+     * @param pool The threads the tasks run on.
+     */
+    public LobbyMailbox(Executor pool) {
+        this.pool = pool;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Adds a task to the mailbox. It runs after every task added before it.
+     * @param task The task.
+     */
+    @Override
+    public void execute(Runnable task) {
+        this.tasks.add(task);
+        this.schedule();
+    }
+
+    /**
+     * Adds a task that produces a value to the mailbox.
+     * @param task The task.
+     * @param <T> The type of the value.
+     * @return A future completed with the value once the task has run, or with
+     * the exception it threw.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, this);
+    }
+
+    /**
+     * Adds a task to the mailbox.
+     * @param task The task.
+     * @return A future completed once the task has run, or with the exception it threw.
+     */
+    public CompletableFuture<Void> run(Runnable task) {
+        return CompletableFuture.runAsync(task, this);
+    }
+
+    /**
+     * Hands the mailbox to a thread of the pool, unless one already has it.
+     */
+    private void schedule() {
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.pool.execute(this::drain);
+        }
+    }
+
+    /**
+     * Runs the waiting tasks, up to a batch, then hands the mailbox back to the
+     * pool if more are waiting.
+     */
+    private void drain() {
+        try {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                Runnable task = this.tasks.poll();
+                if (task == null) break;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            this.scheduled.set(false);
+            // a task may have been added after the last poll but before the flag was cleared
+            if (!this.tasks.isEmpty()) this.schedule();
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package scrapscramble.bot.game;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import scrapscramble.game.Game;
+import scrapscramble.game.GameJournal;
+import scrapscramble.game.GameSnapshot;
+import scrapscramble.game.SnapshotFormatException;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.player.Player;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a snapshot of every lobby that's in a game on disk, so the games survive
+ * a restart of the bot. Snapshots are encoded on the thread that asks for them,
+ * while the game can't change, and written to disk on a thread of their own.
+ * Every game also has a {@link GameJournal} next to its snapshot, so the actions
+ * taken since the last snapshot are not lost either.
+ */
+@Component
+public class LobbySnapshotStore implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LobbySnapshotStore.class);
+
+    /**
+     * The folder the snapshots are kept in, one file per server.
+     */
+    private static final Path DIRECTORY = Paths.get("snapshots");
+    /**
+     * The extension of the snapshot files.
+     */
+    private static final String EXTENSION = ".snap";
+    /**
+     * The extension of the journal files.
+     */
+    private static final String JOURNAL_EXTENSION = ".journal";
+    /**
+     * Identifies a lobby snapshot file. Reads "SSLB".
+     */
+    private static final int MAGIC = 0x53534c42;
+    /**
+     * The version of the lobby data around the game snapshot.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The catalog of all cards, used to store cards by their ids.
+     */
+    private final CardCatalog cardCatalog;
+    /**
+     * Writes the snapshots to disk one at a time, in the order they were made.
+     */
+    private final ExecutorService writer;
+    /**
+     * The journal each server's lobby currently records its game in. Guards the
+     * files, so a delete that was queued for an old game skips the files of a newer one.
+     */
+    private final Map<Long, GameJournal> journals = new HashMap<>();
+
+    /**
+     * Creates a new snapshot store.
+     * @param cardCatalog The catalog of all cards.
+     */
+    @Autowired
+    public LobbySnapshotStore(CardCatalog cardCatalog) {
+        this.cardCatalog = cardCatalog;
+        this.writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "lobby-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates a new journal for the game of a server's lobby, replacing the old one.
+     * @param guildId The id of the server.
+     * @return The journal, or null if it couldn't be created.
+     */
+    public @Nullable GameJournal createJournal(long guildId) {
+        synchronized (this.journals) {
+            GameJournal journal = null;
+            try {
+                Files.createDirectories(DIRECTORY);
+                journal = GameJournal.create(journalOf(guildId));
+            } catch (IOException e) {
+                LOGGER.error("Couldn't create the journal of the lobby in {}", guildId, e);
+            }
+            this.journals.put(guildId, journal);
+            return journal;
+        }
+    }
+
+    /**
+     * Takes a snapshot of a lobby and writes it to disk in the background. Lobbies
+     * that are not in a game, have no players left or whose journal was closed are
+     * skipped.
+     * @param lobby The lobby.
+     */
+    public void save(GameLobby lobby) {
+        if (!lobby.inGame() || lobby.getPublicUI() == null || lobby.size() == 0) return;
+        if (lobby.getJournal() != null && lobby.getJournal().isClosed()) return;
+        if (lobby.getJournal() != null) lobby.getJournal().markSnapshot(lobby.getGame());
+        byte[] data;
+        try {
+            data = this.encode(lobby);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Couldn't take a snapshot of the lobby {}", lobby.getLobbyName(), e);
+            return;
+        }
+        long guildId = lobby.getGuildId();
+        this.writer.execute(() -> this.write(guildId, data));
+    }
+
+    /**
+     * Deletes the snapshot and journal of a server's lobby in the background, if
+     * there are any. The journal must have been closed. The files are kept if a new
+     * game was started in the server since, as they belong to that game.
+     * @param guildId The id of the server.
+     * @param journal The journal of the lobby's game, or null if it had none.
+     */
+    public void delete(long guildId, @Nullable GameJournal journal) {
+        this.writer.execute(() -> {
+            synchronized (this.journals) {
+                if (this.journals.get(guildId) != journal) return;
+                this.journals.remove(guildId);
+                try {
+                    Files.deleteIfExists(fileOf(guildId));
+                    Files.deleteIfExists(journalOf(guildId));
+                } catch (IOException e) {
+                    LOGGER.error("Couldn't delete the stored lobby in {}", guildId, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads all stored lobbies. Snapshots that can't be read are skipped. The games
+     * are brought up to date with their journals, which are opened again to keep
+     * recording.
+     * @return The stored lobbies.
+     */
+    public List<StoredLobby> loadAll() {
+        List<StoredLobby> ret = new ArrayList<>();
+        if (!Files.isDirectory(DIRECTORY)) return ret;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY, "*" + EXTENSION)) {
+            for (Path file : files) {
+                try {
+                    ret.add(this.decode(Files.readAllBytes(file)));
+                } catch (IOException | SnapshotFormatException e) {
+                    LOGGER.warn("Couldn't read the lobby snapshot {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Couldn't read the stored lobbies", e);
+        }
+        return ret;
+    }
+
+    /**
+     * Waits for the snapshots that are still being written before the bot shuts down.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        this.writer.shutdown();
+        this.writer.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Encodes a lobby and its game.
+     * @param lobby The lobby. Must be in a game.
+     * @return The encoded lobby.
+     * @throws IOException If the data couldn't be written.
+     */
+    private byte[] encode(GameLobby lobby) throws IOException {
+        byte[] game = GameSnapshot.save(lobby.getGame(), this.cardCatalog);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(game.length + 256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(lobby.getGuildId());
+            out.writeUTF(lobby.getLobbyName());
+            out.writeLong(lobby.getPublicUI().getMessageChannel().getId().asLong());
+            List<Long> userIds = lobby.getUserIds();
+            List<String> nicknames = lobby.getNicknames();
+            List<Player> players = lobby.getGame().getPlayers();
+            out.writeInt(userIds.size());
+            for (int i = 0; i < userIds.size(); i++) {
+                out.writeLong(userIds.get(i));
+                out.writeUTF(nicknames.get(i));
+                // eliminated players are no longer part of the game
+                out.writeInt(players.indexOf(lobby.getPlayer(userIds.get(i))));
+            }
+            out.writeInt(game.length);
+            out.write(game);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a lobby and restores its game.
+     * @param data The encoded lobby.
+     * @return The stored lobby.
+     * @throws IOException If the data ends too early.
+     * @throws SnapshotFormatException If the data is not a lobby snapshot.
+     */
+    private StoredLobby decode(byte[] data) throws IOException, SnapshotFormatException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) throw new SnapshotFormatException("This is not a lobby snapshot.");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new SnapshotFormatException("Unknown lobby snapshot version " + version + ".");
+            StoredLobby lobby = new StoredLobby();
+            lobby.guildId = in.readLong();
+            lobby.name = in.readUTF();
+            lobby.channelId = in.readLong();
+            int users = in.readInt();
+            for (int i = 0; i < users; i++) {
+                lobby.userIds.add(in.readLong());
+                lobby.nicknames.add(in.readUTF());
+                lobby.playerIndices.add(in.readInt());
+            }
+            byte[] game = new byte[in.readInt()];
+            in.readFully(game);
+            lobby.game = GameSnapshot.restore(game, this.cardCatalog);
+            Path journal = journalOf(lobby.guildId);
+            if (Files.exists(journal)) {
+                boolean replayed = true;
+                try {
+                    GameJournal.replayTail(journal, lobby.game);
+                } catch (SnapshotFormatException e) {
+                    // a game that no longer matches its journal continues from the snapshot
+                    LOGGER.warn("Couldn't replay the journal {}: {}", journal, e.getMessage());
+                    lobby.game = GameSnapshot.restore(game, this.cardCatalog);
+                    replayed = false;
+                }
+                lobby.journal = GameJournal.open(journal);
+                // the next replay starts after the tail that no longer matches
+                if (!replayed) lobby.journal.markSnapshot(lobby.game);
+                synchronized (this.journals) {
+                    this.journals.put(lobby.guildId, lobby.journal);
+                }
+            }
+            return lobby;
+        }
+    }
+
+    /**
+     * Writes a snapshot to disk. The file is replaced at once, so a crash while
+     * writing never leaves half a snapshot behind.
+     * @param guildId The id of the server of the lobby.
+     * @param data The encoded lobby.
+     */
+    private void write(long guildId, byte[] data) {
+        try {
+            Files.createDirectories(DIRECTORY);
+            Path temp = DIRECTORY.resolve(guildId + EXTENSION + ".tmp");
+            Files.write(temp, data);
+            Files.move(temp, fileOf(guildId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Couldn't write the snapshot of the lobby in {}", guildId, e);
+        }
+    }
+
+    /**
+     * Gets the file of a server's snapshot.
+     * @param guildId The id of the server.
+     * @return The path of the file.
+     */
+    private static Path fileOf(long guildId) {
+        return DIRECTORY.resolve(guildId + EXTENSION);
+    }
+
+    /**
+     * Gets the file of a server's journal.
+     * @param guildId The id of the server.
+     * @return The path of the file.
+     */
+    private static Path journalOf(long guildId) {
+        return DIRECTORY.resolve(guildId + JOURNAL_EXTENSION);
+    }
+
+    /**
+     * A lobby read back from disk, with its game already restored.
+     */
+    public static class StoredLobby {
+        /**
+         * The id of the server of the lobby.
+         */
+        private long guildId;
+        /**
+         * The name of the lobby.
+         */
+        private String name;
+        /**
+         * The id of the channel public information is sent to.
+         */
+        private long channelId;
+        /**
+         * The discord user ids of the users in the lobby, in lobby order.
+         */
+        private final List<Long> userIds = new ArrayList<>();
+        /**
+         * The nicknames of the users, in lobby order.
+         */
+        private final List<String> nicknames = new ArrayList<>();
+        /**
+         * The position of each user's player in the game, or -1 if they've been eliminated.
+         */
+        private final List<Integer> playerIndices = new ArrayList<>();
+        /**
+         * The restored game.
+         */
+        private Game game;
+        /**
+         * The journal of the game, open to keep recording, or null if it has none.
+         */
+        private GameJournal journal;
+
+        public long getGuildId() {
+            return this.guildId;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public long getChannelId() {
+            return this.channelId;
+        }
+
+        public List<Long> getUserIds() {
+            return this.userIds;
+        }
+
+        public List<String> getNicknames() {
+            return this.nicknames;
+        }
+
+        public List<Integer> getPlayerIndices() {
+            return this.playerIndices;
+        }
+
+        public Game getGame() {
+            return this.game;
+        }
+
+        public @Nullable GameJournal getJournal() {
+            return this.journal;
+        }
+    }
+}
@@ -7,7 +7,6 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 import scrapscramble.bot.game.GameLobby;
 import scrapscramble.bot.game.LobbyHandler;
-import scrapscramble.game.player.CardUseFeedback;
 import scrapscramble.game.player.Player;
 
 @Component
@@ -50,25 +49,41 @@ public class BuyInteraction {
                             "Please report it to the developer.");
         }
 
-        var result = player.getShop().buy(buyIndex, lobby.getGame(), player);
-        switch (result) {
-            case EmptyPosition:
-                return event.reply()
-                        .withContent("There is no Upgrade at that position!")
-                        .withEphemeral(true);
-            case FrozenUpgrade:
-                return event.reply()
-                        .withContent("You cannot buy Frozen upgrades!")
-                        .withEphemeral(true);
-            case NotEnoughMana:
-                return  event.reply()
-                        .withContent("You don't have enough mana to buy this upgrade!")
-                        .withEphemeral(true);
-            case Successful:
-                lobby.refreshPlayerUI(event.getInteraction().getUser().getId().asLong());
-                return event.deferEdit();
-        }
+        long userId = event.getInteraction().getUser().getId().asLong();
+        // the purchase waits for everything else that's happening in the lobby
+        return Mono.fromFuture(lobby.getMailbox().submit(() -> this.buy(event, lobby, userId, buyIndex)))
+                .flatMap(reply -> reply);
+    }
 
-        return event.deferEdit();
+    /**
+     * Buys an upgrade for a player and answers the interaction. Must run in the mailbox
+     * of the lobby. The answer and the refreshed UI are built right away, but
+     * only sent once the returned mono is subscribed to.
+     * @param event The interaction event.
+     * @param lobby The lobby of the player.
+     * @param userId The discord id of the player.
+     * @param buyIndex The position of the upgrade in the shop.
+     * @return A mono that sends the answer.
+     */
+    private Mono<Void> buy(SelectMenuInteractionEvent event, GameLobby lobby, long userId, int buyIndex) {
+        // the player may have left the game while waiting
+        Player player = lobby.getPlayer(userId);
+        if (player == null) {
+            return event.reply()
+                    .withContent("You're not in a game!")
+                    .withEphemeral(true);
+        }
+        return switch (player.getShop().buy(buyIndex, lobby.getGame(), player)) {
+            case EmptyPosition -> event.reply()
+                    .withContent("There is no Upgrade at that position!")
+                    .withEphemeral(true);
+            case FrozenUpgrade -> event.reply()
+                    .withContent("You cannot buy Frozen upgrades!")
+                    .withEphemeral(true);
+            case NotEnoughMana -> event.reply()
+                    .withContent("You don't have enough mana to buy this upgrade!")
+                    .withEphemeral(true);
+            default -> event.deferEdit().then(lobby.refreshPlayerUI(userId));
+        };
     }
 }
@@ -53,21 +53,38 @@ public class PlayInteraction {
                             "Please report it to the developer.");
         }
 
-        var result = player.getHand().play(playIndex, lobby.getGame(), player);
-        switch (result) {
-            case EmptyPosition:
-                return event.reply()
-                        .withContent("There is no Card at that position!")
-                        .withEphemeral(true);
-            case NotEnoughMana:
-                return  event.reply()
-                        .withContent("You don't have enough mana to buy this upgrade!")
-                        .withEphemeral(true);
-            case Successful:
-                lobby.refreshPlayerUI(event.getInteraction().getUser().getId().asLong());
-                return event.deferEdit();
-        }
+        long userId = event.getInteraction().getUser().getId().asLong();
+        // playing the card waits for everything else that's happening in the lobby
+        return Mono.fromFuture(lobby.getMailbox().submit(() -> this.play(event, lobby, userId, playIndex)))
+                .flatMap(reply -> reply);
+    }
 
-        return event.deferEdit();
+    /**
+     * Plays a card for a player and answers the interaction. Must run in the mailbox
+     * of the lobby. The answer and the refreshed UI are built right away, but
+     * only sent once the returned mono is subscribed to.
+     * @param event The interaction event.
+     * @param lobby The lobby of the player.
+     * @param userId The discord id of the player.
+     * @param playIndex The position of the card in the hand.
+     * @return A mono that sends the answer.
+     */
+    private Mono<Void> play(SelectMenuInteractionEvent event, GameLobby lobby, long userId, int playIndex) {
+        // the player may have left the game while waiting
+        Player player = lobby.getPlayer(userId);
+        if (player == null) {
+            return event.reply()
+                    .withContent("You're not in a game!")
+                    .withEphemeral(true);
+        }
+        return switch (player.getHand().play(playIndex, lobby.getGame(), player)) {
+            case EmptyPosition -> event.reply()
+                    .withContent("There is no Card at that position!")
+                    .withEphemeral(true);
+            case NotEnoughMana -> event.reply()
+                    .withContent("You don't have enough mana to buy this upgrade!")
+                    .withEphemeral(true);
+            default -> event.deferEdit().then(lobby.refreshPlayerUI(userId));
+        };
     }
 }
@@ -0,0 +1,74 @@
+package scrapscramble.bot.ui;
+
+import discord4j.core.spec.EmbedCreateFields;
+import discord4j.core.spec.EmbedCreateSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs embeds into as few messages as discord allows, keeping their order.
+ * A message can hold up to {@value #MAXIMUM_EMBEDS} embeds, as long as all
+ * of their text together is no longer than {@value #MAXIMUM_CHARACTERS}
+ * characters.
+ */
+public final class EmbedBatcher {
+
+    /**
+     * The most embeds discord accepts in one message.
+     */
+    public static final int MAXIMUM_EMBEDS = 10;
+    /**
+     * The most characters discord accepts across all embeds of one message.
+     */
+    public static final int MAXIMUM_CHARACTERS = 6000;
+
+    /**
+     * Private constructor, the class only has static methods.
+     */
+    private EmbedBatcher() {
+    }
+
+    /**
+     * Splits embeds into the messages they should be sent in. A new message is
+     * only started when the next embed doesn't fit in the current one. An embed
+     * that is too long by itself is still given a message of its own.
+     * @param embeds The embeds, in the order they should be shown.
+     * @return The embeds of every message, in order. Empty if there are no embeds.
+     */
+    public static List<List<EmbedCreateSpec>> batch(List<EmbedCreateSpec> embeds) {
+        List<List<EmbedCreateSpec>> ret = new ArrayList<>();
+        List<EmbedCreateSpec> current = new ArrayList<>();
+        int characters = 0;
+        for (EmbedCreateSpec embed : embeds) {
+            int length = length(embed);
+            if (!current.isEmpty() && (current.size() == MAXIMUM_EMBEDS || characters + length > MAXIMUM_CHARACTERS)) {
+                ret.add(current);
+                current = new ArrayList<>();
+                characters = 0;
+            }
+            current.add(embed);
+            characters += length;
+        }
+        if (!current.isEmpty()) ret.add(current);
+        return ret;
+    }
+
+    /**
+     * Counts the characters of an embed the way discord does: the title, the
+     * description, the name and value of every field, the footer and the author.
+     * @param embed The embed.
+     * @return The amount of characters.
+     */
+    public static int length(EmbedCreateSpec embed) {
+        int ret = embed.titleOrElse("").length() + embed.descriptionOrElse("").length();
+        for (EmbedCreateFields.Field field : embed.fields()) {
+            ret += field.name().length() + field.value().length();
+        }
+        EmbedCreateFields.Footer footer = embed.footer();
+        if (footer != null) ret += footer.text().length();
+        EmbedCreateFields.Author author = embed.author();
+        if (author != null) ret += author.name().length();
+        return ret;
+    }
+}
@@ -9,6 +9,7 @@ import discord4j.core.spec.EmbedCreateSpec;
 import discord4j.core.spec.MessageCreateSpec;
 import discord4j.core.spec.MessageEditSpec;
 import discord4j.rest.util.Color;
+import reactor.core.publisher.Mono;
 import scrapscramble.bot.interactions.BuyInteraction;
 import scrapscramble.bot.interactions.PlayInteraction;
 import scrapscramble.game.Game;
@@ -18,7 +19,9 @@ import scrapscramble.game.cards.effects.DisplayScope;
 import scrapscramble.game.player.Player;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class PlayerUI {
 
@@ -35,10 +38,31 @@ public class PlayerUI {
      */
     private Game game;
     /**
-     * The current message that contains the game UI in discord. If null that means
-     * that there's no such message currently.
+     * The current message that contains the game UI in discord, as it will be once
+     * the last send or edit is done. Edits are chained onto it, so they always go
+     * to the newest UI and in the order they were made, even while it's still
+     * being sent. If null that means that there's no such message currently.
      */
-    private Message currentUIMessage;
+    private volatile Mono<Message> currentUIMessage;
+    /**
+     * What was last sent or edited into the current UI message: the embed and the
+     * data of every menu. An edit that would show the same thing is skipped.
+     */
+    private List<Object> lastPayload;
+    /**
+     * The hash of {@link PlayerUI#lastPayload}, compared before the payloads themselves.
+     */
+    private int lastPayloadHash;
+
+    // every panel is only rendered again once the versions it was rendered from change
+    private final CachedPanel<String> mechInfo = new CachedPanel<>();
+    private final CachedPanel<String> keywords = new CachedPanel<>();
+    private final CachedPanel<String> attachedUpgrades = new CachedPanel<>();
+    private final CachedPanel<String> aftermath = new CachedPanel<>();
+    private final CachedPanel<String> effects = new CachedPanel<>();
+    private final CachedPanel<String> shop = new CachedPanel<>();
+    private final CachedPanel<String> hand = new CachedPanel<>();
+    private final CachedPanel<List<LayoutComponent>> dropdownMenus = new CachedPanel<>();
 
     /**
      * Private default constructor.
@@ -65,10 +89,19 @@ public class PlayerUI {
 
     /**
      * Gets the content of the panel containing information about the player. Doesn't contain the title.
+     * Only rendered again once something it shows has changed.
      * @return Mech info.
      */
     public String getPanelMechInfo() {
         if (player == null) throw new NullPointerException("There was no player given");
+        return this.mechInfo.get(this::renderMechInfo, player.getVersion(), player.getCreatureData().getVersion());
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelMechInfo()}.
+     * @return The content of the panel.
+     */
+    private String renderMechInfo() {
         String ret = "";
         ret += "**" + player.getCreatureData().getAttack() + "/" + player.getCreatureData().getHealth() + "**\n";
         ret += "Mana: " + player.getCurrentMana() + "/" + player.getMaximumMana() + "\n";
@@ -84,10 +117,19 @@ public class PlayerUI {
     /**
      * Gets the content of the panel containing information about the player's keywords. Doesn't contain
      * the title.
+     * Only rendered again once something it shows has changed.
      * @return Keyword info, of a zero-width character if there's none.
      */
     public String getPanelKeywords() {
         if (player == null) throw new NullPointerException("There was no player given");
+        return this.keywords.get(this::renderKeywords, player.getCreatureData().getVersion());
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelKeywords()}.
+     * @return The content of the panel.
+     */
+    private String renderKeywords() {
         StringBuilder builder = new StringBuilder();
         for (var keyword : player.getCreatureData().getPresentKeywords()) {
             builder.append(keyword).append(": ").append(player.getCreatureData().getStatusKeyword(keyword)).append("\n");
@@ -99,9 +141,19 @@ public class PlayerUI {
     /**
      * Gets the content of the panel containing information about the upgrades currently attached
      * to the player. Those are only upgrades attached on the current round.
+     * Only rendered again once something it shows has changed.
      * @return Attached upgrades info, or a zero-width character if there's none.
      */
     public String getPanelAttachedUpgrades() {
+        return this.attachedUpgrades.get(this::renderAttachedUpgrades,
+                player.getAttachedUpgrades().getVersion(), versionOf(player.getAttachedUpgrades().getLastLayer()));
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelAttachedUpgrades()}.
+     * @return The content of the panel.
+     */
+    private String renderAttachedUpgrades() {
         StringBuilder builder = new StringBuilder();
         for (var upgrade : player.getAttachedUpgrades().getLastLayer()) {
             builder.append("- ").append(upgrade.getName()).append("\n");
@@ -113,9 +165,18 @@ public class PlayerUI {
     /**
      * Gets the content of the panel containing information about the aftermath information.
      * These are informative messages displayed to the player from aftermath effects.
+     * Only rendered again once something it shows has changed.
      * @return Aftermath info, or an empty string (NOT a zero-width character) if there's none.
      */
     public String getPanelAftermath() {
+        return this.aftermath.get(this::renderAftermath, player.getVersion());
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelAftermath()}.
+     * @return The content of the panel.
+     */
+    private String renderAftermath() {
         StringBuilder builder = new StringBuilder();
         for (var msg : player.getAftermathMessages()) {
             builder.append(msg).append("\n");
@@ -126,9 +187,20 @@ public class PlayerUI {
     /**
      * Gets the content of the panel containing information about the player's current
      * effects.
+     * Only rendered again once something it shows has changed.
      * @return Player effects, or a zero-width character if there's none.
      */
     public String getPanelEffects() {
+        // effects that expired on their own only show in the size of the registry
+        return this.effects.get(this::renderEffects,
+                player.getVersion(), player.getEffects().getVersion(), player.getEffects().size());
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelEffects()}.
+     * @return The content of the panel.
+     */
+    private String renderEffects() {
         StringBuilder builder = new StringBuilder();
         for (var effect : player.getEffects()) {
             if (effect.getDisplayScope() != DisplayScope.Hidden) {
@@ -141,9 +213,18 @@ public class PlayerUI {
 
     /**
      * Gets the content of the panel containing information about the player's shop.
+     * Only rendered again once something it shows has changed.
      * @return The shop info, or the string "(empty)" if it's empty.
      */
     public String getPanelShop() {
+        return this.shop.get(this::renderShop, player.getShop().getVersion(), player.getShop().getCardsVersion());
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelShop()}.
+     * @return The content of the panel.
+     */
+    private String renderShop() {
         StringBuilder builder = new StringBuilder();
         List<Upgrade> shop = player.getShop().getCardsWithEmptySlot();
         for (int i = 0; i < shop.size(); i++) {
@@ -164,6 +245,14 @@ public class PlayerUI {
      * @return
      */
     public String getPanelHand() {
+        return this.hand.get(this::renderHand, player.getHand().getVersion(), player.getHand().getCardsVersion());
+    }
+
+    /**
+     * Renders the panel of {@link PlayerUI#getPanelHand()}.
+     * @return The content of the panel.
+     */
+    private String renderHand() {
         StringBuilder builder = new StringBuilder();
         List<Card> hand = player.getHand().getCardsWithEmptySlot();
         for (int i = 0; i < hand.size(); i++) {
@@ -211,6 +300,16 @@ public class PlayerUI {
      * @return A list of all menus to be shown.
      */
     private List<LayoutComponent> getDropdownMenus() {
+        return this.dropdownMenus.get(this::renderDropdownMenus,
+                player.getShop().getVersion(), player.getShop().getCardsVersion(),
+                player.getHand().getVersion(), player.getHand().getCardsVersion());
+    }
+
+    /**
+     * Renders the menus of {@link PlayerUI#getDropdownMenus()}.
+     * @return A list of all menus to be shown.
+     */
+    private List<LayoutComponent> renderDropdownMenus() {
         List<LayoutComponent> ret = new ArrayList<>();
         // create a select menu out of shop options
         List<SelectMenu.Option> shopOptions = new ArrayList<>();
@@ -246,30 +345,139 @@ public class PlayerUI {
     }
 
     /**
-     * Sends a new UI to the player.
+     * Sends a new UI to the player. The UI is built right away, from the game as
+     * it is now, but only sent once the returned mono is subscribed to.
+     * @return A mono that completes once the message has been sent.
      */
-    public void sendNewUI() {
-        var dms = user.getPrivateChannel().block();
-        if (dms == null) throw new NullPointerException("Could not create channel for this player! " + user.getUsername());
-
+    public Mono<Void> sendNewUI() {
+        var embed = this.getUIEmbed();
+        var menus = this.getDropdownMenus();
+        this.rememberPayload(this.payloadOf(embed, menus));
         var msg = MessageCreateSpec.builder()
-                .addEmbed(this.getUIEmbed()).components(this.getDropdownMenus());
+                .addEmbed(embed).components(menus).build();
 
-        this.currentUIMessage = dms.createMessage(msg.build()).block();
+        Mono<Message> message = user.getPrivateChannel()
+                .switchIfEmpty(Mono.error(() -> new NullPointerException(
+                        "Could not create channel for this player! " + user.getUsername())))
+                .flatMap(dms -> dms.createMessage(msg))
+                .cache();
+        // set right away, so updates made before the message arrives edit this one
+        this.currentUIMessage = message;
+        return message
+                .doOnError(e -> this.forget(message))
+                .then();
     }
 
     /**
      * Updates the current UI for the player. If there is no current UI a brand
-     * new one is sent instead.
+     * new one is sent instead. The UI is built right away, from the game as it
+     * is now, but only sent once the returned mono is subscribed to. If the UI
+     * would look the same as what the message already shows, nothing is sent.
+     * @return A mono that completes once the message has been edited or sent.
      */
-    public void updateCurrentUI() {
-        if (this.currentUIMessage == null) {
-            this.sendNewUI();
-            return;
+    public Mono<Void> updateCurrentUI() {
+        Mono<Message> previous = this.currentUIMessage;
+        if (previous == null) {
+            return this.sendNewUI();
+        }
+        var embed = this.getUIEmbed();
+        var menus = this.getDropdownMenus();
+        var payload = this.payloadOf(embed, menus);
+        if (payload.hashCode() == this.lastPayloadHash && payload.equals(this.lastPayload)) {
+            return Mono.empty();
         }
+        this.rememberPayload(payload);
         var msg = MessageEditSpec.builder()
-                .addEmbed(this.getUIEmbed()).components(this.getDropdownMenus());
+                .addEmbed(embed).components(menus).build();
+
+        Mono<Message> edited = previous
+                .flatMap(message -> message.edit(msg)
+                        // a failed edit leaves the message as it was
+                        .onErrorResume(e -> {
+                            e.printStackTrace();
+                            this.rememberPayload(null);
+                            return Mono.just(message);
+                        }))
+                .cache();
+        this.currentUIMessage = edited;
+        return edited
+                .doOnError(e -> this.forget(edited))
+                .then();
+    }
 
-        this.currentUIMessage.edit(msg.build()).block();
+    /**
+     * Forgets the current UI message after it couldn't be sent, so the next update
+     * sends a new one. Does nothing if a newer message has been sent meanwhile.
+     * @param message The message that couldn't be sent.
+     */
+    private void forget(Mono<Message> message) {
+        if (this.currentUIMessage != message) return;
+        this.currentUIMessage = null;
+        this.rememberPayload(null);
+    }
+
+    /**
+     * Gets what a message with an embed and menus shows, in a form that can be
+     * compared with another.
+     * @param embed The embed.
+     * @param menus The menus.
+     * @return The payload.
+     */
+    private List<Object> payloadOf(EmbedCreateSpec embed, List<LayoutComponent> menus) {
+        List<Object> ret = new ArrayList<>(menus.size() + 1);
+        ret.add(embed);
+        for (LayoutComponent menu : menus) ret.add(menu.getData());
+        return ret;
+    }
+
+    /**
+     * Remembers what the current UI message shows.
+     * @param payload The payload, or null if it's not known, so the next update
+     *                is always sent.
+     */
+    private void rememberPayload(List<Object> payload) {
+        this.lastPayload = payload;
+        this.lastPayloadHash = payload == null ? 0 : payload.hashCode();
+    }
+
+    /**
+     * Adds up the versions of cards. Versions only go up, so the sum changes
+     * whenever any of the cards changes.
+     * @param cards The cards.
+     * @return The sum of their versions.
+     */
+    private static long versionOf(List<? extends Card> cards) {
+        long ret = 0;
+        for (Card card : cards) ret += card.getVersion();
+        return ret;
+    }
+
+    /**
+     * A rendered part of the UI, kept until the versions it was rendered from change.
+     * @param <T> The type of the rendered part.
+     */
+    private static class CachedPanel<T> {
+        /**
+         * The versions the part was rendered from.
+         */
+        private long[] key;
+        /**
+         * The rendered part, or null if it was never rendered.
+         */
+        private T value;
+
+        /**
+         * Gets the rendered part, rendering it again if the versions changed.
+         * @param render Renders the part.
+         * @param key The versions of everything the part shows.
+         * @return The rendered part.
+         */
+        T get(Supplier<T> render, long... key) {
+            if (this.value == null || !Arrays.equals(this.key, key)) {
+                this.value = render.get();
+                this.key = key;
+            }
+            return this.value;
+        }
     }
 }
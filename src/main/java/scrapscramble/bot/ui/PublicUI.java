@@ -2,11 +2,17 @@ package scrapscramble.bot.ui;
 
 import discord4j.core.object.entity.channel.MessageChannel;
 import discord4j.core.spec.EmbedCreateSpec;
+import discord4j.core.spec.MessageCreateSpec;
 import discord4j.rest.util.Color;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 import scrapscramble.bot.game.GameLobby;
 import scrapscramble.game.FightOutput;
 import scrapscramble.game.player.Player;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,9 +48,19 @@ public class PublicUI {
     }
 
     /**
-     * Sends an embed with the pairings for the current game round.
+     * Gets the channel the UI messages are sent to.
+     * @return The message channel.
      */
-    public void sendPairings() {
+    public MessageChannel getMessageChannel() {
+        return this.messageChannel;
+    }
+
+    /**
+     * Sends an embed with the pairings for the current game round. The embed is
+     * built right away, but only sent once the returned mono is subscribed to.
+     * @return A mono that completes once the message has been sent.
+     */
+    public Mono<Void> sendPairings() {
         var embed = EmbedCreateSpec.builder()
                 .color(Color.of(12, 194, 255))
                 .title("This Round's Pairings");
@@ -67,15 +83,37 @@ public class PublicUI {
         }
         String msgFinal = message.toString();
         embed.description(msgFinal.isEmpty() ? "(none)" : msgFinal);
-        this.messageChannel.createMessage(embed.build()).block();
+        return this.messageChannel.createMessage(embed.build()).then();
+    }
+
+    /**
+     * Tells the players which of them couldn't be sent their UI.
+     * @param nicknames The nicknames of the players.
+     * @return A mono that completes once the message has been sent.
+     */
+    public Mono<Void> sendUndeliveredUIs(List<String> nicknames) {
+        var embed = EmbedCreateSpec.builder()
+                .color(Color.RED)
+                .title("Couldn't Send Some UIs")
+                .description("These players didn't get their UI, they may not accept direct messages: " +
+                        String.join(", ", nicknames))
+                .build();
+        return this.messageChannel.createMessage(embed).then();
     }
 
     /**
      * Sends all fight outputs from a fight to the public channel to
-     * display as embeds.
+     * display as embeds. As many fights as discord allows are packed into each
+     * message, see {@link EmbedBatcher}. The embeds are built right away, but
+     * only sent once the returned mono is subscribed to. Cancelling the
+     * subscription stops the fights that haven't been sent yet.
      * @param fightOutputs List of fight outputs.
+     * @param pacing How long to wait after each message.
+     * @param scheduler The scheduler the waiting is timed on.
+     * @return A mono that completes once every fight has been sent.
      */
-    public void sendFightOutputs(List<FightOutput> fightOutputs) {
+    public Mono<Void> sendFightOutputs(List<FightOutput> fightOutputs, Duration pacing, Scheduler scheduler) {
+        List<EmbedCreateSpec> embeds = new ArrayList<>();
         for (var output : fightOutputs) {
             var embed = EmbedCreateSpec.builder();
             embed.title("Fight! " + output.getPlayer1().getName() + " vs " + output.getPlayer2().getName());
@@ -110,13 +148,12 @@ public class PublicUI {
                     x -> inComabt.append(x).append("\n"));
             embed.addField("[Combat]", inComabt.toString(), false);
 
-            this.messageChannel.createMessage(embed.build()).block();
-            // TODO finetune the wait value between combats
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+            embeds.add(embed.build());
         }
+        return Flux.fromIterable(EmbedBatcher.batch(embeds))
+                .concatMap(batch -> this.messageChannel.createMessage(MessageCreateSpec.builder()
+                                .addAllEmbeds(batch).build())
+                        .then(Mono.delay(pacing, scheduler)))
+                .then();
     }
 }
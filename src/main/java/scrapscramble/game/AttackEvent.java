@@ -0,0 +1,154 @@
+package scrapscramble.game;
+
+/**
+ * A single attack of one player on another during a fight.
+ */
+public class AttackEvent implements CombatEvent {
+
+    /**
+     * The name of the attacking player.
+     */
+    private final String attacker;
+    /**
+     * The name of the defending player.
+     */
+    private final String defender;
+    /**
+     * The attack of the attacker before keywords are applied.
+     */
+    private final int baseDamage;
+    /**
+     * The Spikes of the attacker that were used for the attack.
+     */
+    private final int spikes;
+    /**
+     * The Shields of the defender that were used against the attack.
+     */
+    private final int shields;
+    /**
+     * The damage the defender took.
+     */
+    private final int damage;
+    /**
+     * The health of the defender after the attack.
+     */
+    private final int resultingHealth;
+
+    /**
+     * Creates a new attack event.
+     * @param attacker The name of the attacking player.
+     * @param defender The name of the defending player.
+     * @param baseDamage The attack of the attacker before keywords are applied.
+     * @param spikes The Spikes of the attacker, 0 if there were none.
+     * @param shields The Shields of the defender, 0 if there were none.
+     * @param damage The damage the defender took.
+     * @param resultingHealth The health of the defender after the attack.
+     */
+    public AttackEvent(String attacker, String defender, int baseDamage, int spikes, int shields,
+                       int damage, int resultingHealth) {
+        this.attacker = attacker;
+        this.defender = defender;
+        this.baseDamage = baseDamage;
+        this.spikes = spikes;
+        this.shields = shields;
+        this.damage = damage;
+        this.resultingHealth = resultingHealth;
+    }
+
+    /**
+     * Calculates the damage of an attack the way combat does: Spikes are added to
+     * the attack and Shields are subtracted from it, down to 0.
+     * @param baseDamage The attack of the attacker.
+     * @param spikes The Spikes of the attacker.
+     * @param shields The Shields of the defender.
+     * @return The damage the defender takes.
+     */
+    public static int damage(int baseDamage, int spikes, int shields) {
+        int damage = baseDamage;
+        if (spikes > 0) damage += spikes;
+        if (shields > 0) {
+            damage -= shields;
+            if (damage < 0) damage = 0;
+        }
+        return damage;
+    }
+
+    /**
+     * Gets the name of the attacking player.
+     * @return The attacker's name.
+     */
+    public String getAttacker() {
+        return this.attacker;
+    }
+
+    /**
+     * Gets the name of the defending player.
+     * @return The defender's name.
+     */
+    public String getDefender() {
+        return this.defender;
+    }
+
+    /**
+     * Gets the attack of the attacker before keywords were applied.
+     * @return The base damage.
+     */
+    public int getBaseDamage() {
+        return this.baseDamage;
+    }
+
+    /**
+     * Gets the Spikes of the attacker that were used for the attack.
+     * @return The Spikes, or 0 if there were none.
+     */
+    public int getSpikes() {
+        return this.spikes;
+    }
+
+    /**
+     * Gets the Shields of the defender that were used against the attack.
+     * @return The Shields, or 0 if there were none.
+     */
+    public int getShields() {
+        return this.shields;
+    }
+
+    /**
+     * Gets the damage the defender took.
+     * @return The damage.
+     */
+    public int getDamage() {
+        return this.damage;
+    }
+
+    /**
+     * Gets the health of the defender after the attack.
+     * @return The resulting health.
+     */
+    public int getResultingHealth() {
+        return this.resultingHealth;
+    }
+
+    /**
+     * Checks whether the attack destroyed the defender.
+     * @return True if the defender has no health left.
+     */
+    public boolean isDestroyed() {
+        return this.resultingHealth <= 0;
+    }
+
+    @Override
+    public String render() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(this.attacker).append(" attacks for ").append(this.baseDamage).append(" damage, ");
+        if (this.shields > 0) {
+            if (this.spikes > 0) builder.append("adjusted to ").append(this.damage).append(" by Spikes and Shields, ");
+            else builder.append("reduced to ").append(this.damage).append(" by Shields, ");
+        } else if (this.spikes > 0) {
+            builder.append("increased to ").append(this.damage).append(" by Spikes, ");
+        }
+        if (this.isDestroyed()) builder.append("destroying ").append(this.defender).append(".");
+        else builder.append("reducing ").append(this.defender).append(" to ").append(this.resultingHealth).append(" Health.");
+        return builder.toString();
+    }
+}
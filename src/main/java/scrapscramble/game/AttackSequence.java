@@ -0,0 +1,102 @@
+package scrapscramble.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A whole series of attacks between two players that was resolved at once. Only
+ * the stats the players started with are stored; each attack is worked out again
+ * when the sequence is rendered, which produces the same messages as recording
+ * every {@link AttackEvent} on its own.
+ */
+public class AttackSequence implements CombatEvent {
+
+    /**
+     * The names of the players, the one attacking first at index 0.
+     */
+    private final String[] names;
+    /**
+     * The attack of each player.
+     */
+    private final int[] attack;
+    /**
+     * The Spikes of each player, used by their first attack.
+     */
+    private final int[] spikes;
+    /**
+     * The Shields of each player, used against the first attack on them.
+     */
+    private final int[] shields;
+    /**
+     * The health of each player before the first attack.
+     */
+    private final int[] health;
+    /**
+     * How many attacks happened in total.
+     */
+    private final long attacks;
+
+    /**
+     * Creates a new attack sequence. The players take turns attacking, starting with
+     * the first one.
+     * @param firstName The name of the player attacking first.
+     * @param firstAttack The attack of the first player.
+     * @param firstSpikes The Spikes of the first player.
+     * @param firstShields The Shields of the first player.
+     * @param firstHealth The health of the first player before the first attack.
+     * @param secondName The name of the player attacking second.
+     * @param secondAttack The attack of the second player.
+     * @param secondSpikes The Spikes of the second player.
+     * @param secondShields The Shields of the second player.
+     * @param secondHealth The health of the second player before the first attack.
+     * @param attacks How many attacks happened in total.
+     */
+    public AttackSequence(String firstName, int firstAttack, int firstSpikes, int firstShields, int firstHealth,
+                          String secondName, int secondAttack, int secondSpikes, int secondShields, int secondHealth,
+                          long attacks) {
+        this.names = new String[]{firstName, secondName};
+        this.attack = new int[]{firstAttack, secondAttack};
+        this.spikes = new int[]{firstSpikes, secondSpikes};
+        this.shields = new int[]{firstShields, secondShields};
+        this.health = new int[]{firstHealth, secondHealth};
+        this.attacks = attacks;
+    }
+
+    /**
+     * Gets how many attacks happened in total.
+     * @return The amount of attacks.
+     */
+    public long getAttacks() {
+        return this.attacks;
+    }
+
+    @Override
+    public String render() {
+        return String.join("\n", this.renderAll());
+    }
+
+    @Override
+    public void renderTo(List<String> messages) {
+        int[] health = this.health.clone();
+        for (long i = 0; i < this.attacks; i++) {
+            int attacker = (int) (i % 2), defender = 1 - attacker;
+            // keywords only apply to the first attack of each player
+            int spikes = i < 2 ? this.spikes[attacker] : 0;
+            int shields = i < 2 ? this.shields[defender] : 0;
+            int damage = AttackEvent.damage(this.attack[attacker], spikes, shields);
+            health[defender] -= damage;
+            messages.add(new AttackEvent(this.names[attacker], this.names[defender], this.attack[attacker],
+                    spikes, shields, damage, health[defender]).render());
+        }
+    }
+
+    /**
+     * Renders every attack of the sequence.
+     * @return One message per attack.
+     */
+    private List<String> renderAll() {
+        List<String> ret = new ArrayList<>();
+        this.renderTo(ret);
+        return ret;
+    }
+}
@@ -1,6 +1,5 @@
 package scrapscramble.game;
 
-import org.apache.commons.lang3.RandomUtils;
 import org.jetbrains.annotations.NotNull;
 import scrapscramble.game.cards.Card;
 import scrapscramble.game.cards.CardNotFoundException;
@@ -19,6 +18,10 @@ public abstract class CardContainer<T extends Card> {
      * an empty space.
      */
     private List<T> cards;
+    /**
+     * Goes up every time a card is added, removed or replaced.
+     */
+    private long version;
 
     /**
      * Default constructor. Initialises the card container to be empty.
@@ -55,6 +58,7 @@ public abstract class CardContainer<T extends Card> {
     public void addCard(T newCard) throws IllegalArgumentException{
         if (newCard == null) throw new IllegalArgumentException();
         this.cards.add(newCard);
+        this.version++;
     }
 
     /**
@@ -90,6 +94,7 @@ public abstract class CardContainer<T extends Card> {
 
         this.cards.set(index, null);
         this.clearTrailingNulls();
+        this.version++;
         return true;
     }
 
@@ -107,6 +112,7 @@ public abstract class CardContainer<T extends Card> {
         T ret = this.cards.get(index);
         this.cards.set(index, null);
         this.clearTrailingNulls();
+        this.version++;
         return ret;
     }
 
@@ -134,12 +140,13 @@ public abstract class CardContainer<T extends Card> {
 
     /**
      * Gets a random card from the container. Ignores all empty spaces.
+     * @param random The random number generator to use.
      * @return A random card, or null if the container is empty.
      */
-    public T geRandomCard() {
+    public T geRandomCard(GameRandom random) {
         var cards = this.getAllCards();
         if (cards.isEmpty()) return null;
-        return cards.get(RandomUtils.nextInt(0, cards.size()));
+        return cards.get(random.nextInt(cards.size()));
     }
 
     /**
@@ -166,6 +173,7 @@ public abstract class CardContainer<T extends Card> {
      */
     public void clear() {
         this.cards.clear();
+        this.version++;
     }
 
     /**
@@ -178,5 +186,29 @@ public abstract class CardContainer<T extends Card> {
         if (index < 0 || index >= this.containerSize()) throw new IndexOutOfBoundsException();
         this.cards.set(index, newCard);
         if (newCard == null) this.clearTrailingNulls();
+        this.version++;
+    }
+
+    /**
+     * Gets the version of the container. It goes up every time a card is added,
+     * removed or replaced, so two equal versions mean the same cards in the same
+     * slots. Changes to the cards themselves are tracked by {@link Card#getVersion()}.
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Adds up the versions of all cards in the container. Versions only go up, so
+     * the sum changes whenever any of the cards changes.
+     * @return The sum of the versions of the cards.
+     */
+    public long getCardsVersion() {
+        long ret = 0;
+        for (T card : this.cards) {
+            if (card != null) ret += card.getVersion();
+        }
+        return ret;
     }
 }
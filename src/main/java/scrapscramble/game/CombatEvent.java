@@ -0,0 +1,27 @@
+package scrapscramble.game;
+
+import java.util.List;
+
+/**
+ * Something that happened during a fight, recorded in a {@link FightOutput}.
+ * Events only hold the data of what happened and are turned into text when
+ * the output is displayed.
+ */
+@FunctionalInterface
+public interface CombatEvent {
+
+    /**
+     * Turns the event into a human-readable message.
+     * @return The message describing the event.
+     */
+    String render();
+
+    /**
+     * Turns the event into human-readable messages and adds them to a list. Events
+     * that stand for multiple things happening add one message for each.
+     * @param messages The list to add the messages to.
+     */
+    default void renderTo(List<String> messages) {
+        messages.add(this.render());
+    }
+}
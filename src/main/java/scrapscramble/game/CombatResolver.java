@@ -0,0 +1,119 @@
+package scrapscramble.game;
+
+import org.jetbrains.annotations.Nullable;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.effects.EffectTrigger;
+import scrapscramble.game.player.Player;
+
+/**
+ * Resolves the combat of a fight without simulating every attack. After the first
+ * attack of each player has used up Spikes and Shields, every attack of a player
+ * deals the same damage, so the amount of attacks needed to destroy the other
+ * player is a division. This only works as long as nothing happens between attacks,
+ * see {@link CombatResolver#canFastForward(Player, Player)}.
+ */
+final class CombatResolver {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private CombatResolver() {}
+
+    /**
+     * Checks whether the combat between two players can be resolved at once. This
+     * isn't possible if either player has effects that activate between attacks.
+     * @param first The player attacking first.
+     * @param second The player attacking second.
+     * @return True if {@link CombatResolver#fastForward(Player, Player, FightOutput)} can be used.
+     */
+    static boolean canFastForward(Player first, Player second) {
+        return !hasPerAttackEffects(first) && !hasPerAttackEffects(second);
+    }
+
+    /**
+     * Checks whether a player has effects that activate between attacks.
+     * @param player The player to check.
+     * @return True if there are such effects.
+     */
+    private static boolean hasPerAttackEffects(Player player) {
+        return player.getEffects().has(EffectTrigger.AfterThisAttacks)
+                || player.getEffects().has(EffectTrigger.AfterTheEnemyAttacks);
+    }
+
+    /**
+     * Resolves the combat between two players, who take turns attacking starting
+     * with the first one. Both players must be alive. The players end up with the
+     * same health and keywords as if every attack had been made one by one.
+     * @param first The player attacking first.
+     * @param second The player attacking second.
+     * @param fightOutput Where to write the output.
+     * @return The player who won, or null if neither player can ever destroy the other.
+     */
+    static @Nullable Player fastForward(Player first, Player second, FightOutput fightOutput) {
+        int attack1 = first.getAttack(), attack2 = second.getAttack();
+        int health1 = first.getHealth(), health2 = second.getHealth();
+        int spikes1 = first.getCreatureData().getStatusKeyword(StatusKeyword.Spikes);
+        int spikes2 = second.getCreatureData().getStatusKeyword(StatusKeyword.Spikes);
+        int shields1 = first.getCreatureData().getStatusKeyword(StatusKeyword.Shields);
+        int shields2 = second.getCreatureData().getStatusKeyword(StatusKeyword.Shields);
+
+        Player winner;
+        long attacks;
+        long end1 = health1, end2;
+        // the first attack of each player uses up their Spikes and the defender's Shields
+        end2 = health2 - AttackEvent.damage(attack1, spikes1, shields2);
+        first.getCreatureData().setStatusKeyword(StatusKeyword.Spikes, 0);
+        second.getCreatureData().setStatusKeyword(StatusKeyword.Shields, 0);
+        if (end2 <= 0) {
+            winner = first;
+            attacks = 1;
+        } else {
+            end1 = health1 - AttackEvent.damage(attack2, spikes2, shields1);
+            second.getCreatureData().setStatusKeyword(StatusKeyword.Spikes, 0);
+            first.getCreatureData().setStatusKeyword(StatusKeyword.Shields, 0);
+            if (end1 <= 0) {
+                winner = second;
+                attacks = 2;
+            } else {
+                // every following attack deals exactly the attack of the player
+                long hits1 = attacksToDestroy(end2, attack1);
+                long hits2 = attacksToDestroy(end1, attack2);
+                if (hits1 == Long.MAX_VALUE && hits2 == Long.MAX_VALUE) {
+                    winner = null;
+                    attacks = 2;
+                } else if (hits1 <= hits2) {
+                    // the first player's nth attack comes before the second player's nth attack
+                    winner = first;
+                    attacks = 2 + 2 * hits1 - 1;
+                    end2 -= hits1 * attack1;
+                    end1 -= (hits1 - 1) * attack2;
+                } else {
+                    winner = second;
+                    attacks = 2 + 2 * hits2;
+                    end2 -= hits2 * attack1;
+                    end1 -= hits2 * attack2;
+                }
+            }
+        }
+
+        first.setHealth((int) end1);
+        second.setHealth((int) end2);
+        if (fightOutput.isLogging()) {
+            fightOutput.addEvent(FightOutput.Location.DuringCombat, new AttackSequence(
+                    first.getName(), attack1, spikes1, shields1, health1,
+                    second.getName(), attack2, spikes2, shields2, health2, attacks));
+        }
+        return winner;
+    }
+
+    /**
+     * Calculates how many attacks it takes to destroy a player.
+     * @param health The health of the defender.
+     * @param attack The damage of each attack.
+     * @return The amount of attacks, or {@link Long#MAX_VALUE} if the attacks deal no damage.
+     */
+    private static long attacksToDestroy(long health, int attack) {
+        if (attack <= 0) return Long.MAX_VALUE;
+        return (health + attack - 1) / attack;
+    }
+}
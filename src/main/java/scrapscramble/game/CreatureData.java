@@ -3,8 +3,7 @@ package scrapscramble.game;
 import org.checkerframework.checker.units.qual.C;
 import scrapscramble.game.cards.StatusKeyword;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -23,10 +22,24 @@ public class CreatureData implements Cloneable{
      */
     private int health;
     /**
-     * Contains the values of all keywords relating to the creature. A keyword not
-     * present in the map means that its value is 0.
+     * All status keywords, in order of their ordinals.
      */
-    private Map<StatusKeyword, Integer> keywords;
+    private static final StatusKeyword[] KEYWORDS = StatusKeyword.values();
+
+    /**
+     * Contains the values of all keywords relating to the creature, indexed by the
+     * ordinal of the keyword. Values are never negative.
+     */
+    private int[] keywords;
+    /**
+     * Bitmask of the keywords with a value above 0. The bit of a keyword is
+     * {@code 1 << keyword.ordinal()}, so there can't be more than 32 keywords.
+     */
+    private int presentKeywords;
+    /**
+     * Goes up every time the stats or keywords of the creature change.
+     */
+    private long version;
 
     /**
      * Creates a new creature data with attack, health and all
@@ -45,7 +58,8 @@ public class CreatureData implements Cloneable{
     public CreatureData(int attack, int health) {
         this.attack = attack;
         this.health = health;
-        this.keywords = new HashMap<>();
+        this.keywords = new int[KEYWORDS.length];
+        this.presentKeywords = 0;
     }
 
     /**
@@ -62,6 +76,7 @@ public class CreatureData implements Cloneable{
      */
     public void setAttack(int attack) {
         this.attack = attack;
+        this.version++;
     }
 
     /**
@@ -78,6 +93,7 @@ public class CreatureData implements Cloneable{
      */
     public void setHealth(int health) {
         this.health = health;
+        this.version++;
     }
 
     /**
@@ -86,8 +102,7 @@ public class CreatureData implements Cloneable{
      * @return The value of the keyword.
      */
     public int getStatusKeyword(StatusKeyword keyword) {
-        if (!this.keywords.containsKey(keyword)) return 0;
-        return this.keywords.get(keyword);
+        return this.keywords[keyword.ordinal()];
     }
 
     /**
@@ -96,15 +111,19 @@ public class CreatureData implements Cloneable{
      * @param value The value of the keyword.
      */
     public void setStatusKeyword(StatusKeyword keyword, int value) {
-        this.keywords.put(keyword, value);
-        if (value <= 0) this.keywords.remove(keyword);
+        this.putKeyword(keyword.ordinal(), value);
     }
 
     /**
      * Sets all keywords for the creature to 0.
      */
     public void clearStatusKeywords() {
-        this.keywords.clear();
+        // only the present keywords can be above 0
+        for (int mask = this.presentKeywords; mask != 0; mask &= mask - 1) {
+            this.keywords[Integer.numberOfTrailingZeros(mask)] = 0;
+        }
+        this.presentKeywords = 0;
+        this.version++;
     }
 
     /**
@@ -114,19 +133,37 @@ public class CreatureData implements Cloneable{
      * @param change The value to add/subtract from the keyword's value.
      */
     public void changeKeyword(StatusKeyword keyword, int change) {
-        if (this.keywords.containsKey(keyword)) {
-            this.keywords.put(keyword, this.keywords.get(keyword) + change);
-            if (this.keywords.get(keyword) <= 0) this.keywords.remove(keyword);
-        }
-        else if (change > 0) this.keywords.put(keyword, change);
+        this.putKeyword(keyword.ordinal(), this.keywords[keyword.ordinal()] + change);
     }
 
     /**
      * Gets all status keywords that the creature has with a value above 0.
-     * @return A set containing all matching keywords.
+     * @return A set containing all matching keywords, in the order they are declared.
+     * Changes to it are not reflected in the creature.
      */
     public Set<StatusKeyword> getPresentKeywords() {
-        return this.keywords.keySet();
+        EnumSet<StatusKeyword> ret = EnumSet.noneOf(StatusKeyword.class);
+        for (int mask = this.presentKeywords; mask != 0; mask &= mask - 1) {
+            ret.add(KEYWORDS[Integer.numberOfTrailingZeros(mask)]);
+        }
+        return ret;
+    }
+
+    /**
+     * Sets the value of a keyword by its ordinal, keeping the bitmask of the present
+     * keywords up to date. Values of 0 or below are stored as 0.
+     * @param ordinal The ordinal of the keyword.
+     * @param value The new value of the keyword.
+     */
+    private void putKeyword(int ordinal, int value) {
+        this.version++;
+        if (value > 0) {
+            this.keywords[ordinal] = value;
+            this.presentKeywords |= 1 << ordinal;
+        } else {
+            this.keywords[ordinal] = 0;
+            this.presentKeywords &= ~(1 << ordinal);
+        }
     }
 
     /**
@@ -137,16 +174,27 @@ public class CreatureData implements Cloneable{
     public void addStats(CreatureData otherData) {
         this.attack += otherData.attack;
         this.health += otherData.health;
-        for (StatusKeyword kw : otherData.keywords.keySet()) {
-            if (!this.keywords.containsKey(kw)) this.keywords.put(kw, otherData.keywords.get(kw));
-            else this.keywords.put(kw, this.keywords.get(kw) + otherData.keywords.get(kw));
+        for (int mask = otherData.presentKeywords; mask != 0; mask &= mask - 1) {
+            int ordinal = Integer.numberOfTrailingZeros(mask);
+            this.keywords[ordinal] += otherData.keywords[ordinal];
         }
+        this.presentKeywords |= otherData.presentKeywords;
+        this.version++;
+    }
+
+    /**
+     * Gets the version of the creature data. It goes up every time the stats or
+     * keywords change.
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.version;
     }
 
     @Override
     public CreatureData clone() throws CloneNotSupportedException {
         CreatureData ret = (CreatureData) super.clone();
-        ret.keywords = new HashMap<>(this.keywords);
+        ret.keywords = this.keywords.clone();
         return ret;
     }
 }
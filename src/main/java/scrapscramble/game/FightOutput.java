@@ -1,18 +1,28 @@
 package scrapscramble.game;
 
+import org.jetbrains.annotations.Nullable;
 import scrapscramble.game.player.Player;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Records everything that happens during a fight. Events are stored as they are
+ * and only turned into text by {@link FightOutput#getMessages(Location)}.
+ */
 public class FightOutput {
 
     /**
-     * Maps a location to the corresponding messages at it.
+     * Maps a location to the corresponding events at it.
      */
-    private final Map<Location, List<String>> messages;
+    private final Map<Location, List<CombatEvent>> events;
+    /**
+     * Whether events are recorded. If not, the output stays empty.
+     */
+    private final boolean logging;
     /**
      * Reference to player 1.
      */
@@ -21,6 +31,10 @@ public class FightOutput {
      * Reference to player 2.
      */
     private final Player player2;
+    /**
+     * The player who won the fight, or null if the fight ended in a stalemate.
+     */
+    private Player winner;
 
     /**
      * Creates a new fight output about a fight between two players.
@@ -28,9 +42,30 @@ public class FightOutput {
      * @param player2 The second player.
      */
     public FightOutput(Player player1, Player player2) {
-        this.messages = new HashMap<>();
+        this(player1, player2, true);
+    }
+
+    /**
+     * Creates a new fight output about a fight between two players.
+     * @param player1 The first player.
+     * @param player2 The second player.
+     * @param logging Whether to record what happens. If false, nothing is recorded,
+     *                which is useful when no one is going to read the output.
+     */
+    public FightOutput(Player player1, Player player2, boolean logging) {
+        this.events = new EnumMap<>(Location.class);
         this.player1 = player1;
         this.player2 = player2;
+        this.logging = logging;
+    }
+
+    /**
+     * Checks whether the output records what happens. Callers can use this to skip
+     * creating events that would be thrown away.
+     * @return True if events are recorded.
+     */
+    public boolean isLogging() {
+        return this.logging;
     }
 
     /**
@@ -39,19 +74,41 @@ public class FightOutput {
      * @param msg The message.
      */
     public void addMessage(Location location, String msg) {
-        if (!messages.containsKey(location)) messages.put(location, new ArrayList<>());
-        messages.get(location).add(msg);
+        this.addEvent(location, () -> msg);
     }
 
     /**
-     * Gets all messages at a given location.
+     * Adds an event to one of the locations in the fight output.
+     * @param location Where to put the event.
+     * @param event The event.
+     */
+    public void addEvent(Location location, CombatEvent event) {
+        if (!this.logging) return;
+        this.events.computeIfAbsent(location, x -> new ArrayList<>()).add(event);
+    }
+
+    /**
+     * Gets all events at a given location.
+     * @param location Location of the events.
+     * @return An unmodifiable list of all events at the location, in the order they happened.
+     */
+    public List<CombatEvent> getEvents(Location location) {
+        return Collections.unmodifiableList(this.events.getOrDefault(location, List.of()));
+    }
+
+    /**
+     * Gets all messages at a given location. The events are turned into text
+     * every time this is called.
      * @param location Location of the messages.
-     * @return A list of all messages at the location. Changes to
-     * the list are reflected in the actual output.
+     * @return A list of all messages at the location. Changes to the list are
+     * not reflected in the actual output.
      */
     public List<String> getMessages(Location location) {
-        if (!messages.containsKey(location)) messages.put(location, new ArrayList<>());
-        return messages.get(location);
+        List<String> ret = new ArrayList<>();
+        for (CombatEvent event : this.events.getOrDefault(location, List.of())) {
+            event.renderTo(ret);
+        }
+        return ret;
     }
 
     /**
@@ -70,6 +127,30 @@ public class FightOutput {
         return player2;
     }
 
+    /**
+     * Gets the player who won the fight.
+     * @return The winner, or null if the fight ended in a stalemate.
+     */
+    public @Nullable Player getWinner() {
+        return this.winner;
+    }
+
+    /**
+     * Sets the player who won the fight.
+     * @param winner The winner, or null if the fight ended in a stalemate.
+     */
+    public void setWinner(@Nullable Player winner) {
+        this.winner = winner;
+    }
+
+    /**
+     * Checks whether the fight ended without a winner.
+     * @return True if neither player won.
+     */
+    public boolean isStalemate() {
+        return this.winner == null;
+    }
+
     /**
      * The location of where a message should be in the fight output.
      */
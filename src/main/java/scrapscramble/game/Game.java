@@ -1,6 +1,6 @@
 package scrapscramble.game;
 
-import org.apache.commons.lang3.RandomUtils;
+import org.jetbrains.annotations.Nullable;
 import scrapscramble.game.cards.CardPool;
 import scrapscramble.game.cards.StatusKeyword;
 import scrapscramble.game.cards.effects.EffectCaller;
@@ -13,9 +13,18 @@ import scrapscramble.game.player.Player;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 public class Game {
+    /**
+     * The most attacks a fight simulated one attack at a time can last before it's
+     * declared a stalemate.
+     */
+    private static final int MAX_ATTACKS = 100_000;
     /**
      * Object containing all data about the settings of the game.
      */
@@ -48,6 +57,24 @@ public class Game {
      * General effect caller used across the game.
      */
     private final EffectCaller effectCaller;
+    /**
+     * Whether fights record what happens in their {@link FightOutput}.
+     */
+    private boolean combatLogging;
+    /**
+     * Executor on which the fights of a round are conducted in parallel, or null
+     * to conduct them one after the other on the calling thread.
+     */
+    private Executor fightExecutor;
+    /**
+     * The source of all randomness in the game.
+     */
+    private final GameRandom random;
+    /**
+     * Gets told about every action that changes the game, or null if nothing is
+     * recorded.
+     */
+    private GameRecorder recorder;
 
     /**
      * Default constructor. Creates a new game with default settings and
@@ -62,15 +89,39 @@ public class Game {
      * @param effectCaller Effect caller.
      */
     public Game(EffectCaller effectCaller) {
+        this(effectCaller, new GameRandom());
+    }
+
+    /**
+     * Creates a new game with a custom effect caller and random number generator.
+     * Games created with generators from the same seed play out the same way if
+     * the players make the same decisions.
+     * @param effectCaller Effect caller.
+     * @param random The source of all randomness in the game.
+     */
+    public Game(EffectCaller effectCaller, GameRandom random) {
         this.settings = new GameSettings();
         this.cardPool = new CardPool();
         this.players = new ArrayList<>();
         this.hasStarted = false;
         this.pairMaker = null;
         this.effectCaller = effectCaller;
+        this.combatLogging = true;
+        this.fightExecutor = null;
+        this.random = random;
+        this.recorder = null;
         this.round = 1;
     }
 
+    /**
+     * Gets the source of all randomness in the game. It must only be used by one
+     * thread at a time.
+     * @return The random number generator of the game.
+     */
+    public GameRandom getRandom() {
+        return this.random;
+    }
+
     /**
      * Gets the settings of the game.
      * @return The settings of the game
@@ -100,6 +151,59 @@ public class Game {
         return this.cardPool;
     }
 
+    /**
+     * Checks whether fights record what happens in their output.
+     * @return True if the fight outputs contain messages.
+     */
+    public boolean isCombatLogging() {
+        return this.combatLogging;
+    }
+
+    /**
+     * Changes whether fights record what happens in their output. Turning this off
+     * makes fights faster when no one reads the outputs, such as in simulations.
+     * @param combatLogging Whether to record what happens.
+     */
+    public void setCombatLogging(boolean combatLogging) {
+        this.combatLogging = combatLogging;
+    }
+
+    /**
+     * Gets the executor on which the fights of a round are conducted.
+     * @return The executor, or null if the fights are conducted one after the other.
+     */
+    public @Nullable Executor getFightExecutor() {
+        return this.fightExecutor;
+    }
+
+    /**
+     * Changes the executor on which the fights of a round are conducted in parallel
+     * by {@link Game#conductFights()}. Effects that activate during fights must then
+     * only change the players they belong to.
+     * @param fightExecutor The executor, or null to conduct the fights one after the
+     *                      other on the calling thread.
+     */
+    public void setFightExecutor(@Nullable Executor fightExecutor) {
+        this.fightExecutor = fightExecutor;
+    }
+
+    /**
+     * Gets what records the actions of this game.
+     * @return The recorder, or null if nothing is recorded.
+     */
+    public @Nullable GameRecorder getRecorder() {
+        return this.recorder;
+    }
+
+    /**
+     * Changes what records the actions of this game. Must be set before the game
+     * starts to record all of it.
+     * @param recorder The recorder, or null to stop recording.
+     */
+    public void setRecorder(@Nullable GameRecorder recorder) {
+        this.recorder = recorder;
+    }
+
     /**
      * Gets the effect caller for this game.
      * @return Effect caller.
@@ -129,6 +233,7 @@ public class Game {
         if (names.stream().distinct().count() != (long)names.size()) {
             throw new IllegalArgumentException("There are duplicate names in the list!");
         }
+        if (this.recorder != null) this.recorder.onStart(this, names.subList(0, players));
         this.hasStarted = true;
         this.cardPool = cardPool;
         this.players.clear();
@@ -141,10 +246,33 @@ public class Game {
             player.getShop().refresh(this, player, true);
         }
 
-        this.pairMaker = new PairMaker(this.players);
+        this.pairMaker = new PairMaker(this.players, this.random);
         this.pairMaker.generateNextTurnPairings();
     }
 
+    /**
+     * Puts the game in a started state without creating any players or pairings,
+     * so that they can be restored from a {@link GameSnapshot}.
+     * @param cardPool The card pool used by the game.
+     * @param round The round the game is at.
+     */
+    void restore(CardPool cardPool, int round) {
+        this.hasStarted = true;
+        this.cardPool = cardPool;
+        this.players.clear();
+        this.round = round;
+    }
+
+    /**
+     * Restores the pairings of the current round after the players have been restored.
+     * @param opponents Maps every player to their opponent, or to themselves if
+     *                  they have a bye.
+     */
+    void restorePairings(Map<Player, Player> opponents) {
+        this.pairMaker = new PairMaker(this.players, this.random);
+        this.pairMaker.setOpponents(opponents);
+    }
+
     /**
      * Gets a list of all players.
      * @return A list of all players. Changes to this list are not reflected on
@@ -196,6 +324,7 @@ public class Game {
         this.players.forEach(player -> {
            player.getAttachedUpgrades().createLayer();
         });
+        if (this.recorder != null) this.recorder.onNextRound(this);
     }
 
     /**
@@ -219,37 +348,89 @@ public class Game {
     }
 
     /**
-     * Conducts all fights between all current pairs in the game.
-     * @return A list of outputs for each fight that happened. Dead players
-     * or players with a bye are not represented in this list.
+     * Conducts all fights between all current pairs in the game. If the game has a
+     * fight executor, the fights are conducted in parallel on it, since each fight
+     * only changes its own two players. This returns once all fights are over.
+     * @return A list of outputs for each fight that happened, in the same order
+     * whether the fights are conducted in parallel or not. Dead players or players
+     * with a bye are not represented in this list.
      */
     public List<FightOutput> conductFights() {
-        List<FightOutput> ret = new ArrayList<>();
+        List<FightOutput> ret = this.fightAllPairs();
+        if (this.recorder != null) this.recorder.onFights(this, ret);
+        return ret;
+    }
+
+    /**
+     * Conducts all fights between all current pairs in the game, in parallel if
+     * the game has a fight executor.
+     * @return A list of outputs for each fight that happened, in pairing order.
+     */
+    private List<FightOutput> fightAllPairs() {
+        List<Player[]> pairs = new ArrayList<>();
+        List<GameRandom> randoms = new ArrayList<>();
         Set<Player> fought = new HashSet<>();
         for (var player : players) {
             if (fought.contains(player)) continue;
             Player opponent = pairMaker.getOpponent(player);
             if (opponent != null && opponent != player) {
-                ret.add(fight(player, opponent));
+                pairs.add(new Player[]{player, opponent});
+                // each fight gets its own generator up front, so the results don't depend on the order they run in
+                randoms.add(this.random.split());
                 fought.add(player);
                 fought.add(opponent);
             }
         }
+
+        List<FightOutput> ret = new ArrayList<>();
+        if (this.fightExecutor == null || pairs.size() <= 1) {
+            for (int i = 0; i < pairs.size(); i++) ret.add(fight(pairs.get(i)[0], pairs.get(i)[1], randoms.get(i)));
+            return ret;
+        }
+        List<CompletableFuture<FightOutput>> fights = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) {
+            Player[] pair = pairs.get(i);
+            GameRandom random = randoms.get(i);
+            fights.add(CompletableFuture.supplyAsync(() -> fight(pair[0], pair[1], random), this.fightExecutor));
+        }
+        for (var f : fights) {
+            try {
+                ret.add(f.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
         return ret;
     }
 
     /**
      * Conducts a fight between two players. Both players should be a part of
-     * this game object. The loser of the fight loses a life.
+     * this game object. The loser of the fight loses a life. If neither player
+     * can ever destroy the other, the fight is a stalemate and no one loses a life.
      * @param p1 Player 1.
      * @param p2 Player 2.
      * @return A fight output object that contains human-readable information
      * about everything that happened during the fight.
      */
     public FightOutput fight(Player p1, Player p2) {
+        return this.fight(p1, p2, this.random.split());
+    }
+
+    /**
+     * Conducts a fight between two players, using a given random number generator
+     * for everything random that happens during it. Both players should be a part of
+     * this game object. The loser of the fight loses a life.
+     * @param p1 Player 1.
+     * @param p2 Player 2.
+     * @param random The generator used only by this fight.
+     * @return A fight output object that contains human-readable information
+     * about everything that happened during the fight.
+     */
+    public FightOutput fight(Player p1, Player p2, GameRandom random) {
         // check if the player is not in the game object
         if (!this.players.contains(p1) || !this.players.contains(p2)) return null;
-        FightOutput fightOutput = new FightOutput(p1, p2);
+        FightOutput fightOutput = new FightOutput(p1, p2, this.combatLogging);
         // TODO set destroyed to false
         // write the lists of ugprades of each player
         for (var u : p1.getAttachedUpgrades().getLastLayer()) {
@@ -278,7 +459,7 @@ public class Game {
                 secondPlayer = p1;
             } else if (p1.getCreatureData().getStatusKeyword(StatusKeyword.Tiebreaker) == p2.getCreatureData().getStatusKeyword(StatusKeyword.Tiebreaker)) {
                 isCoinflip = true;
-                if (RandomUtils.nextInt(0, 2) == 1) {
+                if (random.nextBoolean()) {
                     firstPlayer = p2;
                     secondPlayer = p1;
                 }
@@ -293,33 +474,32 @@ public class Game {
 
         // trigger start of combat effects
         effectCaller.activate(firstPlayer.getEffects(), new StartOfCombatContext(
-            this, firstPlayer, fightOutput));
+            this, firstPlayer, fightOutput, random));
         effectCaller.activate(secondPlayer.getEffects(), new StartOfCombatContext(
-                this, secondPlayer, fightOutput));
+                this, secondPlayer, fightOutput, random));
 
         // combat starts
-        for (int currentTurn = 0; p1.isAlive() && p2.isAlive(); currentTurn++) {
-            // determine attacker and defender, changes each turn
-            Player attacker = firstPlayer, defender = secondPlayer;
-            if (currentTurn % 2 == 1) {
-                attacker = secondPlayer;
-                defender = firstPlayer;
+        boolean isStalemate = false;
+        Player winner = null;
+        if (p1.isAlive() && p2.isAlive()) {
+            if (CombatResolver.canFastForward(firstPlayer, secondPlayer)) {
+                winner = CombatResolver.fastForward(firstPlayer, secondPlayer, fightOutput);
+                isStalemate = winner == null;
+            } else {
+                isStalemate = !this.attackUntilDestroyed(firstPlayer, secondPlayer, fightOutput, random);
             }
-            System.out.println(defender.getHealth());
-            attacker.attackPlayer(this, defender, fightOutput);
-            if (!attacker.isAlive() || !defender.isAlive()) break;
-            // TODO call after this attacks effects for attacker
-            //if (!attacker.isAlive() || !defender.isAlive()) break;
-            // TODO call after the enemy attacks effects for defender
         }
 
         // write about the winner
-        Player winner = p2, loser = p2;
-        if (p1.isAlive()) winner = p1;
-        else loser = p1;
-
-        fightOutput.addMessage(FightOutput.Location.DuringCombat, winner.getName() + " has won!");
-        loser.decreaseLives();
+        if (isStalemate) {
+            fightOutput.addMessage(FightOutput.Location.DuringCombat, "Neither player can destroy the other, the fight is a stalemate!");
+        } else {
+            if (winner == null) winner = p1.isAlive() ? p1 : p2;
+            Player loser = winner == p1 ? p2 : p1;
+            fightOutput.addMessage(FightOutput.Location.DuringCombat, winner.getName() + " has won!");
+            loser.decreaseLives();
+        }
+        fightOutput.setWinner(winner);
         // TODO register results in the pair maker
         // revert player's stats
         p1.setAttack(remAttack1);
@@ -329,4 +509,43 @@ public class Game {
 
         return fightOutput;
     }
+
+    /**
+     * Simulates combat one attack at a time, activating the effects that happen
+     * between attacks. Used when combat can't be resolved at once by the {@link CombatResolver}.
+     * @param firstPlayer The player attacking first.
+     * @param secondPlayer The player attacking second.
+     * @param fightOutput Where to write the output.
+     * @param random The generator of the fight.
+     * @return True if a player was destroyed, false if the fight is a stalemate because
+     * a whole exchange of attacks changed nothing and neither player has attack left.
+     */
+    private boolean attackUntilDestroyed(Player firstPlayer, Player secondPlayer, FightOutput fightOutput, GameRandom random) {
+        int lastHealth1 = 0, lastHealth2 = 0;
+        for (int currentTurn = 0; currentTurn < MAX_ATTACKS; currentTurn++) {
+            // determine attacker and defender, changes each turn
+            Player attacker = firstPlayer, defender = secondPlayer;
+            if (currentTurn % 2 == 1) {
+                attacker = secondPlayer;
+                defender = firstPlayer;
+            }
+            attacker.attackPlayer(this, defender, fightOutput);
+            if (!attacker.isAlive() || !defender.isAlive()) return true;
+            this.effectCaller.activate(attacker.getEffects(), new EffectContext(EffectTrigger.AfterThisAttacks, this, attacker, null, random));
+            if (!attacker.isAlive() || !defender.isAlive()) return true;
+            this.effectCaller.activate(defender.getEffects(), new EffectContext(EffectTrigger.AfterTheEnemyAttacks, this, defender, null, random));
+            if (!attacker.isAlive() || !defender.isAlive()) return true;
+
+            // after each exchange once Spikes and Shields are used up, check if anything can still happen
+            if (currentTurn % 2 == 1) {
+                if (currentTurn > 1 && firstPlayer.getHealth() == lastHealth1 && secondPlayer.getHealth() == lastHealth2
+                        && firstPlayer.getAttack() <= 0 && secondPlayer.getAttack() <= 0) {
+                    return false;
+                }
+                lastHealth1 = firstPlayer.getHealth();
+                lastHealth2 = secondPlayer.getHealth();
+            }
+        }
+        return false;
+    }
 }
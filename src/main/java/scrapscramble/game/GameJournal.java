@@ -0,0 +1,491 @@
+package scrapscramble.game;
+
+import scrapscramble.game.cards.Rarity;
+import scrapscramble.game.player.CardUseFeedback;
+import scrapscramble.game.player.Player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Records every action of a game in a file, one entry after the other. Together
+ * with a {@link GameSnapshot} this brings a game back to where it was: the
+ * snapshot is restored and only the entries after it are played again by
+ * {@link GameJournal#replayTail(Path, Game)}.
+ * <br>
+ * The file is mapped into memory, so recording an action only writes a few bytes
+ * to memory and never waits for the disk. The operating system writes the file
+ * out on its own, which keeps it safe if the bot crashes, though not if the
+ * whole machine goes down.
+ * <br>
+ * The file starts with a header that holds how many bytes of it are in use. It's
+ * only moved forward once an entry is fully written, so a half-written entry is
+ * never read back.
+ */
+public class GameJournal implements GameRecorder, Closeable {
+
+    /**
+     * Identifies a game journal. Reads "SSGJ".
+     */
+    private static final int MAGIC = 0x5353474a;
+    /**
+     * The version of the format. Increased whenever the format changes.
+     */
+    public static final int VERSION = 2;
+    /**
+     * The position of the amount of bytes in use in the header.
+     */
+    private static final int END_POSITION = 8;
+    /**
+     * The size of the header.
+     */
+    private static final int HEADER_SIZE = 16;
+    /**
+     * How much of the file is mapped at first. Enough for a few rounds of a full lobby.
+     */
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    /**
+     * The most bytes an entry other than the start can take.
+     */
+    private static final int MAX_ENTRY_SIZE = 32;
+    /**
+     * Every rarity, in the order their shop quantities are stored.
+     */
+    private static final Rarity[] RARITIES = Rarity.values();
+    /**
+     * Every type of entry, in the order of their ids.
+     */
+    private static final JournalEntry.Type[] TYPES = JournalEntry.Type.values();
+
+    /**
+     * The file the journal is written to.
+     */
+    private final FileChannel channel;
+    /**
+     * The mapped part of the file. Its position is where the next entry goes.
+     */
+    private MappedByteBuffer buffer;
+    /**
+     * The names of the players the game was started with. Players are recorded by
+     * their position in this list.
+     */
+    private List<String> names;
+    /**
+     * Remembers the position of every player that did something.
+     */
+    private final Map<Player, Integer> playerIds;
+    /**
+     * Whether writing to the file failed. Nothing more is recorded afterwards.
+     */
+    private boolean failed;
+    /**
+     * Whether the journal was closed.
+     */
+    private boolean closed;
+
+    /**
+     * Creates a journal that writes to an open file.
+     * @param channel The file.
+     * @param end The amount of bytes in use.
+     * @param names The names of the players, or an empty list if the game hasn't started.
+     * @throws IOException If the file couldn't be mapped.
+     */
+    private GameJournal(FileChannel channel, long end, List<String> names) throws IOException {
+        this.channel = channel;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_CAPACITY, 2 * end));
+        this.buffer.position((int) end);
+        this.names = names;
+        this.playerIds = new IdentityHashMap<>();
+        this.failed = false;
+        this.closed = false;
+    }
+
+    /**
+     * Creates a new, empty journal. An existing file is replaced.
+     * @param file The file to write to.
+     * @return The journal. It records a game once it's set as the game's recorder.
+     * @throws IOException If the file couldn't be created.
+     */
+    public static GameJournal create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        GameJournal journal = new GameJournal(channel, HEADER_SIZE, List.of());
+        journal.buffer.putInt(0, MAGIC);
+        journal.buffer.putInt(4, VERSION);
+        journal.buffer.putLong(END_POSITION, HEADER_SIZE);
+        return journal;
+    }
+
+    /**
+     * Opens an existing journal to keep recording a game in it, such as a game
+     * restored from a snapshot. The players of the game are matched by name.
+     * @param file The file of the journal.
+     * @return The journal.
+     * @throws IOException If the file couldn't be read.
+     * @throws SnapshotFormatException If the file is not a game journal.
+     */
+    public static GameJournal open(Path file) throws IOException, SnapshotFormatException {
+        List<JournalEntry> entries = read(file);
+        List<String> names = entries.isEmpty() ? List.of() : entries.get(0).getNames();
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            return new GameJournal(channel, header.getLong(END_POSITION), names);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void onStart(Game game, List<String> names) {
+        this.names = List.copyOf(names);
+        this.playerIds.clear();
+        List<byte[]> encoded = this.names.stream().map(x -> x.getBytes(StandardCharsets.UTF_8)).toList();
+        int size = MAX_ENTRY_SIZE + (RARITIES.length + 4) * 5 + 16;
+        for (byte[] name : encoded) size += name.length + 5;
+        if (!this.ensureCapacity(size)) return;
+
+        GameRandom random = game.getRandom();
+        GameSettings settings = game.getSettings();
+        this.buffer.put((byte) JournalEntry.Type.Start.ordinal());
+        this.buffer.putLong(random.getSeed());
+        this.buffer.putLong(random.getGamma());
+        this.buffer.putLong(random.getInitialSeed());
+        for (Rarity rarity : RARITIES) putVarInt(this.buffer, settings.getShopQuantity(rarity));
+        putVarInt(this.buffer, settings.getStartingLives());
+        putVarInt(this.buffer, settings.getStartingMana());
+        putVarInt(this.buffer, settings.getMaximumMana());
+        this.buffer.put((byte) (game.isCombatLogging() ? 1 : 0));
+        putVarInt(this.buffer, encoded.size());
+        for (byte[] name : encoded) {
+            putVarInt(this.buffer, name.length);
+            this.buffer.put(name);
+        }
+        this.commit();
+    }
+
+    @Override
+    public synchronized void onBuy(Game game, Player player, int index) {
+        this.writeCardEntry(JournalEntry.Type.Buy, player, index);
+    }
+
+    @Override
+    public synchronized void onPlay(Game game, Player player, int index) {
+        this.writeCardEntry(JournalEntry.Type.Play, player, index);
+    }
+
+    @Override
+    public synchronized void onFights(Game game, List<FightOutput> outputs) {
+        this.writeRoundEntry(JournalEntry.Type.Fights, game, GameReplayer.hashFights(outputs));
+    }
+
+    @Override
+    public synchronized void onNextRound(Game game) {
+        this.writeRoundEntry(JournalEntry.Type.NextRound, game, GameReplayer.hashState(game));
+    }
+
+    /**
+     * Records that a snapshot of the game is being taken. Must be called before
+     * the snapshot is taken, while the game can't change.
+     * @param game The game.
+     */
+    public synchronized void markSnapshot(Game game) {
+        if (!this.ensureCapacity(MAX_ENTRY_SIZE)) return;
+        this.buffer.put((byte) JournalEntry.Type.Snapshot.ordinal());
+        putVarInt(this.buffer, game.getRound());
+        this.commit();
+    }
+
+    /**
+     * Closes the file. Everything recorded so far stays in it.
+     */
+    @Override
+    public synchronized void close() {
+        if (this.closed) return;
+        this.closed = true;
+        this.failed = true;
+        try {
+            this.buffer.force();
+            this.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Gets whether the journal was closed.
+     * @return True if the journal was closed, false otherwise.
+     */
+    public synchronized boolean isClosed() {
+        return this.closed;
+    }
+
+    /**
+     * Reads all entries of a journal.
+     * @param file The file of the journal.
+     * @return The entries, in the order they were recorded.
+     * @throws IOException If the file couldn't be read.
+     * @throws SnapshotFormatException If the file is not a game journal or is damaged.
+     */
+    public static List<JournalEntry> read(Path file) throws IOException, SnapshotFormatException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (in.getInt() != MAGIC) throw new SnapshotFormatException("This is not a game journal.");
+            int version = in.getInt();
+            if (version != VERSION) throw new SnapshotFormatException("Unknown journal version " + version + ".");
+            in.limit((int) in.getLong());
+            in.position(HEADER_SIZE);
+            List<JournalEntry> ret = new ArrayList<>();
+            while (in.hasRemaining()) ret.add(readEntry(in));
+            return ret;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            e.printStackTrace();
+            throw new SnapshotFormatException("The journal is damaged.");
+        }
+    }
+
+    /**
+     * Plays the actions recorded after a snapshot again, bringing a game restored
+     * from that snapshot up to date. The snapshot is found by the round of the game.
+     * Nothing is recorded while the actions are played.
+     * @param file The file of the journal.
+     * @param game The game restored from the snapshot.
+     * @return How many actions were played again. Zero if the journal has no
+     * snapshot from the round of the game.
+     * @throws IOException If the file couldn't be read.
+     * @throws SnapshotFormatException If the journal is damaged or doesn't belong to the game.
+     */
+    public static int replayTail(Path file, Game game) throws IOException, SnapshotFormatException {
+        List<JournalEntry> entries = read(file);
+        if (entries.isEmpty() || entries.get(0).getType() != JournalEntry.Type.Start) return 0;
+        List<String> names = entries.get(0).getNames();
+        int from = -1;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            var entry = entries.get(i);
+            if (entry.getType() == JournalEntry.Type.Snapshot && entry.getRound() == game.getRound()) {
+                from = i + 1;
+                break;
+            }
+        }
+        if (from < 0) return 0;
+
+        GameRecorder recorder = game.getRecorder();
+        game.setRecorder(null);
+        try {
+            for (int i = from; i < entries.size(); i++) apply(entries.get(i), game, names);
+        } finally {
+            game.setRecorder(recorder);
+        }
+        return entries.size() - from;
+    }
+
+    /**
+     * Plays a recorded action on a game.
+     * @param entry The action.
+     * @param game The game.
+     * @param names The names of the players from the start of the journal.
+     * @return The outputs of the fights if the action was conducting them,
+     * otherwise an empty list.
+     * @throws SnapshotFormatException If the action can't happen in the game, or the
+     * game is not the same as when the action was recorded afterwards.
+     */
+    static List<FightOutput> apply(JournalEntry entry, Game game, List<String> names) throws SnapshotFormatException {
+        switch (entry.getType()) {
+            case Buy, Play -> {
+                Player player = findPlayer(game, names, entry.getPlayer());
+                var feedback = entry.getType() == JournalEntry.Type.Buy
+                        ? player.getShop().buy(entry.getIndex(), game, player)
+                        : player.getHand().play(entry.getIndex(), game, player);
+                if (feedback != CardUseFeedback.Successful) {
+                    throw new SnapshotFormatException("Couldn't play again: " + entry + " (" + feedback + ").");
+                }
+            }
+            case Fights -> {
+                List<FightOutput> outputs = game.conductFights();
+                check(entry, game, GameReplayer.hashFights(outputs));
+                return outputs;
+            }
+            case NextRound -> {
+                game.nextRound();
+                check(entry, game, GameReplayer.hashState(game));
+            }
+            default -> {}
+        }
+        return List.of();
+    }
+
+    /**
+     * Finds a player of a game by their position in the names of the journal.
+     * @param game The game.
+     * @param names The names of the players from the start of the journal.
+     * @param id The position of the player.
+     * @return The player.
+     * @throws SnapshotFormatException If the player is not in the game.
+     */
+    private static Player findPlayer(Game game, List<String> names, int id) throws SnapshotFormatException {
+        if (id < 0 || id >= names.size()) throw new SnapshotFormatException("Unknown player " + id + ".");
+        for (Player player : game.getPlayers()) {
+            if (player.getName().equals(names.get(id))) return player;
+        }
+        throw new SnapshotFormatException(names.get(id) + " is not in the game.");
+    }
+
+    /**
+     * Checks that a game is the same as when an action was recorded: it's at the
+     * same round, used up as many random numbers and has the same hash. Hashes
+     * are only checked if one was recorded.
+     * @param entry The action.
+     * @param game The game.
+     * @param hash The hash of the game after playing the action again.
+     * @throws SnapshotFormatException If the game is not the same.
+     */
+    private static void check(JournalEntry entry, Game game, long hash) throws SnapshotFormatException {
+        if (game.getRound() != entry.getRound() || game.getRandom().getSeed() != entry.getSeed()) {
+            throw new SnapshotFormatException("The game no longer matches the journal at: " + entry + ".");
+        }
+        if (entry.getHash() != 0 && entry.getHash() != hash) {
+            throw new SnapshotFormatException("The " + (entry.getType() == JournalEntry.Type.Fights ? "fights" : "state")
+                    + " of the game no longer match the journal at: " + entry + ".");
+        }
+    }
+
+    /**
+     * Writes an entry about a card that was bought or played.
+     * @param type The type of the entry.
+     * @param player The player.
+     * @param index The position of the card.
+     */
+    private void writeCardEntry(JournalEntry.Type type, Player player, int index) {
+        if (!this.ensureCapacity(MAX_ENTRY_SIZE)) return;
+        Integer id = this.playerIds.get(player);
+        if (id == null) {
+            id = this.names.indexOf(player.getName());
+            this.playerIds.put(player, id);
+        }
+        this.buffer.put((byte) type.ordinal());
+        putVarInt(this.buffer, id);
+        putVarInt(this.buffer, index);
+        this.commit();
+    }
+
+    /**
+     * Writes an entry about the game as a whole.
+     * @param type The type of the entry.
+     * @param game The game.
+     * @param hash A hash of the fight outputs or the state of the game.
+     */
+    private void writeRoundEntry(JournalEntry.Type type, Game game, long hash) {
+        if (!this.ensureCapacity(MAX_ENTRY_SIZE)) return;
+        this.buffer.put((byte) type.ordinal());
+        putVarInt(this.buffer, game.getRound());
+        this.buffer.putLong(game.getRandom().getSeed());
+        this.buffer.putLong(hash);
+        this.commit();
+    }
+
+    /**
+     * Marks everything written so far as in use.
+     */
+    private void commit() {
+        this.buffer.putLong(END_POSITION, this.buffer.position());
+    }
+
+    /**
+     * Makes sure the next entry fits in the mapped part of the file, mapping more
+     * of it if needed.
+     * @param size The most bytes the entry can take.
+     * @return False if nothing should be written, because the journal is closed
+     * or the file couldn't grow.
+     */
+    private boolean ensureCapacity(int size) {
+        if (this.failed) return false;
+        if (this.buffer.remaining() >= size) return true;
+        int position = this.buffer.position();
+        try {
+            long capacity = Math.max(2L * this.buffer.capacity(), (long) position + size);
+            if (capacity > Integer.MAX_VALUE) throw new IOException("The journal is too large.");
+            this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            this.buffer.position(position);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            this.failed = true;
+            return false;
+        }
+    }
+
+    /**
+     * Reads an entry.
+     * @param in Where to read from.
+     * @return The entry.
+     * @throws SnapshotFormatException If the type of the entry is unknown.
+     */
+    private static JournalEntry readEntry(ByteBuffer in) throws SnapshotFormatException {
+        int id = in.get() & 0xff;
+        if (id >= TYPES.length) throw new SnapshotFormatException("Unknown journal entry " + id + ".");
+        JournalEntry.Type type = TYPES[id];
+        return switch (type) {
+            case Start -> {
+                long seed = in.getLong(), gamma = in.getLong(), initialSeed = in.getLong();
+                GameSettings settings = new GameSettings();
+                for (Rarity rarity : RARITIES) settings.setShopQuantity(rarity, getVarInt(in));
+                settings.setStartingLives(getVarInt(in));
+                settings.setStartingMana(getVarInt(in));
+                settings.setMaximumMana(getVarInt(in));
+                boolean combatLogging = in.get() != 0;
+                String[] names = new String[getVarInt(in)];
+                for (int i = 0; i < names.length; i++) {
+                    byte[] name = new byte[getVarInt(in)];
+                    in.get(name);
+                    names[i] = new String(name, StandardCharsets.UTF_8);
+                }
+                yield JournalEntry.start(seed, gamma, initialSeed, List.of(names), settings, combatLogging);
+            }
+            case Buy, Play -> JournalEntry.card(type, getVarInt(in), getVarInt(in));
+            case Fights, NextRound -> JournalEntry.round(type, getVarInt(in), in.getLong(), in.getLong());
+            case Snapshot -> JournalEntry.round(type, getVarInt(in), 0, 0);
+        };
+    }
+
+    /**
+     * Writes an int using as few bytes as possible. Small numbers, negative ones
+     * included, take a single byte.
+     * @param out Where to write.
+     * @param value The number.
+     */
+    private static void putVarInt(ByteBuffer out, int value) {
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7f) != 0) {
+            out.put((byte) ((v & 0x7f) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    /**
+     * Reads an int written by {@link GameJournal#putVarInt(ByteBuffer, int)}.
+     * @param in Where to read from.
+     * @return The number.
+     * @throws SnapshotFormatException If the number is longer than an int.
+     */
+    private static int getVarInt(ByteBuffer in) throws SnapshotFormatException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xff;
+            v |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) return (v >>> 1) ^ -(v & 1);
+        }
+        throw new SnapshotFormatException("A number in the journal is too long.");
+    }
+}
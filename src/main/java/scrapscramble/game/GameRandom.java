@@ -0,0 +1,219 @@
+package scrapscramble.game;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The source of all randomness in a game. Uses the same algorithm as
+ * {@link java.util.SplittableRandom}, so a game started from the same seed with
+ * the same decisions plays out exactly the same way.
+ * Instances are not thread-safe. Work that runs on another thread, such as a fight
+ * conducted in parallel, should get its own generator through {@link GameRandom#split()}
+ * before it's handed off.
+ */
+public class GameRandom {
+
+    /**
+     * The default distance between seeds, taken from the golden ratio.
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    /**
+     * Gives out the seeds of generators that were created without one.
+     */
+    private static final AtomicLong SEEDER = new AtomicLong(
+            mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+    /**
+     * The seed the generator was created with.
+     */
+    private final long initialSeed;
+    /**
+     * The current seed, advanced by the gamma every time a number is generated.
+     */
+    private long seed;
+    /**
+     * The amount the seed is advanced by. Always odd.
+     */
+    private final long gamma;
+
+    /**
+     * Creates a generator with a seed that's different every time.
+     */
+    public GameRandom() {
+        this(SEEDER.getAndAdd(2 * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Creates a generator from a seed. Generators created from the same seed
+     * generate the same numbers.
+     * @param seed The seed.
+     */
+    public GameRandom(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a generator from a seed and a gamma.
+     * @param seed The seed.
+     * @param gamma The gamma. Must be odd.
+     */
+    private GameRandom(long seed, long gamma) {
+        this(seed, seed, gamma);
+    }
+
+    /**
+     * Creates a generator that continues where another one was. Used to restore
+     * a generator from a {@link GameSnapshot}.
+     * @param initialSeed The seed the generator was created with.
+     * @param seed The current seed.
+     * @param gamma The gamma. Must be odd.
+     */
+    GameRandom(long initialSeed, long seed, long gamma) {
+        this.initialSeed = initialSeed;
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Gets the seed the generator was created with.
+     * @return The seed.
+     */
+    public long getInitialSeed() {
+        return this.initialSeed;
+    }
+
+    /**
+     * Gets the current seed of the generator.
+     * @return The current seed.
+     */
+    long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the amount the seed is advanced by.
+     * @return The gamma.
+     */
+    long getGamma() {
+        return this.gamma;
+    }
+
+    /**
+     * Creates a new generator from this one. The two generate unrelated numbers
+     * from then on and can be used on different threads. Splitting advances this
+     * generator, so the new generator only depends on this one's seed and how
+     * many numbers it generated before.
+     * @return The new generator.
+     */
+    public GameRandom split() {
+        return new GameRandom(this.nextLong(), mixGamma(this.nextSeed()));
+    }
+
+    /**
+     * Generates a random long.
+     * @return A random long.
+     */
+    public long nextLong() {
+        return mix64(this.nextSeed());
+    }
+
+    /**
+     * Generates a random int between 0 and a bound, without favouring any of them.
+     * @param bound The upper bound, exclusive. Must be positive.
+     * @return A random int between 0 and the bound.
+     * @throws IllegalArgumentException If the bound isn't positive.
+     */
+    public int nextInt(int bound) throws IllegalArgumentException {
+        if (bound <= 0) throw new IllegalArgumentException("The bound must be positive!");
+        int r = mix32(this.nextSeed());
+        int m = bound - 1;
+        if ((bound & m) == 0) return r & m;
+        // reject the values that would make lower numbers more likely
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = mix32(this.nextSeed()) >>> 1);
+        return r;
+    }
+
+    /**
+     * Generates a random int in a range.
+     * @param origin The lower bound, inclusive.
+     * @param bound The upper bound, exclusive. Must be greater than the origin.
+     * @return A random int in the range.
+     * @throws IllegalArgumentException If the bound isn't greater than the origin.
+     */
+    public int nextInt(int origin, int bound) throws IllegalArgumentException {
+        if (origin >= bound) throw new IllegalArgumentException("The bound must be greater than the origin!");
+        return origin + this.nextInt(bound - origin);
+    }
+
+    /**
+     * Generates a random boolean.
+     * @return True or false, with equal chance.
+     */
+    public boolean nextBoolean() {
+        return mix32(this.nextSeed()) < 0;
+    }
+
+    /**
+     * Shuffles a list in place, so that every order is equally likely.
+     * @param list The list to shuffle.
+     */
+    public void shuffle(List<?> list) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            swap(list, i, this.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Swaps two elements of a list.
+     * @param list The list.
+     * @param i The index of the first element.
+     * @param j The index of the second element.
+     * @param <T> The type of the elements.
+     */
+    private static <T> void swap(List<T> list, int i, int j) {
+        list.set(i, list.set(j, list.get(i)));
+    }
+
+    /**
+     * Advances the seed.
+     * @return The new seed.
+     */
+    private long nextSeed() {
+        return this.seed += this.gamma;
+    }
+
+    /**
+     * Scrambles the bits of a seed into a long.
+     * @param z The seed.
+     * @return The scrambled bits.
+     */
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Scrambles the bits of a seed into an int.
+     * @param z The seed.
+     * @return The scrambled bits.
+     */
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    /**
+     * Turns a seed into a gamma for a new generator. The gamma is odd and has
+     * enough bit changes to spread the seeds of the generator well.
+     * @param z The seed.
+     * @return The gamma.
+     */
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
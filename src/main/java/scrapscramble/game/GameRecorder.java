@@ -0,0 +1,51 @@
+package scrapscramble.game;
+
+import scrapscramble.game.player.Player;
+
+import java.util.List;
+
+/**
+ * Gets told about every action that changes the state of a {@link Game}, so that
+ * the game can be played again from the start or from a {@link GameSnapshot}.
+ * Only actions that succeed are recorded. The methods are called on the thread
+ * that performs the action, so they must return quickly.
+ */
+public interface GameRecorder {
+
+    /**
+     * Called when a game starts, before anything random happens.
+     * @param game The game.
+     * @param names The names of the players, in the order they were given.
+     */
+    void onStart(Game game, List<String> names);
+
+    /**
+     * Called after a player bought an upgrade from their shop.
+     * @param game The game.
+     * @param player The player.
+     * @param index The position of the upgrade in the shop.
+     */
+    void onBuy(Game game, Player player, int index);
+
+    /**
+     * Called after a player played a card from their hand.
+     * @param game The game.
+     * @param player The player.
+     * @param index The position of the card in the hand.
+     */
+    void onPlay(Game game, Player player, int index);
+
+    /**
+     * Called after the fights of a round were conducted.
+     * @param game The game.
+     * @param outputs The outputs of the fights, in the order they're returned by
+     *                {@link Game#conductFights()}.
+     */
+    void onFights(Game game, List<FightOutput> outputs);
+
+    /**
+     * Called after the game moved on to the next round.
+     * @param game The game.
+     */
+    void onNextRound(Game game);
+}
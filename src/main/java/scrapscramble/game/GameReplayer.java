@@ -0,0 +1,197 @@
+package scrapscramble.game;
+
+import scrapscramble.game.cards.Card;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.Rarity;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plays a game recorded by a {@link GameJournal} again from the start, without
+ * any waiting or UI. Since the journal holds the seed of the game, the replay goes
+ * exactly the same way as the original, and the hashes recorded along the way
+ * are compared to make sure it does.
+ * <br>
+ * Used to reproduce bugs players ran into, by stopping the replay at the round
+ * it happened, and to check that changes to the engine don't change the outcome
+ * of recorded games.
+ */
+public class GameReplayer {
+
+    /**
+     * The starting value of the hashes.
+     */
+    private static final long HASH_OFFSET = 0xcbf29ce484222325L;
+    /**
+     * The number the hashes are multiplied by for every value.
+     */
+    private static final long HASH_PRIME = 0x100000001b3L;
+    /**
+     * Every keyword, in the order they're hashed.
+     */
+    private static final StatusKeyword[] KEYWORDS = StatusKeyword.values();
+
+    /**
+     * The catalog the card pools of the replayed games come from.
+     */
+    private final CardCatalog catalog;
+
+    /**
+     * Creates a replayer for games that were played with the cards of a catalog.
+     * @param catalog The catalog.
+     */
+    public GameReplayer(CardCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Plays a recorded game again.
+     * @param journal The file of the journal.
+     * @return The result of the replay.
+     * @throws IOException If the file couldn't be read.
+     * @throws SnapshotFormatException If the file is not a game journal or doesn't
+     * start with a game.
+     */
+    public ReplayResult replay(Path journal) throws IOException, SnapshotFormatException {
+        return this.replay(GameJournal.read(journal));
+    }
+
+    /**
+     * Plays a recorded game again, all the way to the end of the journal.
+     * @param entries The entries of the journal.
+     * @return The result of the replay.
+     * @throws SnapshotFormatException If the entries don't start with a game.
+     */
+    public ReplayResult replay(List<JournalEntry> entries) throws SnapshotFormatException {
+        return this.replay(entries, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Plays a recorded game again, stopping once it reaches a round. The actions
+     * of that round are played, but the game doesn't move on to the next one.
+     * @param entries The entries of the journal.
+     * @param lastRound The round to stop at.
+     * @return The result of the replay.
+     * @throws SnapshotFormatException If the entries don't start with a game.
+     */
+    public ReplayResult replay(List<JournalEntry> entries, int lastRound) throws SnapshotFormatException {
+        if (entries.isEmpty() || entries.get(0).getType() != JournalEntry.Type.Start) {
+            throw new SnapshotFormatException("The journal doesn't start with a game.");
+        }
+        JournalEntry start = entries.get(0);
+        Game game = new Game(new EffectCaller(), start.createRandom());
+        GameSettings settings = start.getSettings();
+        for (Rarity rarity : Rarity.values()) {
+            game.getSettings().setShopQuantity(rarity, settings.getShopQuantity(rarity));
+        }
+        game.getSettings().setStartingLives(settings.getStartingLives());
+        game.getSettings().setStartingMana(settings.getStartingMana());
+        game.getSettings().setMaximumMana(settings.getMaximumMana());
+        game.setCombatLogging(start.isCombatLogging());
+        game.start(start.getNames().size(), start.getNames(), this.catalog.createPool());
+
+        List<FightOutput> outputs = new ArrayList<>();
+        int replayed = 1, checked = 0;
+        for (int i = 1; i < entries.size(); i++) {
+            JournalEntry entry = entries.get(i);
+            if (entry.getType() == JournalEntry.Type.NextRound && entry.getRound() > lastRound) break;
+            try {
+                outputs.addAll(GameJournal.apply(entry, game, start.getNames()));
+            } catch (SnapshotFormatException e) {
+                return new ReplayResult(game, outputs, replayed, checked, e.getMessage());
+            }
+            replayed++;
+            if (entry.getHash() != 0) checked++;
+        }
+        return new ReplayResult(game, outputs, replayed, checked, null);
+    }
+
+    /**
+     * Hashes the state of a game that can be seen by the players: the round, the
+     * generator, and the stats, mana, shop, hand and upgrades of every player.
+     * Internal state of effects is not part of it.
+     * @param game The game.
+     * @return The hash.
+     */
+    public static long hashState(Game game) {
+        long h = HASH_OFFSET;
+        h = mix(h, game.getRound());
+        h = mix(h, game.getRandom().getSeed());
+        for (Player player : game.getPlayers()) {
+            h = mix(h, player.getName().hashCode());
+            h = mix(h, player.getLives());
+            h = mix(h, player.getCurrentMana());
+            h = mix(h, player.getMaximumMana());
+            h = mix(h, player.getMaximumManaCap());
+            h = mix(h, player.getOverloadedMana());
+            h = mix(h, player.getAttack());
+            h = mix(h, player.getHealth());
+            for (StatusKeyword keyword : KEYWORDS) h = mix(h, player.getCreatureData().getStatusKeyword(keyword));
+            for (Upgrade upgrade : player.getShop().getCardsWithEmptySlot()) h = mixCard(h, upgrade);
+            for (Card card : player.getHand().getCardsWithEmptySlot()) h = mixCard(h, card);
+            for (Upgrade upgrade : player.getAttachedUpgrades().getLastLayer()) h = mixCard(h, upgrade);
+            h = mix(h, player.getBuyHistory().size());
+            h = mix(h, player.getPlayHistory().size());
+            Player opponent = game.getOpponent(player);
+            h = mix(h, opponent == null ? 0 : opponent.getName().hashCode());
+        }
+        return h;
+    }
+
+    /**
+     * Hashes the outputs of fights: who fought, who won and every message.
+     * Two lists of outputs with the same hash can be taken to be the same.
+     * @param outputs The outputs.
+     * @return The hash.
+     */
+    public static long hashFights(List<FightOutput> outputs) {
+        long h = HASH_OFFSET;
+        for (FightOutput output : outputs) {
+            h = mix(h, output.getPlayer1().getName().hashCode());
+            h = mix(h, output.getPlayer2().getName().hashCode());
+            h = mix(h, output.getWinner() == null ? 0 : output.getWinner().getName().hashCode());
+            for (FightOutput.Location location : FightOutput.Location.values()) {
+                List<String> messages = output.getMessages(location);
+                h = mix(h, messages.size());
+                for (String message : messages) h = mix(h, message.hashCode());
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Adds a card to a hash.
+     * @param h The hash so far.
+     * @param card The card, or null for an empty slot.
+     * @return The new hash.
+     */
+    private static long mixCard(long h, Card card) {
+        if (card == null) return mix(h, 0);
+        h = mix(h, card.getName().hashCode());
+        h = mix(h, card.getCost());
+        if (card instanceof Upgrade u) {
+            h = mix(h, u.getAttack());
+            h = mix(h, u.getHealth());
+            h = mix(h, u.getStatusKeyword(StatusKeyword.Frozen));
+        }
+        return h;
+    }
+
+    /**
+     * Adds a value to a hash.
+     * @param h The hash so far.
+     * @param value The value.
+     * @return The new hash.
+     */
+    private static long mix(long h, long value) {
+        h = (h ^ value) * HASH_PRIME;
+        return h ^ (h >>> 32);
+    }
+}
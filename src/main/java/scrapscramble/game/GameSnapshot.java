@@ -0,0 +1,576 @@
+package scrapscramble.game;
+
+import scrapscramble.game.cards.Card;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.CardDefinition;
+import scrapscramble.game.cards.CardPool;
+import scrapscramble.game.cards.History;
+import scrapscramble.game.cards.Rarity;
+import scrapscramble.game.cards.SparePart;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.Player;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Saves a running game to a compact binary format and restores it. Cards are
+ * stored as their id in the {@link CardCatalog}, followed by only the values that
+ * differ from their definition, so a snapshot stays small no matter how long the
+ * game has been going on.
+ * <p>
+ * What effects keep in their own fields can't be stored, since effects are code.
+ * The effects of a player are restored from the upgrades they attached this round,
+ * which is everything they have when the snapshot is taken between rounds.
+ */
+public final class GameSnapshot {
+
+    /**
+     * The first bytes of every snapshot.
+     */
+    private static final int MAGIC = 0x53534753; // "SSGS"
+    /**
+     * The version of the format written by this class. Snapshots of a newer version
+     * can't be read.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The pool is the same as the catalog's.
+     */
+    private static final int POOL_CATALOG = 0;
+    /**
+     * The pool is the same as the game's.
+     */
+    private static final int POOL_GAME = 1;
+    /**
+     * The pool is stored card by card.
+     */
+    private static final int POOL_CARDS = 2;
+
+    /**
+     * An empty slot instead of a card.
+     */
+    private static final int CARD_NONE = 0;
+    /**
+     * A card that is not in the catalog, stored by name.
+     */
+    private static final int CARD_BY_NAME = 1;
+    /**
+     * Added to the catalog id of a card to store it.
+     */
+    private static final int CARD_ID_OFFSET = 2;
+
+    private static final int OVERRIDE_COST = 1;
+    private static final int OVERRIDE_NAME = 1 << 1;
+    private static final int OVERRIDE_TEXT = 1 << 2;
+    private static final int OVERRIDE_RARITY = 1 << 3;
+    private static final int OVERRIDE_STATS = 1 << 4;
+
+    private static final StatusKeyword[] KEYWORDS = StatusKeyword.values();
+    private static final Rarity[] RARITIES = Rarity.values();
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private GameSnapshot() {}
+
+    /**
+     * Saves a game that has started.
+     * @param game The game to save.
+     * @param catalog The catalog the cards of the game come from.
+     * @return The snapshot.
+     * @throws IllegalStateException If the game hasn't started yet.
+     */
+    public static byte[] save(Game game, CardCatalog catalog) throws IllegalStateException {
+        if (!game.hasStarted()) throw new IllegalStateException("Only games that have started can be saved!");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            writeVarInt(out, VERSION);
+
+            GameSettings settings = game.getSettings();
+            for (Rarity rarity : RARITIES) writeVarInt(out, settings.getShopQuantity(rarity));
+            writeVarInt(out, settings.getStartingLives());
+            writeVarInt(out, settings.getStartingMana());
+            writeVarInt(out, settings.getMaximumMana());
+
+            out.writeBoolean(game.isCombatLogging());
+            writeVarInt(out, game.getRound());
+            GameRandom random = game.getRandom();
+            out.writeLong(random.getInitialSeed());
+            out.writeLong(random.getSeed());
+            out.writeLong(random.getGamma());
+            CardPool catalogPool = catalog.createPool();
+            writePool(out, game.getCardPool(), catalogPool, null);
+
+            List<Player> players = game.getPlayers();
+            writeVarInt(out, players.size());
+            for (Player player : players) {
+                writePlayer(out, player, game.getCardPool(), catalogPool);
+            }
+            // the opponents are stored as positions in the list of players
+            for (Player player : players) {
+                writeVarInt(out, players.indexOf(game.getOpponent(player)) + 1);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new SnapshotFormatException("Couldn't write the snapshot.");
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Restores a game from a snapshot.
+     * @param snapshot The snapshot.
+     * @param catalog The catalog the cards of the game come from. Must be the same
+     *                catalog the game was saved with, or one where all cards
+     *                kept their ids.
+     * @return A new game in the same state as the saved one.
+     * @throws SnapshotFormatException If the snapshot is damaged, of a newer version,
+     * or contains cards that are not in the catalog.
+     */
+    public static Game restore(byte[] snapshot, CardCatalog catalog) throws SnapshotFormatException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+            if (in.readInt() != MAGIC) throw new SnapshotFormatException("This is not a game snapshot.");
+            int version = readVarInt(in);
+            if (version > VERSION) {
+                throw new SnapshotFormatException("The snapshot is of version " + version
+                        + ", only versions up to " + VERSION + " can be read.");
+            }
+
+            int[] shopQuantities = new int[RARITIES.length];
+            for (int i = 0; i < RARITIES.length; i++) shopQuantities[i] = readVarInt(in);
+            int startingLives = readVarInt(in), startingMana = readVarInt(in), maximumMana = readVarInt(in);
+            boolean combatLogging = in.readBoolean();
+            int round = readVarInt(in);
+            GameRandom random = new GameRandom(in.readLong(), in.readLong(), in.readLong());
+
+            Game game = new Game(new EffectCaller(), random);
+            GameSettings settings = game.getSettings();
+            for (int i = 0; i < RARITIES.length; i++) settings.setShopQuantity(RARITIES[i], shopQuantities[i]);
+            settings.setStartingLives(startingLives);
+            settings.setStartingMana(startingMana);
+            settings.setMaximumMana(maximumMana);
+            game.setCombatLogging(combatLogging);
+
+            CardPool catalogPool = catalog.createPool();
+            CardPool gamePool = readPool(in, catalog, catalogPool, null);
+            game.restore(gamePool, round);
+
+            int playerCount = readVarInt(in);
+            List<Player> players = new ArrayList<>();
+            for (int i = 0; i < playerCount; i++) {
+                players.add(readPlayer(in, game, catalog, catalogPool));
+            }
+            Map<Player, Player> opponents = new HashMap<>();
+            for (Player player : players) {
+                int opponent = readVarInt(in) - 1;
+                if (opponent >= 0) opponents.put(player, players.get(opponent));
+            }
+            game.restorePairings(opponents);
+            return game;
+        } catch (IOException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            e.printStackTrace();
+            throw new SnapshotFormatException("The snapshot is damaged.");
+        }
+    }
+
+    /**
+     * Writes everything about a player.
+     * @param out Where to write.
+     * @param player The player.
+     * @param gamePool The card pool of the game.
+     * @param catalogPool A pool derived from the catalog.
+     * @throws IOException If writing fails.
+     */
+    private static void writePlayer(DataOutputStream out, Player player, CardPool gamePool, CardPool catalogPool) throws IOException {
+        out.writeUTF(player.getName());
+        writeVarInt(out, player.getLives());
+        writeVarInt(out, player.getCurrentMana());
+        writeVarInt(out, player.getMaximumMana());
+        writeVarInt(out, player.getMaximumManaCap());
+        writeVarInt(out, player.getOverloadedMana());
+        writeCreatureData(out, player.getCreatureData());
+
+        writeContainer(out, player.getShop());
+        writeContainer(out, player.getHand());
+        writeHistory(out, player.getAttachedUpgrades());
+        writeHistory(out, player.getBuyHistory());
+        writeHistory(out, player.getPlayHistory());
+        writePool(out, player.getCardPool(), catalogPool, gamePool);
+
+        writeVarInt(out, player.getAftermathMessages().size());
+        for (String message : player.getAftermathMessages()) out.writeUTF(message);
+    }
+
+    /**
+     * Reads a player and adds them to the game.
+     * @param in Where to read from.
+     * @param game The game the player is a part of.
+     * @param catalog The catalog of the cards.
+     * @param catalogPool A pool derived from the catalog.
+     * @return The player.
+     * @throws IOException If reading fails.
+     */
+    private static Player readPlayer(DataInputStream in, Game game, CardCatalog catalog, CardPool catalogPool) throws IOException {
+        Player player = game.addPlayer(in.readUTF());
+        player.setLives(readVarInt(in));
+        int currentMana = readVarInt(in), maximumMana = readVarInt(in);
+        player.setMaximumManaCap(readVarInt(in));
+        player.setMaximumMana(maximumMana);
+        player.setCurrentMana(currentMana);
+        player.setOverloadedMana(readVarInt(in));
+        readCreatureData(in, player.getCreatureData());
+
+        readContainer(in, player.getShop(), catalog, Upgrade.class);
+        readContainer(in, player.getHand(), catalog, Card.class);
+        History<Upgrade> attached = player.getAttachedUpgrades();
+        readHistory(in, attached, catalog, Upgrade.class);
+        readHistory(in, player.getBuyHistory(), catalog, Upgrade.class);
+        readHistory(in, player.getPlayHistory(), catalog, Card.class);
+        player.setCardPool(readPool(in, catalog, catalogPool, game.getCardPool()));
+
+        int messages = readVarInt(in);
+        for (int i = 0; i < messages; i++) player.addAftermathMessage(in.readUTF());
+
+        // the effects of the round come from the upgrades attached during it
+        for (Upgrade upgrade : attached.getLastLayer()) {
+            upgrade.getEffects().forEach(x -> {
+                try {
+                    player.getEffects().add(x.isStateless() ? x : x.clone());
+                } catch (CloneNotSupportedException e) {
+                    e.printStackTrace();
+                    throw new SnapshotFormatException("Couldn't restore the effects of " + upgrade.getName());
+                }
+            });
+        }
+        return player;
+    }
+
+    /**
+     * Writes a card pool. Pools that still share their cards with the catalog or
+     * the game are only stored as a reference to them.
+     * @param out Where to write.
+     * @param pool The pool to write.
+     * @param catalogPool A pool derived from the catalog.
+     * @param gamePool The pool of the game, or null if this is the pool of the game.
+     * @throws IOException If writing fails.
+     */
+    private static void writePool(DataOutputStream out, CardPool pool, CardPool catalogPool, CardPool gamePool) throws IOException {
+        if (gamePool != null && pool.sharesCardsWith(gamePool)) {
+            writeVarInt(out, POOL_GAME);
+        } else if (pool.sharesCardsWith(catalogPool)) {
+            writeVarInt(out, POOL_CATALOG);
+        } else {
+            writeVarInt(out, POOL_CARDS);
+            // tokens can be upgrades too, so each group is stored on its own
+            for (List<? extends Card> cards : List.of(pool.getUpgrades(), pool.getTokens(), pool.getSpareParts())) {
+                writeVarInt(out, cards.size());
+                for (Card card : cards) writeCard(out, card);
+            }
+        }
+    }
+
+    /**
+     * Reads a card pool.
+     * @param in Where to read from.
+     * @param catalog The catalog of the cards.
+     * @param catalogPool A pool derived from the catalog.
+     * @param gamePool The pool of the game, or null if this is the pool of the game.
+     * @return The pool.
+     * @throws IOException If reading fails.
+     */
+    private static CardPool readPool(DataInputStream in, CardCatalog catalog, CardPool catalogPool, CardPool gamePool) throws IOException {
+        int kind = readVarInt(in);
+        if (kind == POOL_GAME && gamePool != null) return gamePool.derive();
+        if (kind == POOL_CATALOG) return catalogPool.derive();
+        if (kind != POOL_CARDS) throw new SnapshotFormatException("Unknown kind of card pool: " + kind);
+        CardPool pool = new CardPool();
+        int upgrades = readVarInt(in);
+        for (int i = 0; i < upgrades; i++) pool.addCard(cast(readCard(in, catalog), Upgrade.class));
+        int tokens = readVarInt(in);
+        for (int i = 0; i < tokens; i++) pool.addToken(readCard(in, catalog));
+        int spareParts = readVarInt(in);
+        for (int i = 0; i < spareParts; i++) pool.addCard(cast(readCard(in, catalog), SparePart.class));
+        return pool;
+    }
+
+    /**
+     * Writes the cards of a container, keeping empty slots.
+     * @param out Where to write.
+     * @param container The container.
+     * @throws IOException If writing fails.
+     */
+    private static void writeContainer(DataOutputStream out, CardContainer<? extends Card> container) throws IOException {
+        List<? extends Card> cards = container.getCardsWithEmptySlot();
+        writeVarInt(out, cards.size());
+        for (Card card : cards) writeCard(out, card);
+    }
+
+    /**
+     * Reads the cards of a container into an empty container.
+     * @param in Where to read from.
+     * @param container The container.
+     * @param catalog The catalog of the cards.
+     * @param type The type of the cards in the container.
+     * @param <T> The type of the cards in the container.
+     * @throws IOException If reading fails.
+     */
+    private static <T extends Card> void readContainer(DataInputStream in, CardContainer<T> container,
+                                                       CardCatalog catalog, Class<T> type) throws IOException {
+        container.clear();
+        int size = readVarInt(in);
+        List<T> cards = new ArrayList<>();
+        for (int i = 0; i < size; i++) cards.add(cast(readCard(in, catalog), type));
+        if (cards.isEmpty()) return;
+        // containers never end with an empty slot, so the last card can fill the
+        // empty slots until they're emptied again
+        T filler = cards.get(cards.size() - 1);
+        for (T card : cards) container.addCard(card != null ? card : filler);
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i) == null) container.setCard(i, null);
+        }
+    }
+
+    /**
+     * Writes a history, layer by layer.
+     * @param out Where to write.
+     * @param history The history.
+     * @throws IOException If writing fails.
+     */
+    private static void writeHistory(DataOutputStream out, History<? extends Card> history) throws IOException {
+        List<? extends List<? extends Card>> layers = history.getLayers();
+        writeVarInt(out, layers.size());
+        for (List<? extends Card> layer : layers) {
+            writeVarInt(out, layer.size());
+            for (Card card : layer) writeCard(out, card);
+        }
+    }
+
+    /**
+     * Reads a history into a history that has a single empty layer.
+     * @param in Where to read from.
+     * @param history The history.
+     * @param catalog The catalog of the cards.
+     * @param type The type of the cards in the history.
+     * @param <T> The type of the cards in the history.
+     * @throws IOException If reading fails.
+     */
+    private static <T extends Card> void readHistory(DataInputStream in, History<T> history,
+                                                     CardCatalog catalog, Class<T> type) throws IOException {
+        int layers = readVarInt(in);
+        for (int i = 0; i < layers; i++) {
+            if (i > 0) history.createLayer();
+            int size = readVarInt(in);
+            for (int j = 0; j < size; j++) {
+                T card = cast(readCard(in, catalog), type);
+                if (card == null) throw new SnapshotFormatException("A history contains an empty slot.");
+                history.addCard(card);
+            }
+        }
+    }
+
+    /**
+     * Writes a card as its catalog id and the values that differ from its definition.
+     * @param out Where to write.
+     * @param card The card, or null for an empty slot.
+     * @throws IOException If writing fails.
+     */
+    private static void writeCard(DataOutputStream out, Card card) throws IOException {
+        if (card == null) {
+            writeVarInt(out, CARD_NONE);
+            return;
+        }
+        CardDefinition def = card.getDefinition();
+        if (def == null) {
+            writeVarInt(out, CARD_BY_NAME);
+            out.writeUTF(card.getName());
+        } else {
+            writeVarInt(out, def.getCatalogId() + CARD_ID_OFFSET);
+        }
+
+        int overrides = 0;
+        if (def == null || card.getCost() != def.getCost()) overrides |= OVERRIDE_COST;
+        if (def != null && !card.getName().equals(def.getName())) overrides |= OVERRIDE_NAME;
+        if (def == null || !card.getCardText().equals(def.getCardText())) overrides |= OVERRIDE_TEXT;
+        if (def == null || card.getRarity() != def.getRarity()) overrides |= OVERRIDE_RARITY;
+        if (card instanceof Upgrade u && (def == null || !hasSameStats(u, def.getCreatureData()))) overrides |= OVERRIDE_STATS;
+        out.writeByte(overrides);
+
+        if ((overrides & OVERRIDE_COST) != 0) writeVarInt(out, card.getCost());
+        if ((overrides & OVERRIDE_NAME) != 0) out.writeUTF(card.getName());
+        if ((overrides & OVERRIDE_TEXT) != 0) out.writeUTF(card.getCardText());
+        if ((overrides & OVERRIDE_RARITY) != 0) writeVarInt(out, card.getRarity().ordinal());
+        if ((overrides & OVERRIDE_STATS) != 0) {
+            Upgrade u = (Upgrade) card;
+            writeVarInt(out, u.getAttack());
+            writeVarInt(out, u.getHealth());
+            writeKeywords(out, u::getStatusKeyword);
+        }
+    }
+
+    /**
+     * Reads a card, starting from a copy of its prototype in the catalog.
+     * @param in Where to read from.
+     * @param catalog The catalog of the cards.
+     * @return The card, or null for an empty slot.
+     * @throws IOException If reading fails.
+     */
+    private static Card readCard(DataInputStream in, CardCatalog catalog) throws IOException {
+        int ref = readVarInt(in);
+        if (ref == CARD_NONE) return null;
+        Card prototype = ref == CARD_BY_NAME ? catalog.get(in.readUTF()) : catalog.get(ref - CARD_ID_OFFSET);
+        if (prototype == null) throw new SnapshotFormatException("The snapshot contains a card that is not in the catalog.");
+        Card card;
+        try {
+            card = prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            e.printStackTrace();
+            throw new SnapshotFormatException("Couldn't copy " + prototype.getName());
+        }
+
+        int overrides = in.readByte();
+        if ((overrides & OVERRIDE_COST) != 0) card.setCost(readVarInt(in));
+        if ((overrides & OVERRIDE_NAME) != 0) card.setName(in.readUTF());
+        if ((overrides & OVERRIDE_TEXT) != 0) card.setCardText(in.readUTF());
+        if ((overrides & OVERRIDE_RARITY) != 0) card.setRarity(RARITIES[readVarInt(in)]);
+        if ((overrides & OVERRIDE_STATS) != 0) {
+            if (!(card instanceof Upgrade u)) throw new SnapshotFormatException(card.getName() + " has no stats.");
+            u.setAttack(readVarInt(in));
+            u.setHealth(readVarInt(in));
+            readKeywords(in, u.getCreatureData());
+        }
+        return card;
+    }
+
+    /**
+     * Checks whether an upgrade has the same stats and keywords as its definition.
+     * @param upgrade The upgrade.
+     * @param def The creature data of its definition.
+     * @return True if nothing differs.
+     */
+    private static boolean hasSameStats(Upgrade upgrade, CreatureData def) {
+        if (def == null) return false;
+        if (upgrade.getAttack() != def.getAttack() || upgrade.getHealth() != def.getHealth()) return false;
+        for (StatusKeyword keyword : KEYWORDS) {
+            if (upgrade.getStatusKeyword(keyword) != def.getStatusKeyword(keyword)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the stats and keywords of a creature.
+     * @param out Where to write.
+     * @param data The creature data.
+     * @throws IOException If writing fails.
+     */
+    private static void writeCreatureData(DataOutputStream out, CreatureData data) throws IOException {
+        writeVarInt(out, data.getAttack());
+        writeVarInt(out, data.getHealth());
+        writeKeywords(out, data::getStatusKeyword);
+    }
+
+    /**
+     * Reads the stats and keywords of a creature into existing creature data.
+     * @param in Where to read from.
+     * @param data The creature data.
+     * @throws IOException If reading fails.
+     */
+    private static void readCreatureData(DataInputStream in, CreatureData data) throws IOException {
+        data.setAttack(readVarInt(in));
+        data.setHealth(readVarInt(in));
+        readKeywords(in, data);
+    }
+
+    /**
+     * Writes the keywords with a value above 0 as pairs of keyword and value.
+     * @param out Where to write.
+     * @param keywords Gets the value of a keyword.
+     * @throws IOException If writing fails.
+     */
+    private static void writeKeywords(DataOutputStream out, ToIntFunction<StatusKeyword> keywords) throws IOException {
+        int present = 0;
+        for (StatusKeyword keyword : KEYWORDS) {
+            if (keywords.applyAsInt(keyword) > 0) present++;
+        }
+        writeVarInt(out, present);
+        for (StatusKeyword keyword : KEYWORDS) {
+            int value = keywords.applyAsInt(keyword);
+            if (value <= 0) continue;
+            writeVarInt(out, keyword.ordinal());
+            writeVarInt(out, value);
+        }
+    }
+
+    /**
+     * Reads keywords, replacing all keywords of the creature data.
+     * @param in Where to read from.
+     * @param data The creature data.
+     * @throws IOException If reading fails.
+     */
+    private static void readKeywords(DataInputStream in, CreatureData data) throws IOException {
+        data.clearStatusKeywords();
+        int present = readVarInt(in);
+        for (int i = 0; i < present; i++) {
+            StatusKeyword keyword = KEYWORDS[readVarInt(in)];
+            data.setStatusKeyword(keyword, readVarInt(in));
+        }
+    }
+
+    /**
+     * Checks that a card is of the expected type.
+     * @param card The card, or null.
+     * @param type The expected type.
+     * @param <T> The expected type.
+     * @return The card.
+     */
+    private static <T extends Card> T cast(Card card, Class<T> type) {
+        if (card != null && !type.isInstance(card)) {
+            throw new SnapshotFormatException(card.getName() + " is not a " + type.getSimpleName());
+        }
+        return type.cast(card);
+    }
+
+    /**
+     * Writes an int in as few bytes as possible. Small values, positive or
+     * negative, take a single byte.
+     * @param out Where to write.
+     * @param value The value.
+     * @throws IOException If writing fails.
+     */
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        int v = (value << 1) ^ (value >> 31);
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    /**
+     * Reads an int written by {@link GameSnapshot#writeVarInt(DataOutputStream, int)}.
+     * @param in Where to read from.
+     * @return The value.
+     * @throws IOException If reading fails.
+     */
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return (v >>> 1) ^ -(v & 1);
+        }
+        throw new SnapshotFormatException("A number in the snapshot is too long.");
+    }
+}
@@ -0,0 +1,249 @@
+package scrapscramble.game;
+
+import java.util.List;
+
+/**
+ * One action read back from a {@link GameJournal}.
+ */
+public class JournalEntry {
+
+    /**
+     * The kinds of actions a journal records.
+     */
+    public enum Type {
+        /**
+         * The game started. Has the names of the players, the settings and the seed.
+         */
+        Start,
+        /**
+         * A player bought an upgrade. Has the player and the position in the shop.
+         */
+        Buy,
+        /**
+         * A player played a card. Has the player and the position in the hand.
+         */
+        Play,
+        /**
+         * The fights of the round were conducted. Has the round, the seed and a hash
+         * of the fight outputs.
+         */
+        Fights,
+        /**
+         * The game moved on to the next round. Has the new round, the seed and a
+         * hash of the state of the game.
+         */
+        NextRound,
+        /**
+         * A snapshot of the game was taken. Has the round of the snapshot.
+         */
+        Snapshot
+    }
+
+    /**
+     * The kind of action.
+     */
+    private final Type type;
+    /**
+     * The position of the player in the names of the start entry, or -1.
+     */
+    private final int player;
+    /**
+     * The position of the card in the shop or hand, or -1.
+     */
+    private final int index;
+    /**
+     * The round of the game, or 0.
+     */
+    private final int round;
+    /**
+     * The current seed of the game's generator, or 0.
+     */
+    private final long seed;
+    /**
+     * A hash of the fight outputs or of the state of the game, or 0 if none was recorded.
+     */
+    private final long hash;
+    /**
+     * The gamma of the game's generator for a start entry, otherwise 0.
+     */
+    private final long gamma;
+    /**
+     * The seed the game's generator was created with for a start entry, otherwise 0.
+     */
+    private final long initialSeed;
+    /**
+     * The names of the players for a start entry, otherwise an empty list.
+     */
+    private final List<String> names;
+    /**
+     * The settings of the game for a start entry, otherwise null.
+     */
+    private final GameSettings settings;
+    /**
+     * Whether the fights of the game recorded what happened, for a start entry.
+     */
+    private final boolean combatLogging;
+
+    /**
+     * Creates a new entry. Should be created through one of the static methods.
+     * @param type The kind of action.
+     * @param player The position of the player, or -1.
+     * @param index The position of the card, or -1.
+     * @param round The round of the game, or 0.
+     * @param seed The current seed of the game's generator, or 0.
+     * @param hash A hash of the fight outputs or the state of the game, or 0.
+     * @param gamma The gamma of the game's generator, or 0.
+     * @param initialSeed The seed the game's generator was created with, or 0.
+     * @param names The names of the players, or an empty list.
+     * @param settings The settings of the game, or null.
+     * @param combatLogging Whether the fights recorded what happened.
+     */
+    private JournalEntry(Type type, int player, int index, int round, long seed, long hash, long gamma,
+                         long initialSeed, List<String> names, GameSettings settings, boolean combatLogging) {
+        this.type = type;
+        this.player = player;
+        this.index = index;
+        this.round = round;
+        this.seed = seed;
+        this.hash = hash;
+        this.gamma = gamma;
+        this.initialSeed = initialSeed;
+        this.names = names;
+        this.settings = settings;
+        this.combatLogging = combatLogging;
+    }
+
+    /**
+     * Creates the entry of the start of a game.
+     * @param seed The current seed of the game's generator.
+     * @param gamma The gamma of the game's generator.
+     * @param initialSeed The seed the game's generator was created with.
+     * @param names The names of the players.
+     * @param settings The settings of the game.
+     * @param combatLogging Whether the fights recorded what happened.
+     * @return The entry.
+     */
+    static JournalEntry start(long seed, long gamma, long initialSeed, List<String> names,
+                              GameSettings settings, boolean combatLogging) {
+        return new JournalEntry(Type.Start, -1, -1, 0, seed, 0, gamma, initialSeed, names, settings, combatLogging);
+    }
+
+    /**
+     * Creates the entry of a card that was bought or played.
+     * @param type {@link Type#Buy} or {@link Type#Play}.
+     * @param player The position of the player.
+     * @param index The position of the card.
+     * @return The entry.
+     */
+    static JournalEntry card(Type type, int player, int index) {
+        return new JournalEntry(type, player, index, 0, 0, 0, 0, 0, List.of(), null, false);
+    }
+
+    /**
+     * Creates the entry of something that happened to the whole game.
+     * @param type {@link Type#Fights}, {@link Type#NextRound} or {@link Type#Snapshot}.
+     * @param round The round of the game.
+     * @param seed The current seed of the game's generator, or 0.
+     * @param hash A hash of the fight outputs or the state of the game, or 0.
+     * @return The entry.
+     */
+    static JournalEntry round(Type type, int round, long seed, long hash) {
+        return new JournalEntry(type, -1, -1, round, seed, hash, 0, 0, List.of(), null, false);
+    }
+
+    /**
+     * Gets the kind of action.
+     * @return The type of the entry.
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the player who bought or played a card.
+     * @return The position of the player in the names of the start entry, or -1.
+     */
+    public int getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * Gets the position of the card that was bought or played.
+     * @return The position in the shop or hand, or -1.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Gets the round of the game when the action happened.
+     * @return The round, or 0 for entries without one.
+     */
+    public int getRound() {
+        return this.round;
+    }
+
+    /**
+     * Gets the seed of the game's generator when the action happened. Used to check
+     * that a replayed game used up the same random numbers.
+     * @return The seed, or 0 for entries without one.
+     */
+    public long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Gets the hash recorded with the entry. Fights have a hash of their outputs,
+     * from {@link GameReplayer#hashFights(List)}, and new rounds have a hash of the
+     * state of the game, from {@link GameReplayer#hashState(Game)}.
+     * @return The hash, or 0 if none was recorded.
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    /**
+     * Creates a generator in the state the game's generator was in when the game
+     * started, so that the game can be played again.
+     * @return A new generator.
+     * @throws IllegalStateException If this is not a start entry.
+     */
+    public GameRandom createRandom() throws IllegalStateException {
+        if (this.type != Type.Start) throw new IllegalStateException("Only start entries have a generator!");
+        return new GameRandom(this.initialSeed, this.seed, this.gamma);
+    }
+
+    /**
+     * Gets the names of the players the game was started with.
+     * @return The names, or an empty list for entries other than the start.
+     */
+    public List<String> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Gets the settings the game was started with.
+     * @return The settings, or null for entries other than the start.
+     */
+    public GameSettings getSettings() {
+        return this.settings;
+    }
+
+    /**
+     * Gets whether the fights of the game recorded what happened in their outputs.
+     * @return True if they did, false if they didn't or this is not a start entry.
+     */
+    public boolean isCombatLogging() {
+        return this.combatLogging;
+    }
+
+    @Override
+    public String toString() {
+        return switch (this.type) {
+            case Start -> "Start " + this.names + " seed " + this.seed;
+            case Buy, Play -> this.type + " player " + this.player + " index " + this.index;
+            case Fights, NextRound -> this.type + " round " + this.round + " seed " + this.seed;
+            case Snapshot -> "Snapshot round " + this.round;
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package scrapscramble.game;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * What happened when a recorded game was played again by a {@link GameReplayer}.
+ */
+public class ReplayResult {
+
+    /**
+     * The game in the state the replay stopped at.
+     */
+    private final Game game;
+    /**
+     * The outputs of every fight of the replay, in the order they happened.
+     */
+    private final List<FightOutput> fightOutputs;
+    /**
+     * How many entries of the journal were played again.
+     */
+    private final int replayedEntries;
+    /**
+     * How many recorded hashes matched the replay.
+     */
+    private final int checkedHashes;
+    /**
+     * Why the replay stopped matching the journal, or null if it never did.
+     */
+    private final String mismatch;
+
+    /**
+     * Creates a new result.
+     * @param game The game in the state the replay stopped at.
+     * @param fightOutputs The outputs of every fight of the replay.
+     * @param replayedEntries How many entries were played again.
+     * @param checkedHashes How many recorded hashes matched.
+     * @param mismatch Why the replay stopped matching the journal, or null.
+     */
+    ReplayResult(Game game, List<FightOutput> fightOutputs, int replayedEntries, int checkedHashes,
+                 @Nullable String mismatch) {
+        this.game = game;
+        this.fightOutputs = fightOutputs;
+        this.replayedEntries = replayedEntries;
+        this.checkedHashes = checkedHashes;
+        this.mismatch = mismatch;
+    }
+
+    /**
+     * Gets the game in the state the replay stopped at. If the replay stopped
+     * matching the journal, this is right after the action that didn't match.
+     * @return The game.
+     */
+    public Game getGame() {
+        return this.game;
+    }
+
+    /**
+     * Gets the outputs of every fight of the replay.
+     * @return The fight outputs, in the order they happened.
+     */
+    public List<FightOutput> getFightOutputs() {
+        return this.fightOutputs;
+    }
+
+    /**
+     * Gets how many entries of the journal were played again, the start included.
+     * @return The amount of entries.
+     */
+    public int getReplayedEntries() {
+        return this.replayedEntries;
+    }
+
+    /**
+     * Gets how many hashes of the journal were compared with the replay and matched.
+     * @return The amount of hashes.
+     */
+    public int getCheckedHashes() {
+        return this.checkedHashes;
+    }
+
+    /**
+     * Checks whether the replay matched the journal all the way.
+     * @return True if every action could be played again and every hash matched.
+     */
+    public boolean isFaithful() {
+        return this.mismatch == null;
+    }
+
+    /**
+     * Gets why the replay stopped matching the journal.
+     * @return A description of the first difference, or null if there was none.
+     */
+    public @Nullable String getMismatch() {
+        return this.mismatch;
+    }
+}
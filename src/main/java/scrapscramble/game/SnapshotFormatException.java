@@ -0,0 +1,15 @@
+package scrapscramble.game;
+
+/**
+ * Thrown when a {@link GameSnapshot} can't be written or read.
+ */
+public class SnapshotFormatException extends RuntimeException {
+
+    /**
+     * Creates a new exception.
+     * @param message What went wrong.
+     */
+    public SnapshotFormatException(String message) {
+        super(message);
+    }
+}
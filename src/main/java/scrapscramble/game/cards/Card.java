@@ -1,6 +1,7 @@
 package scrapscramble.game.cards;
 
 import org.apache.commons.lang3.exception.CloneFailedException;
+import org.jetbrains.annotations.Nullable;
 import scrapscramble.game.Game;
 import scrapscramble.game.cards.effects.Effect;
 import scrapscramble.game.player.Player;
@@ -35,11 +36,35 @@ public abstract class Card implements Cloneable {
      * Effects the card has.
      */
     protected List<Effect> effects;
+    /**
+     * The id of the card in the {@link CardCatalog}, or -1 if the card is not a
+     * part of it. Copies of a card keep its id.
+     */
+    protected int catalogId;
+    /**
+     * The definition of the card if it is a part of the {@link CardCatalog}, or null.
+     * While {@link Card#effects} is the list of the definition, the effects are shared
+     * with every other copy of the card and get copied the first time they're accessed
+     * through {@link Card#getEffects()}.
+     */
+    protected CardDefinition definition;
+    /**
+     * Whether this is the prototype kept by the {@link CardCatalog}. Prototypes never
+     * copy their shared data, so they can't be modified through it.
+     */
+    protected boolean isPrototype;
+    /**
+     * Goes up every time the cost, name, card text or rarity of the card changes.
+     */
+    private long version;
 
     /**
      * Default constructor for a card. All values have default inputs.
      */
     public Card() {
+        this.catalogId = -1;
+        this.definition = null;
+        this.isPrototype = false;
         this.name = "Default Name";
         this.cost = 0;
         this.rarity = Rarity.None;
@@ -63,6 +88,7 @@ public abstract class Card implements Cloneable {
      */
     public void setCost(int newCost) {
         this.cost = newCost;
+        this.version++;
     }
 
     /**
@@ -81,6 +107,7 @@ public abstract class Card implements Cloneable {
      */
     public void setName(String newName) {
         this.name = newName;
+        this.version++;
     }
 
     /**
@@ -99,6 +126,7 @@ public abstract class Card implements Cloneable {
      */
     public void setCardText(String newCardText) {
         this.cardText = newCardText;
+        this.version++;
     }
 
     /**
@@ -117,18 +145,100 @@ public abstract class Card implements Cloneable {
      */
     public void setRarity(Rarity newRarity) {
         this.rarity = newRarity;
+        this.version++;
+    }
+
+    /**
+     * Gets the version of the card. It goes up every time something shown about
+     * the card changes, so a card with the same version as before looks the same.
+     *
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the id of the card in the {@link CardCatalog}. Ids are dense, starting
+     * from 0, and can be used to refer to cards instead of their names.
+     *
+     * @return The catalog id of the card, or -1 if it is not a part of the catalog.
+     */
+    public int getCatalogId() {
+        return this.catalogId;
+    }
+
+    /**
+     * Changes the catalog id of the card. Only the catalog assigns ids.
+     *
+     * @param catalogId New catalog id.
+     */
+    void setCatalogId(int catalogId) {
+        this.catalogId = catalogId;
+    }
+
+    /**
+     * Gets the definition the card was copied from.
+     *
+     * @return The definition of the card, or null if it is not a part of the catalog.
+     */
+    public @Nullable CardDefinition getDefinition() {
+        return this.definition;
+    }
+
+    /**
+     * Turns the card into the prototype of a catalog card. Its current values become
+     * its {@link CardDefinition}, which is shared with all of its copies.
+     * Only the catalog creates prototypes, after assigning the card's id.
+     */
+    void makePrototype() {
+        this.definition = this.createDefinition();
+        this.effects = this.definition.getEffects();
+        this.isPrototype = true;
+    }
+
+    /**
+     * Creates the definition out of the current values of the card.
+     *
+     * @return The definition of the card.
+     */
+    CardDefinition createDefinition() {
+        return new CardDefinition(this.catalogId, this.name, this.cardText, this.rarity, this.cost,
+                this.effects, null);
     }
 
     /**
      * Gets a list of all effects the card has. The list is related to the instance
-     * and any changes to it are reflected in the card.
+     * and any changes to it are reflected in the card. Copies of catalog cards share
+     * their effects until this is called for the first time, at which point the
+     * stateful ones are copied. For the prototypes of the catalog, the list is unmodifiable.
      *
      * @return The card's effects.
      */
     public List<Effect> getEffects() {
+        if (this.sharesEffects() && !this.isPrototype) {
+            List<Effect> copy = new ArrayList<>();
+            for (Effect eff : this.effects) {
+                try {
+                    copy.add(eff.isStateless() ? eff : eff.clone());
+                } catch (CloneNotSupportedException e) {
+                    throw new CloneFailedException("Could not clone the effects of " + this.name);
+                }
+            }
+            this.effects = copy;
+        }
         return this.effects;
     }
 
+    /**
+     * Checks whether the card still uses the effects of its definition.
+     *
+     * @return True if the effects are shared with the definition.
+     */
+    protected boolean sharesEffects() {
+        return this.definition != null && this.effects == this.definition.getEffects();
+    }
+
     /**
      * Displays the information of the card to be displayed. Sometimes the text of
      * the card depends on the state of the player or the game.
@@ -147,9 +257,13 @@ public abstract class Card implements Cloneable {
 //        copy.cardText = this.cardText;
 //        copy.cost = this.cost;
         Card copy = (Card) super.clone();
-        copy.effects = new ArrayList<>();
-        for (Effect eff : this.effects) {
-            copy.effects.add(eff.clone());
+        copy.isPrototype = false;
+        // effects shared with the definition are only copied when they're accessed
+        if (!this.sharesEffects()) {
+            copy.effects = new ArrayList<>();
+            for (Effect eff : this.effects) {
+                copy.effects.add(eff.isStateless() ? eff : eff.clone());
+            }
         }
 
         return copy;
@@ -0,0 +1,184 @@
+package scrapscramble.game.cards;
+
+import org.jetbrains.annotations.Nullable;
+import scrapscramble.game.cards.annotations.TokenFromClass;
+import scrapscramble.game.cards.annotations.TokenFromMethod;
+import scrapscramble.game.cards.annotations.UpgradeFromClass;
+import scrapscramble.game.cards.annotations.UpgradeFromMethod;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The card catalog contains the prototype of every card that exists in the game.
+ * It is built once per process and is never modified afterwards. Card pools used
+ * by games are derived from it and share its prototypes instead of building their
+ * own copies.
+ */
+public final class CardCatalog {
+
+    /**
+     * All upgrades that appear in the shop. The list is unmodifiable.
+     */
+    private final List<Upgrade> upgrades;
+    /**
+     * All tokens in the game. The list is unmodifiable.
+     */
+    private final List<Card> tokens;
+    /**
+     * All spare parts in the game. The list is unmodifiable.
+     */
+    private final List<SparePart> spareParts;
+    /**
+     * Index of the upgrades by rarity and cost, shared by all derived pools.
+     */
+    private final UpgradeIndex upgradeIndex;
+    /**
+     * Index of all cards by name and id, shared by all derived pools.
+     */
+    private final CardLookup lookup;
+    /**
+     * How long it took to build the catalog.
+     */
+    private final Duration buildTime;
+
+    /**
+     * Creates a new catalog out of the given cards. The lists are copied and every
+     * card is given its catalog id: first the upgrades, then the tokens and then
+     * the spare parts, in the order they're given. Every card then becomes a
+     * prototype with its own {@link CardDefinition}.
+     * @param upgrades All upgrades.
+     * @param tokens All tokens.
+     * @param spareParts All spare parts.
+     * @param buildStart When building the catalog started, from {@link System#nanoTime()}.
+     */
+    private CardCatalog(List<Upgrade> upgrades, List<Card> tokens, List<SparePart> spareParts, long buildStart) {
+        this.upgrades = List.copyOf(upgrades);
+        this.tokens = List.copyOf(tokens);
+        this.spareParts = List.copyOf(spareParts);
+        int id = 0;
+        for (Card c : this.upgrades) c.setCatalogId(id++);
+        for (Card c : this.tokens) c.setCatalogId(id++);
+        for (Card c : this.spareParts) c.setCatalogId(id++);
+        for (List<? extends Card> cards : List.of(this.upgrades, this.tokens, this.spareParts)) {
+            for (Card c : cards) c.makePrototype();
+        }
+        this.upgradeIndex = new UpgradeIndex(this.upgrades);
+        this.lookup = new CardLookup(this.upgrades, this.tokens, this.spareParts);
+        this.buildTime = Duration.ofNanos(System.nanoTime() - buildStart);
+    }
+
+    /**
+     * Gets the catalog shared by the whole process. It is built the first time
+     * this method is called.
+     * @return The card catalog.
+     * @throws UnableToCreateCardPoolException When a mistake happens when building
+     * the catalog, usually from a card factory throwing an exception.
+     */
+    public static CardCatalog getInstance() throws UnableToCreateCardPoolException {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Builds a new catalog entirely out of cards that have been "hardcoded" in
+     * the code. The annotated cards are found at compile time and created through
+     * the generated {@link GeneratedCardRegistry}, so no classpath scanning happens.
+     * Prefer {@link CardCatalog#getInstance()}, which only does this once.
+     * @return A catalog that contains all cards annotated with {@link UpgradeFromClass},
+     * {@link UpgradeFromMethod}, {@link TokenFromClass} and {@link TokenFromMethod}.
+     * @throws UnableToCreateCardPoolException When a mistake happens when building
+     * the catalog, usually from a card factory throwing an exception.
+     */
+    public static CardCatalog fromAnnotations() throws UnableToCreateCardPoolException {
+        long start = System.nanoTime();
+        List<Upgrade> upgrades;
+        List<Card> tokens = new ArrayList<>();
+        List<SparePart> spareParts = new ArrayList<>();
+        try {
+            upgrades = GeneratedCardRegistry.upgrades();
+            for (Card c : GeneratedCardRegistry.tokens()) {
+                if (c instanceof SparePart sp) spareParts.add(sp);
+                else tokens.add(c);
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            throw new UnableToCreateCardPoolException();
+        }
+        return new CardCatalog(upgrades, tokens, spareParts, start);
+    }
+
+    /**
+     * Creates a new card pool derived from the catalog. The pool shares the
+     * catalog's prototypes, so creating it doesn't copy any cards.
+     * @return A card pool containing all cards of the catalog.
+     */
+    public CardPool createPool() {
+        return new CardPool(this.upgrades, this.tokens, this.spareParts, this.upgradeIndex, this.lookup);
+    }
+
+    /**
+     * Gets all upgrades in the catalog. The prototypes must not be modified.
+     * @return An unmodifiable list of all upgrades.
+     */
+    public List<Upgrade> getUpgrades() {
+        return this.upgrades;
+    }
+
+    /**
+     * Gets all tokens in the catalog. The prototypes must not be modified.
+     * @return An unmodifiable list of all tokens.
+     */
+    public List<Card> getTokens() {
+        return this.tokens;
+    }
+
+    /**
+     * Gets all spare parts in the catalog. The prototypes must not be modified.
+     * @return An unmodifiable list of all spare parts.
+     */
+    public List<SparePart> getSpareParts() {
+        return this.spareParts;
+    }
+
+    /**
+     * Gets the amount of cards in the catalog. Catalog ids go from 0 up to this, exclusive.
+     * @return The amount of cards.
+     */
+    public int size() {
+        return this.upgrades.size() + this.tokens.size() + this.spareParts.size();
+    }
+
+    /**
+     * Gets the prototype of a card by its catalog id. The prototype must not be modified.
+     * @param id The catalog id of the card.
+     * @return The card, or null if there's no card with that id.
+     */
+    public @Nullable Card get(int id) {
+        return this.lookup.get(id);
+    }
+
+    /**
+     * Gets the prototype of a card by its name. The prototype must not be modified.
+     * @param name The name of the card.
+     * @return The card, or null if there's no card with that name.
+     */
+    public @Nullable Card get(String name) {
+        return this.lookup.get(name);
+    }
+
+    /**
+     * Gets how long it took to build the catalog.
+     * @return Duration of the catalog construction.
+     */
+    public Duration getBuildTime() {
+        return this.buildTime;
+    }
+
+    /**
+     * Lazily holds the process-wide catalog. The JVM guarantees it's only built once.
+     */
+    private static class Holder {
+        private static final CardCatalog INSTANCE = CardCatalog.fromAnnotations();
+    }
+}
@@ -0,0 +1,127 @@
+package scrapscramble.game.cards;
+
+import org.jetbrains.annotations.Nullable;
+import scrapscramble.game.CreatureData;
+import scrapscramble.game.cards.effects.Effect;
+
+import java.util.List;
+
+/**
+ * The immutable definition of a card in the {@link CardCatalog}. Every copy of a
+ * catalog card refers to the same definition and shares its effects and creature
+ * data until the copy changes them, so handing out a copy of a card only copies
+ * the few values that can be changed directly on the card, like its cost.
+ */
+public final class CardDefinition {
+
+    /**
+     * The id of the card in the catalog.
+     */
+    private final int catalogId;
+    /**
+     * The name of the card.
+     */
+    private final String name;
+    /**
+     * The card text of the card.
+     */
+    private final String cardText;
+    /**
+     * The rarity of the card.
+     */
+    private final Rarity rarity;
+    /**
+     * The base cost of the card.
+     */
+    private final int cost;
+    /**
+     * The effects of the card. The list is unmodifiable and the effects must not
+     * be modified or activated directly.
+     */
+    private final List<Effect> effects;
+    /**
+     * The base stats and keywords of the card, or null if the card is not an {@link Upgrade}.
+     * Must not be modified.
+     */
+    private final CreatureData creatureData;
+
+    /**
+     * Creates a new card definition.
+     * @param catalogId The id of the card in the catalog.
+     * @param name The name of the card.
+     * @param cardText The card text of the card.
+     * @param rarity The rarity of the card.
+     * @param cost The base cost of the card.
+     * @param effects The effects of the card. The list is copied.
+     * @param creatureData The stats and keywords of the card, or null if it's not an
+     *                     upgrade. The instance is kept, not copied.
+     */
+    CardDefinition(int catalogId, String name, String cardText, Rarity rarity, int cost,
+                   List<Effect> effects, @Nullable CreatureData creatureData) {
+        this.catalogId = catalogId;
+        this.name = name;
+        this.cardText = cardText;
+        this.rarity = rarity;
+        this.cost = cost;
+        this.effects = List.copyOf(effects);
+        this.creatureData = creatureData;
+    }
+
+    /**
+     * Gets the id of the card in the catalog.
+     * @return The catalog id.
+     */
+    public int getCatalogId() {
+        return this.catalogId;
+    }
+
+    /**
+     * Gets the name of the card.
+     * @return The name of the card.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Gets the original card text of the card.
+     * @return The card text.
+     */
+    public String getCardText() {
+        return this.cardText;
+    }
+
+    /**
+     * Gets the rarity of the card.
+     * @return The rarity.
+     */
+    public Rarity getRarity() {
+        return this.rarity;
+    }
+
+    /**
+     * Gets the base cost of the card.
+     * @return The base cost.
+     */
+    public int getCost() {
+        return this.cost;
+    }
+
+    /**
+     * Gets the effects of the card. The effects are shared by every copy of the card
+     * and must not be modified.
+     * @return An unmodifiable list of the card's effects.
+     */
+    public List<Effect> getEffects() {
+        return this.effects;
+    }
+
+    /**
+     * Gets the base stats and keywords of the card. They are shared by every copy of
+     * the card and must not be modified.
+     * @return The creature data, or null if the card is not an upgrade.
+     */
+    public @Nullable CreatureData getCreatureData() {
+        return this.creatureData;
+    }
+}
@@ -0,0 +1,66 @@
+package scrapscramble.game.cards;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index for finding the cards of a pool by their name or by their
+ * catalog id in constant time.
+ */
+class CardLookup {
+
+    /**
+     * Maps the name of a card to the card. When multiple cards share a name,
+     * upgrades take priority over tokens and tokens over spare parts.
+     */
+    private final Map<String, Card> byName;
+    /**
+     * The cards at the position of their catalog id. Cards without an id are
+     * not present.
+     */
+    private final Card[] byId;
+
+    /**
+     * Builds the index out of the cards of a pool. The names and ids of the cards
+     * must not change afterwards.
+     * @param upgrades All upgrades.
+     * @param tokens All tokens.
+     * @param spareParts All spare parts.
+     */
+    CardLookup(List<Upgrade> upgrades, List<Card> tokens, List<SparePart> spareParts) {
+        this.byName = new HashMap<>();
+        int maxId = -1;
+        for (List<? extends Card> cards : List.of(upgrades, tokens, spareParts)) {
+            for (Card c : cards) {
+                this.byName.putIfAbsent(c.getName(), c);
+                maxId = Integer.max(maxId, c.getCatalogId());
+            }
+        }
+        this.byId = new Card[maxId + 1];
+        for (List<? extends Card> cards : List.of(upgrades, tokens, spareParts)) {
+            for (Card c : cards) {
+                if (c.getCatalogId() >= 0) this.byId[c.getCatalogId()] = c;
+            }
+        }
+    }
+
+    /**
+     * Gets a card by its name.
+     * @param name The name of the card.
+     * @return The indexed card, not a copy, or null if there's no such card.
+     */
+    Card get(String name) {
+        return this.byName.get(name);
+    }
+
+    /**
+     * Gets a card by its catalog id.
+     * @param id The catalog id of the card.
+     * @return The indexed card, not a copy, or null if there's no such card.
+     */
+    Card get(int id) {
+        if (id < 0 || id >= this.byId.length) return null;
+        return this.byId[id];
+    }
+}
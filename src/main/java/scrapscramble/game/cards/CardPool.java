@@ -1,19 +1,15 @@
 package scrapscramble.game.cards;
 
-import org.apache.commons.lang3.RandomUtils;
 import org.apache.commons.lang3.exception.CloneFailedException;
 import org.jetbrains.annotations.Nullable;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
+import scrapscramble.game.GameRandom;
 import scrapscramble.game.cards.annotations.TokenFromClass;
 import scrapscramble.game.cards.annotations.TokenFromMethod;
 import scrapscramble.game.cards.annotations.UpgradeFromClass;
 import scrapscramble.game.cards.annotations.UpgradeFromMethod;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.function.Predicate;
 
 /**
@@ -27,7 +23,6 @@ public class CardPool implements Cloneable {
      * the players.
      */
     private List<Upgrade> upgrades;
-    // TODO Replace list with a Set for a better performance
 
     /**
      * A list of all token cards in the game. Those cards are not obtained through
@@ -41,6 +36,23 @@ public class CardPool implements Cloneable {
      */
     private List<SparePart> spareParts;
 
+    /**
+     * Index of the upgrades by rarity and cost. Built the first time it's needed.
+     */
+    private UpgradeIndex upgradeIndex;
+
+    /**
+     * Index of all cards by name and catalog id. Built the first time it's needed.
+     */
+    private CardLookup lookup;
+
+    /**
+     * Whether the lists of cards are shared with another pool or with the
+     * {@link CardCatalog}. Shared lists are never modified: the pool copies them
+     * the first time it adds, removes or replaces a card.
+     */
+    private boolean shared;
+
     /**
      * Default constructor. Creates a card pool that doesn't contain any cards.
      */
@@ -48,96 +60,82 @@ public class CardPool implements Cloneable {
         this.upgrades = new ArrayList<>();
         this.tokens = new ArrayList<>();
         this.spareParts = new ArrayList<>();
+        this.upgradeIndex = null;
+        this.lookup = null;
+        this.shared = false;
     }
 
     /**
-     * Collects all upgrades from the code that have been annotated with
-     * {@link UpgradeFromClass} or <insert for builder methods>.
-     * @param packageName The starting package from which to start searching.
-     *                    "scrapscramble" would make it search the whole project
-     *                    for classes. "scrapscramble.game.cards.implementations"
-     *                    would make it only search in this folder.
-     * @throws ClassCastException When one of the annotated classes does not
-     * extend {@link Upgrade}.
-     * @throws NoSuchMethodException When one of the annotated classes does
-     * not have a public empty constructor.
+     * Creates a card pool that uses the given lists directly instead of copying
+     * them. Used by {@link CardCatalog} to derive pools that share its prototypes.
+     * @param upgrades All upgrades.
+     * @param tokens All tokens.
+     * @param spareParts All spare parts.
+     * @param upgradeIndex An index of the given upgrades, or null to build it when needed.
+     * @param lookup An index of the given cards, or null to build it when needed.
      */
-    private void collectAllAnnotatedUpgrades(String packageName) throws ClassCastException, NoSuchMethodException,
-            InvocationTargetException, InstantiationException, IllegalAccessException {
-
-        Reflections reflections = new Reflections(packageName, Scanners.MethodsAnnotated, Scanners.TypesAnnotated);
-
-        //adds the annotated classes
-        var upgradeClasses = reflections.getTypesAnnotatedWith(UpgradeFromClass.class);
-        for (var clazz : upgradeClasses) {
-            Class<? extends Upgrade> castedClass = clazz.asSubclass(Upgrade.class);
-            //call the empty constructor
-            Upgrade u = castedClass.getConstructor().newInstance();
-            this.upgrades.add(u);
-        }
-
-        //adds the annotated methods
-        var upgradeMethods = reflections.getMethodsAnnotatedWith(UpgradeFromMethod.class);
-        for (var method : upgradeMethods) {
-            Object u = method.invoke(null);
-            if (!(u instanceof Upgrade)) throw new ClassCastException();
-            this.upgrades.add((Upgrade)u);
-        }
-    }
-
-    private void collectAllAnnotatedTokens(String packageName) throws
-            NoSuchMethodException, InvocationTargetException, IllegalAccessException, InstantiationException {
-
-        Reflections reflections = new Reflections(packageName, Scanners.MethodsAnnotated, Scanners.TypesAnnotated);
-        //adds the annotated classes
-        var tokenClasses = reflections.getTypesAnnotatedWith(TokenFromClass.class);
-        for (var clazz : tokenClasses) {
-            Class<? extends Card> castedClass = clazz.asSubclass(Card.class);
-            //call the empty constructor
-            Card c = castedClass.getConstructor().newInstance();
-            if (c instanceof SparePart sp) this.spareParts.add(sp);
-            else this.tokens.add(c);
-        }
-
-        //adds the annotated methods
-        var tokenMethods = reflections.getMethodsAnnotatedWith(TokenFromMethod.class);
-        for (var method : tokenMethods) {
-            Object c = method.invoke(null);
-            if (!(c instanceof Card)) throw new ClassCastException();
-            if (c instanceof SparePart sp) this.spareParts.add(sp);
-            else this.tokens.add((Card)c);
-        }
+    CardPool(List<Upgrade> upgrades, List<Card> tokens, List<SparePart> spareParts,
+             UpgradeIndex upgradeIndex, CardLookup lookup) {
+        this.upgrades = upgrades;
+        this.tokens = tokens;
+        this.spareParts = spareParts;
+        this.upgradeIndex = upgradeIndex;
+        this.lookup = lookup;
+        this.shared = true;
     }
 
     /**
      * Creates a new card pool entirely out of cards that have been "hardcoded" in
-     * the code.
+     * the code. The pool is derived from the process-wide {@link CardCatalog}, so
+     * the code is only scanned the first time this is called.
      * @return A card pool that contains all upgrades annotated with {@link UpgradeFromClass},
-     * {@link UpgradeFromMethod}, <link for tokens>
+     * {@link UpgradeFromMethod}, {@link TokenFromClass} and {@link TokenFromMethod}.
      * @throws UnableToCreateCardPoolException When a mistake happens when creating the pool,
      * usually from an incorrect annotation.
      */
     public static CardPool fromAnnotations() throws UnableToCreateCardPoolException{
-        CardPool pool = new CardPool();
-        try {
-            pool.collectAllAnnotatedUpgrades("scrapscramble.game.cards.implementations");
-            pool.collectAllAnnotatedTokens("scrapscramble.game.cards.implementations");
-        } catch (NoSuchMethodException | IllegalAccessException | InstantiationException | InvocationTargetException e) {
-            e.printStackTrace();
-            throw new UnableToCreateCardPoolException();
-        }
-        return pool;
+        return CardCatalog.getInstance().createPool();
+    }
+
+    /**
+     * Creates a new card pool derived from a catalog. This doesn't copy any cards.
+     * @param catalog The catalog to derive the pool from.
+     * @return A card pool that contains all cards of the catalog.
+     */
+    public static CardPool fromCatalog(CardCatalog catalog) {
+        return catalog.createPool();
     }
 
     /**
      * Gets a list containing all upgrades.
      * @return A list that contains all upgrades. Changes to this list are not
-     * reflected in the card pool, however changes to the cards are.
+     * reflected in the card pool. The cards may be shared with the {@link CardCatalog}
+     * and must not be modified.
      */
     public List<Upgrade> getUpgrades() {
         return new ArrayList<>(this.upgrades);
     }
 
+    /**
+     * Gets a list containing all tokens.
+     * @return A list that contains all tokens. Changes to this list are not
+     * reflected in the card pool. The cards may be shared with the {@link CardCatalog}
+     * and must not be modified.
+     */
+    public List<Card> getTokens() {
+        return new ArrayList<>(this.tokens);
+    }
+
+    /**
+     * Gets a list containing all spare parts.
+     * @return A list that contains all spare parts. Changes to this list are not
+     * reflected in the card pool. The cards may be shared with the {@link CardCatalog}
+     * and must not be modified.
+     */
+    public List<SparePart> getSpareParts() {
+        return new ArrayList<>(this.spareParts);
+    }
+
     /**
      * Gets how many Upgrades are in the card pool.
      * @return Amount of upgrades.
@@ -164,12 +162,13 @@ public class CardPool implements Cloneable {
 
     /**
      * Gets a random upgrade across all upgrades in the pool, excluding tokens.
+     * @param random The random number generator to use.
      * @return A deep copy of a random upgrade, or null if the card pool is empty.
      */
-    public @Nullable Upgrade randomUpgrade() {
+    public @Nullable Upgrade randomUpgrade(GameRandom random) {
         if (this.upgrades.size() == 0) return null;
         try {
-            return this.upgrades.get( RandomUtils.nextInt(0, this.upgrades.size()) ).clone();
+            return this.upgrades.get( random.nextInt(this.upgrades.size()) ).clone();
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException("A problem occurred when cloning the upgrade.");
         }
@@ -178,32 +177,65 @@ public class CardPool implements Cloneable {
     /**
      * Gets a random upgrade across all upgrades in the pool, excluding tokens,
      * that fulfils a condition.
+     * @param random The random number generator to use.
      * @param filter Condition the upgrade must match.
      * @return A deep copy of a random upgrade, or null if no such upgrades exist.
      */
-    public @Nullable Upgrade randomUpgrade(Predicate<Upgrade> filter) {
+    public @Nullable Upgrade randomUpgrade(GameRandom random, Predicate<Upgrade> filter) {
         List<Upgrade> cands = this.upgrades.stream().filter(filter).toList();
         if (cands.size() == 0) return null;
         try {
-            return cands.get( RandomUtils.nextInt(0, cands.size()) ).clone();
+            return cands.get( random.nextInt(cands.size()) ).clone();
+        } catch (CloneNotSupportedException e) {
+            e.printStackTrace();
+            throw new RuntimeException("A problem occurred when cloning the upgrade.");
+        }
+    }
+
+    /**
+     * Gets a random upgrade of the given rarity that costs at most the given amount.
+     * This uses an index of the pool instead of going through every upgrade, so it
+     * should be preferred over {@link CardPool#randomUpgrade(GameRandom, Predicate)} when possible.
+     * @param random The random number generator to use.
+     * @param rarity The rarity of the upgrade.
+     * @param maxCost The maximum cost of the upgrade, inclusive.
+     * @return A deep copy of a random upgrade, or null if no such upgrades exist.
+     */
+    public @Nullable Upgrade randomUpgrade(GameRandom random, Rarity rarity, int maxCost) {
+        UpgradeIndex index = this.getUpgradeIndex();
+        int count = index.count(rarity, maxCost);
+        if (count == 0) return null;
+        try {
+            return index.get(rarity, random.nextInt(count)).clone();
         } catch (CloneNotSupportedException e) {
             e.printStackTrace();
             throw new RuntimeException("A problem occurred when cloning the upgrade.");
         }
     }
 
+    /**
+     * Gets the index of the upgrades by rarity and cost, building it if it
+     * doesn't exist yet.
+     * @return The index of the upgrades.
+     */
+    private UpgradeIndex getUpgradeIndex() {
+        if (this.upgradeIndex == null) this.upgradeIndex = new UpgradeIndex(this.upgrades);
+        return this.upgradeIndex;
+    }
+
     /**
      * Gets a list of X random upgrades across all upgrades in the pool, excluding
      * tokens, that fulfil a condition. There can be duplicates across those
      * upgrades.
+     * @param random The random number generator to use.
      * @param amount How many upgrades to get.
      * @param filter Condition the upgrades must match.
      * @return A list of upgrades, or null if there are no upgrades that match the condition.
      */
-    public @Nullable List<Upgrade> randomUpgrades(int amount, Predicate<Upgrade> filter) {
+    public @Nullable List<Upgrade> randomUpgrades(GameRandom random, int amount, Predicate<Upgrade> filter) {
         List<Upgrade> ret = new ArrayList<>();
         for (int i = 0; i < amount; i++) {
-            Upgrade u = this.randomUpgrade(filter);
+            Upgrade u = this.randomUpgrade(random, filter);
             if (u == null) return null;
             ret.add(u);
         }
@@ -220,19 +252,176 @@ public class CardPool implements Cloneable {
      * pool.
      */
     public @Nullable Card get(String cardName) {
+        return copyOf(this.getLookup().get(cardName));
+    }
+
+    /**
+     * Gets a card from the card pool by its catalog id. Used when needed to
+     * get a fresh copy of a card.
+     * @param catalogId The id of the card in the {@link CardCatalog}.
+     * @return A copy of the card with that id, or null if no such card exists
+     * in the pool.
+     * @see Card#getCatalogId()
+     */
+    public @Nullable Card get(int catalogId) {
+        return copyOf(this.getLookup().get(catalogId));
+    }
+
+    /**
+     * Gets the index of the cards by name and catalog id, building it if it
+     * doesn't exist yet.
+     * @return The index of the cards.
+     */
+    private CardLookup getLookup() {
+        if (this.lookup == null) this.lookup = new CardLookup(this.upgrades, this.tokens, this.spareParts);
+        return this.lookup;
+    }
+
+    /**
+     * Creates a deep copy of a card.
+     * @param card The card to copy. Can be null.
+     * @return A copy of the card, or null if the card was null.
+     */
+    private static @Nullable Card copyOf(@Nullable Card card) {
+        if (card == null) return null;
         try {
-            Optional<Upgrade> u = this.upgrades.stream().filter(x -> x.name.equals(cardName)).findFirst();
-            if (u.isPresent()) return u.get().clone();
-            Optional<Card> t = this.tokens.stream().filter(x -> x.name.equals(cardName)).findFirst();
-            if (t.isPresent()) return t.get().clone();
-            Optional<SparePart> sp = this.spareParts    .stream().filter(x -> x.name.equals(cardName)).findFirst();
-            if (sp.isPresent()) return sp.get().clone();
-            return null;
+            return card.clone();
         } catch (CloneNotSupportedException e) {
             throw new CloneFailedException("Could not clone an upgrade.");
         }
     }
 
+    /**
+     * Creates a card pool that contains the same cards as this one without copying
+     * them. The two pools share their cards until either of them is modified through
+     * {@link CardPool#addCard(Card)}, {@link CardPool#removeCard(String)} or
+     * {@link CardPool#replaceCard(Card)}, at which point the modified pool starts
+     * keeping its own list of cards. The cards themselves are still never copied,
+     * since the pool only hands out copies of them.
+     * This should be preferred over {@link CardPool#clone()} to give each player
+     * their own pool.
+     * @return A card pool with the same cards.
+     */
+    public CardPool derive() {
+        this.shared = true;
+        return new CardPool(this.upgrades, this.tokens, this.spareParts, this.upgradeIndex, this.lookup);
+    }
+
+    /**
+     * Checks whether this pool still shares its cards with another pool, which is
+     * the case for pools derived from one another that neither has been modified.
+     * @param other The other pool.
+     * @return True if both pools contain the exact same cards.
+     * @see CardPool#derive()
+     */
+    public boolean sharesCardsWith(CardPool other) {
+        return this.upgrades == other.upgrades && this.tokens == other.tokens
+                && this.spareParts == other.spareParts;
+    }
+
+    /**
+     * Adds a card to the pool. Upgrades are added to the upgrades that appear in
+     * the shop, spare parts to the spare parts, and any other card to the tokens.
+     * @param card The card to add. The pool keeps this instance, so it must not be
+     * modified afterwards.
+     */
+    public void addCard(Card card) {
+        this.prepareForChange();
+        if (card instanceof Upgrade u) this.upgrades.add(u);
+        else if (card instanceof SparePart sp) this.spareParts.add(sp);
+        else this.tokens.add(card);
+    }
+
+    /**
+     * Adds a card to the tokens of the pool, even if it's an upgrade or a spare
+     * part. Tokens never appear in the shop.
+     * @param card The card to add. The pool keeps this instance, so it must not be
+     * modified afterwards.
+     */
+    public void addToken(Card card) {
+        this.prepareForChange();
+        this.tokens.add(card);
+    }
+
+    /**
+     * Removes a card from the pool by name. Like {@link CardPool#get(String)}, this
+     * will search for an upgrade of the same name first, then for tokens and spare parts.
+     * Only the first matching card is removed.
+     * @param cardName The name of the card to remove.
+     * @return True if a card was removed, false if no such card exists in the pool.
+     */
+    public boolean removeCard(String cardName) {
+        Card card = this.getLookup().get(cardName);
+        if (card == null) return false;
+        this.prepareForChange();
+        for (List<? extends Card> cards : List.of(this.upgrades, this.tokens, this.spareParts)) {
+            for (int i = 0; i < cards.size(); i++) {
+                if (cards.get(i) == card) {
+                    cards.remove(i);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the card of the same name with another version of it, for example
+     * to buff an upgrade for the rest of the game. Like {@link CardPool#get(String)},
+     * this will search for an upgrade of the same name first, then for tokens and
+     * spare parts. The replaced card must be of the same kind as the new one.
+     * @param card The new version of the card. The pool keeps this instance, so it
+     * must not be modified afterwards.
+     * @return True if a card was replaced, false if no card of the same name and
+     * kind exists in the pool.
+     */
+    public boolean replaceCard(Card card) {
+        Card old = this.getLookup().get(card.getName());
+        if (old == null) return false;
+        if (old instanceof Upgrade && card instanceof Upgrade u) {
+            this.prepareForChange();
+            this.upgrades.set(this.indexOf(this.upgrades, old), u);
+        } else if (old instanceof SparePart && card instanceof SparePart sp) {
+            this.prepareForChange();
+            this.spareParts.set(this.indexOf(this.spareParts, old), sp);
+        } else if (!(old instanceof Upgrade) && !(old instanceof SparePart)
+                && !(card instanceof Upgrade) && !(card instanceof SparePart)) {
+            this.prepareForChange();
+            this.tokens.set(this.indexOf(this.tokens, old), card);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the position of a card in a list by identity.
+     * @param cards The list to search.
+     * @param card The card to look for.
+     * @return The position of the card, or -1 if it isn't in the list.
+     */
+    private int indexOf(List<? extends Card> cards, Card card) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (cards.get(i) == card) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Makes sure the lists of cards can be modified, copying them if they are
+     * shared, and throws away the indexes since they are about to become outdated.
+     */
+    private void prepareForChange() {
+        if (this.shared) {
+            this.upgrades = new ArrayList<>(this.upgrades);
+            this.tokens = new ArrayList<>(this.tokens);
+            this.spareParts = new ArrayList<>(this.spareParts);
+            this.shared = false;
+        }
+        this.upgradeIndex = null;
+        this.lookup = null;
+    }
+
     @Override
     public CardPool clone() throws CloneNotSupportedException {
         CardPool copy = new CardPool();
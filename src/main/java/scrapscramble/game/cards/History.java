@@ -9,6 +9,10 @@ public class History<T extends Card> {
      * Contains all cards in this history separated into layers.
      */
     private List<List<T>> cardLayers;
+    /**
+     * Goes up every time a card or a layer is added.
+     */
+    private long version;
 
     /**
      * Initialises a new history object with a single empty layer.
@@ -34,6 +38,7 @@ public class History<T extends Card> {
     public void addCard(T card) throws IllegalArgumentException {
         if (card == null) throw new IllegalArgumentException();
         this.cardLayers.get(layersCount()-1).add(card);
+        this.version++;
     }
 
     /**
@@ -45,6 +50,27 @@ public class History<T extends Card> {
      */
     public void createLayer() {
         this.cardLayers.add(new ArrayList<>());
+        this.version++;
+    }
+
+    /**
+     * Gets the version of the history. It goes up every time a card or a layer
+     * is added.
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets all layers of the history, from the oldest to the latest.
+     * @return A list containing a list of the cards of each layer. Changing the
+     * lists does not change the history.
+     */
+    public List<List<T>> getLayers() {
+        List<List<T>> ret = new ArrayList<>();
+        for (var layer : this.cardLayers) ret.add(new ArrayList<>(layer));
+        return ret;
     }
 
     /**
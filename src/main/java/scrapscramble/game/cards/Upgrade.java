@@ -1,5 +1,6 @@
 package scrapscramble.game.cards;
 
+import org.apache.commons.lang3.exception.CloneFailedException;
 import scrapscramble.game.CreatureData;
 import scrapscramble.game.Game;
 import scrapscramble.game.cards.effects.Effect;
@@ -15,7 +16,8 @@ import scrapscramble.game.player.Player;
 public class Upgrade extends Card {
 
     /**
-     * Creature data of the Upgrade.
+     * Creature data of the Upgrade. Copies of catalog upgrades share it with their
+     * {@link CardDefinition} until it's accessed through {@link Upgrade#getCreatureData()}.
      */
     private CreatureData creatureData;
 
@@ -50,7 +52,7 @@ public class Upgrade extends Card {
      * @param newAttack New attack.
      */
     public void setAttack(int newAttack) {
-        this.creatureData.setAttack(newAttack);
+        this.getCreatureData().setAttack(newAttack);
     }
 
     /**
@@ -66,17 +68,86 @@ public class Upgrade extends Card {
      * @param newHealth New health.
      */
     public void setHealth(int newHealth) {
-        this.creatureData.setHealth(newHealth);
+        this.getCreatureData().setHealth(newHealth);
     }
 
     /**
-     * Gets the creature data of the upgrade.
+     * Gets the value a keyword has for the upgrade. Unlike going through
+     * {@link Upgrade#getCreatureData()}, this never copies the creature data.
+     * @param keyword The keyword to get.
+     * @return The value of the keyword.
+     */
+    public int getStatusKeyword(StatusKeyword keyword) {
+        return this.creatureData.getStatusKeyword(keyword);
+    }
+
+    /**
+     * Gets the creature data of the upgrade. Changes to it are reflected in the
+     * upgrade. Copies of catalog upgrades share their creature data until this is
+     * called for the first time, at which point it's copied. For the prototypes of
+     * the catalog, a new copy is returned every time instead. Prefer
+     * {@link Upgrade#getStatusKeyword(StatusKeyword)}, {@link Upgrade#getAttack()}
+     * and {@link Upgrade#getHealth()} when only reading.
      * @return The creature data of the upgrade.
      */
     public CreatureData getCreatureData() {
+        if (this.sharesCreatureData()) {
+            CreatureData copy;
+            try {
+                copy = this.creatureData.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new CloneFailedException("Could not clone the creature data of " + this.name);
+            }
+            if (this.isPrototype) return copy;
+            this.creatureData = copy;
+        }
         return this.creatureData;
     }
 
+    /**
+     * @inheritDoc
+     * Changes to the stats and keywords of the upgrade are counted too.
+     */
+    @Override
+    public long getVersion() {
+        return super.getVersion() + this.creatureData.getVersion();
+    }
+
+    /**
+     * Adds the stats and keywords of the upgrade to another creature, without
+     * copying the creature data of the upgrade.
+     * @param target The creature data that gains the stats.
+     */
+    public void addStatsTo(CreatureData target) {
+        target.addStats(this.creatureData);
+    }
+
+    /**
+     * Checks whether the upgrade still uses the creature data of its definition.
+     * @return True if the creature data is shared with the definition.
+     */
+    private boolean sharesCreatureData() {
+        return this.definition != null && this.creatureData == this.definition.getCreatureData();
+    }
+
+    @Override
+    void makePrototype() {
+        super.makePrototype();
+        this.creatureData = this.definition.getCreatureData();
+    }
+
+    @Override
+    CardDefinition createDefinition() {
+        CreatureData data;
+        try {
+            data = this.creatureData.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new CloneFailedException("Could not clone the creature data of " + this.name);
+        }
+        return new CardDefinition(this.catalogId, this.name, this.cardText, this.rarity, this.cost,
+                this.effects, data);
+    }
+
     /**
      * Instantiates a new upgrade builder.
      * @return A new upgrade builder.
@@ -88,7 +159,8 @@ public class Upgrade extends Card {
     @Override
     public Upgrade clone() throws CloneNotSupportedException {
         Upgrade copy = (Upgrade)super.clone();
-        copy.creatureData = copy.creatureData.clone();
+        // creature data shared with the definition is only copied when it's accessed
+        if (!this.sharesCreatureData()) copy.creatureData = copy.creatureData.clone();
         return copy;
     }
 
@@ -195,9 +267,9 @@ public class Upgrade extends Card {
 
         /**
          * Adds an effect to the upgrade. The upgrade is constructed using an anonymous function
-         * that does what the effect does when called. The effect doesn't remember any state. If
-         * an effect remembering state is necessary, it is best to create an effect that directly
-         * inherits from {@link Effect}.
+         * that does what the effect does when called. The effect doesn't remember any state, so
+         * it is shared instead of cloned, see {@link Effect#isStateless()}. If an effect remembering
+         * state is necessary, it is best to create an effect that directly inherits from {@link Effect}.
          * @param trigger The trigger that causes the effect to activate.
          * @param effect The effect that activates when called. Should be a lambda expression.
          *               Otherwise, the instance passed shouldn't be utilised.
@@ -211,6 +283,11 @@ public class Upgrade extends Card {
                 public void activate(EffectContext ctx) {
                     effect.activate(ctx);
                 }
+
+                @Override
+                public boolean isStateless() {
+                    return true;
+                }
             });
             return this;
         }
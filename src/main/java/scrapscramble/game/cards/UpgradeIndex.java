@@ -0,0 +1,79 @@
+package scrapscramble.game.cards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of upgrades grouped by rarity and sorted by cost. Finding all
+ * upgrades of a rarity up to a cost is a binary search, which makes drawing a
+ * random one for the shop independent of the size of the pool.
+ */
+class UpgradeIndex {
+
+    /**
+     * The upgrades of each rarity sorted by cost. Upgrades of the same cost keep
+     * the order they had in the pool.
+     */
+    private final Map<Rarity, Upgrade[]> upgrades;
+    /**
+     * The costs of the upgrades in {@link UpgradeIndex#upgrades}, at the same positions.
+     */
+    private final Map<Rarity, int[]> costs;
+
+    /**
+     * Builds the index out of a list of upgrades. The costs of the upgrades must
+     * not change afterwards.
+     * @param upgrades The upgrades to index.
+     */
+    UpgradeIndex(List<Upgrade> upgrades) {
+        this.upgrades = new EnumMap<>(Rarity.class);
+        this.costs = new EnumMap<>(Rarity.class);
+
+        Map<Rarity, List<Upgrade>> grouped = new EnumMap<>(Rarity.class);
+        for (Upgrade u : upgrades) {
+            grouped.computeIfAbsent(u.getRarity(), x -> new ArrayList<>()).add(u);
+        }
+        for (var entry : grouped.entrySet()) {
+            Upgrade[] sorted = entry.getValue().toArray(new Upgrade[0]);
+            Arrays.sort(sorted, Comparator.comparingInt(Upgrade::getCost));
+            int[] sortedCosts = new int[sorted.length];
+            for (int i = 0; i < sorted.length; i++) sortedCosts[i] = sorted[i].getCost();
+            this.upgrades.put(entry.getKey(), sorted);
+            this.costs.put(entry.getKey(), sortedCosts);
+        }
+    }
+
+    /**
+     * Counts how many upgrades of a rarity cost at most the given amount.
+     * @param rarity The rarity of the upgrades.
+     * @param maxCost The maximum cost, inclusive.
+     * @return The amount of matching upgrades. They are the first ones in the
+     * order of {@link UpgradeIndex#get(Rarity, int)}.
+     */
+    int count(Rarity rarity, int maxCost) {
+        int[] sortedCosts = this.costs.get(rarity);
+        if (sortedCosts == null) return 0;
+        // find the first position with a cost above the maximum
+        int low = 0, high = sortedCosts.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedCosts[mid] <= maxCost) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Gets the upgrade of a rarity at a given position in cost order.
+     * @param rarity The rarity of the upgrade.
+     * @param position The position, which must be lower than the count for the rarity.
+     * @return The upgrade. This is the indexed instance, not a copy.
+     */
+    Upgrade get(Rarity rarity, int position) {
+        return this.upgrades.get(rarity)[position];
+    }
+}
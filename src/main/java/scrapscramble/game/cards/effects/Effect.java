@@ -3,14 +3,14 @@ package scrapscramble.game.cards.effects;
 import org.springframework.scheduling.Trigger;
 import scrapscramble.game.cards.effects.context.EffectContext;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.Set;
 
 public abstract class Effect implements Cloneable, EffectActivateable {
     /**
      * What triggers the effect to activate.
      */
-    private List<EffectTrigger> triggers;
+    private EnumSet<EffectTrigger> triggers;
     /**
      * Whether the effect is expired. If it is it shouldn't be activated again
      * under normal circumstances.
@@ -31,7 +31,7 @@ public abstract class Effect implements Cloneable, EffectActivateable {
      * Default constructor. Creates an effect with no triggers or card text.
      */
     public Effect() {
-       this.triggers = new ArrayList<>();
+       this.triggers = EnumSet.noneOf(EffectTrigger.class);
        this.isExpired = false;
        this.effectText = "";
        this.displayScope = DisplayScope.Hidden;
@@ -61,11 +61,12 @@ public abstract class Effect implements Cloneable, EffectActivateable {
     }
 
     /**
-     * Gets a list containing all triggers for the effect. Changes to this list are
-     * reflected in the actual effect.
+     * Gets a set containing all triggers for the effect. Changes to this set are
+     * reflected in the actual effect, but they must not be made once the effect
+     * has been added to an {@link EffectRegistry}.
      * @return The triggers of the effect.
      */
-    public List<EffectTrigger> getTriggers() {
+    public Set<EffectTrigger> getTriggers() {
         return this.triggers;
     }
 
@@ -86,10 +87,21 @@ public abstract class Effect implements Cloneable, EffectActivateable {
         return this.displayScope;
     }
 
+    /**
+     * Whether the effect keeps no state of its own, meaning it never changes after
+     * it's created and only acts through the context it's activated with. Stateless
+     * effects are shared by reference between copies of a card and the players that
+     * attach it instead of being cloned. Effects are stateful unless they override this.
+     * @return True if the effect can be shared, false if it has to be cloned.
+     */
+    public boolean isStateless() {
+        return false;
+    }
+
     @Override
     public Effect clone() throws CloneNotSupportedException {
         Effect clone = (Effect) super.clone();
-        clone.triggers = new ArrayList<>(this.triggers);
+        clone.triggers = EnumSet.copyOf(this.triggers);
         return clone;
     }
 }
@@ -2,6 +2,7 @@ package scrapscramble.game.cards.effects;
 
 import scrapscramble.game.cards.effects.context.EffectContext;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -11,8 +12,8 @@ public class EffectCaller {
 
     /**
      * Activates all matching effects without removing them after call.
-     * @param effects A list of effects which to check. This is usually a player
-     *                or a card's list of effects.
+     * @param effects A list of effects which to check. This is usually a card's
+     *                list of effects.
      * @param ctx The context of the effect, containing the trigger and other
      *            useful information.
      * @see EffectCaller#activate(List, EffectContext, boolean)
@@ -23,19 +24,52 @@ public class EffectCaller {
 
     /**
      * Calls all effects that contain a specific trigger.
-     * @param effects A list of effects which to check. This is usually a player
-     *                or a card's list of effects.
+     * @param effects A list of effects which to check. This is usually a card's
+     *                list of effects.
      * @param ctx The context of the effect, containing the trigger and other
      *            useful information.
      * @param removeAfter Whether to always remove the effects after they've been
      *                    triggered. Usually false.
      */
     public void activate(List<Effect> effects, EffectContext ctx, boolean removeAfter) {
-        List<Effect> toBeCast = effects.stream().filter(x -> x.getTriggers().contains(ctx.getTrigger())).toList();
-        if (removeAfter) effects.removeIf(x -> x.getTriggers().contains(ctx.getTrigger()));
+        List<Effect> toBeCast = new ArrayList<>();
+        for (Effect eff : effects) {
+            if (eff.getTriggers().contains(ctx.getTrigger())) toBeCast.add(eff);
+        }
+        if (toBeCast.isEmpty()) return;
+        if (removeAfter) effects.removeAll(toBeCast);
         toBeCast.forEach(x -> x.activate(ctx));
-        if (!removeAfter) {
+        if (!removeAfter && toBeCast.stream().anyMatch(x -> x.isExpired)) {
             effects.removeIf(x -> x.isExpired);
         }
     }
+
+    /**
+     * Activates all matching effects of a registry without removing them after call.
+     * @param effects The registry of effects. This is usually a player's effects.
+     * @param ctx The context of the effect, containing the trigger and other
+     *            useful information.
+     * @see EffectCaller#activate(EffectRegistry, EffectContext, boolean)
+     */
+    public void activate(EffectRegistry effects, EffectContext ctx) {
+        this.activate(effects, ctx, false);
+    }
+
+    /**
+     * Calls all effects of a registry that contain a specific trigger. Only the
+     * effects with the trigger are gone through.
+     * @param effects The registry of effects. This is usually a player's effects.
+     * @param ctx The context of the effect, containing the trigger and other
+     *            useful information.
+     * @param removeAfter Whether to always remove the effects after they've been
+     *                    triggered. Usually false.
+     */
+    public void activate(EffectRegistry effects, EffectContext ctx, boolean removeAfter) {
+        Effect[] toBeCast = effects.get(ctx.getTrigger());
+        if (removeAfter) effects.removeAll(ctx.getTrigger());
+        for (Effect eff : toBeCast) {
+            // an earlier effect may have expired this one
+            if (!eff.isExpired) eff.activate(ctx);
+        }
+    }
 }
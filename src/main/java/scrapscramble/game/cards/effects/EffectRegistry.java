@@ -0,0 +1,160 @@
+package scrapscramble.game.cards.effects;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the effects of a player, grouped by their triggers. Finding the effects
+ * for a trigger only goes through the effects that have it, so activating them
+ * doesn't depend on how many effects the player has in total.
+ * Expired effects are not removed right away: they are skipped when activating
+ * effects and dropped the next time the group they're in is gone through.
+ */
+public class EffectRegistry implements Iterable<Effect> {
+
+    /**
+     * All effects in the order they were added.
+     */
+    private final List<Effect> effects;
+    /**
+     * The effects that have each trigger, in the order they were added.
+     */
+    private final Map<EffectTrigger, List<Effect>> byTrigger;
+    /**
+     * Goes up every time effects are added or removed. Effects that expire on
+     * their own don't change it.
+     */
+    private long version;
+
+    /**
+     * Creates an empty registry.
+     */
+    public EffectRegistry() {
+        this.effects = new ArrayList<>();
+        this.byTrigger = new EnumMap<>(EffectTrigger.class);
+    }
+
+    /**
+     * Creates a registry that contains the given effects.
+     * @param effects The effects to add, in order.
+     */
+    public EffectRegistry(Iterable<Effect> effects) {
+        this();
+        effects.forEach(this::add);
+    }
+
+    /**
+     * Adds an effect to the registry. The triggers of the effect must not change
+     * after this.
+     * @param effect The effect to add.
+     */
+    public void add(Effect effect) {
+        this.effects.add(effect);
+        for (EffectTrigger trigger : effect.getTriggers()) {
+            this.byTrigger.computeIfAbsent(trigger, x -> new ArrayList<>()).add(effect);
+        }
+        this.version++;
+    }
+
+    /**
+     * Gets the effects that have a trigger and are not expired. The returned array
+     * doesn't change if the registry does, so effects can safely add effects to the
+     * registry while it's being gone through.
+     * @param trigger The trigger of the effects.
+     * @return The matching effects, in the order they were added.
+     */
+    public Effect[] get(EffectTrigger trigger) {
+        List<Effect> bucket = this.byTrigger.get(trigger);
+        if (bucket == null) return new Effect[0];
+        bucket.removeIf(x -> x.isExpired);
+        return bucket.toArray(new Effect[0]);
+    }
+
+    /**
+     * Checks whether the registry has any effect with a trigger that is not expired.
+     * @param trigger The trigger of the effects.
+     * @return True if there is at least one such effect.
+     */
+    public boolean has(EffectTrigger trigger) {
+        List<Effect> bucket = this.byTrigger.get(trigger);
+        if (bucket == null) return false;
+        for (Effect eff : bucket) {
+            if (!eff.isExpired) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all effects that have a trigger.
+     * @param trigger The trigger of the effects to remove.
+     */
+    public void removeAll(EffectTrigger trigger) {
+        List<Effect> bucket = this.byTrigger.remove(trigger);
+        if (bucket == null || bucket.isEmpty()) return;
+        this.version++;
+        // an effect can be in multiple groups, so this goes through all of them
+        this.effects.removeIf(bucket::contains);
+        for (List<Effect> other : this.byTrigger.values()) {
+            other.removeIf(bucket::contains);
+        }
+    }
+
+    /**
+     * Removes all effects from the registry.
+     */
+    public void clear() {
+        this.effects.clear();
+        this.byTrigger.clear();
+        this.version++;
+    }
+
+    /**
+     * Gets the version of the registry. It goes up every time effects are added
+     * or removed, but not when they expire, which {@link EffectRegistry#size()}
+     * shows instead.
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets how many effects that are not expired are in the registry.
+     * @return The amount of effects.
+     */
+    public int size() {
+        this.purgeExpired();
+        return this.effects.size();
+    }
+
+    /**
+     * Checks whether the registry has no effects that are not expired.
+     * @return True if there are no such effects.
+     */
+    public boolean isEmpty() {
+        return this.size() == 0;
+    }
+
+    /**
+     * Goes through all effects that are not expired, in the order they were added.
+     * The registry must not be changed while doing so.
+     * @return An iterator over the effects that doesn't support removing them.
+     */
+    @Override
+    public Iterator<Effect> iterator() {
+        this.purgeExpired();
+        return Collections.unmodifiableList(this.effects).iterator();
+    }
+
+    /**
+     * Removes the expired effects from the list of all effects. The groups by
+     * trigger are cleaned up when they're gone through instead.
+     */
+    private void purgeExpired() {
+        this.effects.removeIf(x -> x.isExpired);
+    }
+}
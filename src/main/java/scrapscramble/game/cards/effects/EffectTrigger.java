@@ -36,4 +36,14 @@ public enum EffectTrigger {
     StartOfCombat,
     WhenPlayer,
     AfterYouCastASpell,
+    /**
+     * Activated during combat every time the player has attacked. Fights with such
+     * effects are simulated one attack at a time.
+     */
+    AfterThisAttacks,
+    /**
+     * Activated during combat every time the opponent of the player has attacked.
+     * Fights with such effects are simulated one attack at a time.
+     */
+    AfterTheEnemyAttacks,
 }
@@ -1,6 +1,7 @@
 package scrapscramble.game.cards.effects.context;
 
 import scrapscramble.game.Game;
+import scrapscramble.game.GameRandom;
 import scrapscramble.game.cards.Card;
 import scrapscramble.game.cards.effects.EffectTrigger;
 import scrapscramble.game.player.Player;
@@ -30,6 +31,12 @@ public class EffectContext {
      */
     private final Card origin;
 
+    /**
+     * The random number generator effects should use, or null to use the one of
+     * the game.
+     */
+    private final GameRandom random;
+
     private EffectContext() {
         this(EffectTrigger.None, null, null, null);
     }
@@ -43,10 +50,26 @@ public class EffectContext {
      *               no such card.
      */
     public EffectContext(EffectTrigger trigger, Game game, Player player, @Nullable Card origin) {
+        this(trigger, game, player, origin, null);
+    }
+
+    /**
+     * Creates a new effect context whose effects use their own random number
+     * generator instead of the one of the game. Used when the effects may run
+     * on a different thread than the rest of the game, such as during fights.
+     * @param trigger The type of effect.
+     * @param game The game this is a part of.
+     * @param player The player who activated the effect.
+     * @param origin The card from where the effect originates. Can be null if there is
+     *               no such card.
+     * @param random The generator to use, or null to use the one of the game.
+     */
+    public EffectContext(EffectTrigger trigger, Game game, Player player, @Nullable Card origin, @Nullable GameRandom random) {
         this.trigger = trigger;
         this.game = game;
         this.player = player;
         this.origin = origin;
+        this.random = random;
     }
 
     /**
@@ -80,4 +103,13 @@ public class EffectContext {
     public @Nullable Card getOrigin() {
         return origin;
     }
+
+    /**
+     * Gets the random number generator effects should use for anything random,
+     * so that games can be replayed from their seed.
+     * @return The generator.
+     */
+    public GameRandom getRandom() {
+        return random != null ? random : game.getRandom();
+    }
 }
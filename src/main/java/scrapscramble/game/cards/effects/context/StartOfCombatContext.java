@@ -3,6 +3,7 @@ package scrapscramble.game.cards.effects.context;
 import org.jetbrains.annotations.Nullable;
 import scrapscramble.game.FightOutput;
 import scrapscramble.game.Game;
+import scrapscramble.game.GameRandom;
 import scrapscramble.game.cards.Card;
 import scrapscramble.game.cards.effects.EffectTrigger;
 import scrapscramble.game.player.Player;
@@ -19,9 +20,10 @@ public class StartOfCombatContext extends EffectContext {
      * @param game    The game this is a part of.
      * @param player  The player who activated the effect.
      * @param fightOutput The fight output where to write feedback for the fight.
+     * @param random The random number generator of the fight.
      */
-    public StartOfCombatContext(Game game, Player player, FightOutput fightOutput) {
-        super(EffectTrigger.StartOfCombat, game, player, null);
+    public StartOfCombatContext(Game game, Player player, FightOutput fightOutput, GameRandom random) {
+        super(EffectTrigger.StartOfCombat, game, player, null, random);
         this.fightOutput = fightOutput;
     }
 
@@ -110,7 +110,7 @@ public class EdgeOfScienceSet {
                 .withCardText("Aftermath: Replace your shop with 6 Common Upgrades.")
                 .hasEffect(EffectTrigger.AftermathPlayer, ctx -> {
                     var cards = ctx.getPlayer().getCardPool()
-                            .randomUpgrades(6, x -> x.getRarity() == Rarity.Common);
+                            .randomUpgrades(ctx.getRandom(), 6, x -> x.getRarity() == Rarity.Common);
                     if (cards == null) return;
                     ctx.getPlayer().getShop().clear();;
                     ctx.getPlayer().getShop().addCards(cards);
@@ -141,8 +141,8 @@ public class EdgeOfScienceSet {
                 .withCardText("Battlecry: If you're Overloaded, add 3 random Upgrades that Overload to your hand.")
                 .hasEffect(EffectTrigger.Battlecry, ctx -> {
                     if (!ctx.getPlayer().isOverloaded()) return;
-                    var upgrades = ctx.getPlayer().getCardPool().randomUpgrades(3,
-                            x -> x.getCreatureData().getStatusKeyword(StatusKeyword.Overload) > 0);
+                    var upgrades = ctx.getPlayer().getCardPool().randomUpgrades(ctx.getRandom(), 3,
+                            x -> x.getStatusKeyword(StatusKeyword.Overload) > 0);
                     if (upgrades == null) return;
                     upgrades.forEach(u -> ctx.getPlayer().getHand().addCard(u));
                 }).build();
@@ -173,7 +173,7 @@ public class EdgeOfScienceSet {
                     for (int i = 0; i < shop.size(); i++) {
                         if (shop.get(i) == null) continue;
                         if (shop.get(i).getRarity() == Rarity.Common) {
-                            Upgrade leg = ctx.getPlayer().getCardPool().randomUpgrade(x -> x.getRarity() == Rarity.Legendary);
+                            Upgrade leg = ctx.getPlayer().getCardPool().randomUpgrade(ctx.getRandom(), x -> x.getRarity() == Rarity.Legendary);
                             if (leg == null) return;
                             ctx.getPlayer().getShop().setCard(i, leg);
                         }
@@ -203,7 +203,7 @@ public class EdgeOfScienceSet {
                 .withCardText("Battlecry: For each Overload Upgrade applied to your Mech this game, increase your Maximum Mana by 1.")
                 .hasEffect(EffectTrigger.Battlecry, ctx -> {
                     int count = ctx.getPlayer().getAttachedUpgrades().countFromEverything(
-                            x -> x.getCreatureData().getStatusKeyword(StatusKeyword.Overload) > 0);
+                            x -> x.getStatusKeyword(StatusKeyword.Overload) > 0);
                     ctx.getPlayer().setMaximumManaCap(ctx.getPlayer().getMaximumManaCap() + count);
                     ctx.getPlayer().setMaximumMana(ctx.getPlayer().getMaximumMana() + count);
                 }).build();
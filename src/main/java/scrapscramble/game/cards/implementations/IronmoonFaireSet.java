@@ -92,7 +92,7 @@ public class IronmoonFaireSet {
                 .withCardText("Aftermath: Reduce the cost of a random Upgrade in your shop by (4).")
                 .withRarity(Rarity.Epic)
                 .hasEffect(EffectTrigger.AftermathPlayer, ctx -> {
-                    Upgrade u = ctx.getPlayer().getShop().geRandomCard();
+                    Upgrade u = ctx.getPlayer().getShop().geRandomCard(ctx.getRandom());
                     if (u == null) return;
                     u.setCost(u.getCost() - 4);
                     ctx.getPlayer().addAftermathMessage(
@@ -46,6 +46,7 @@ public class Hand extends CardContainer<Card> {
             player.castSpell(game, s);
         }
         player.getPlayHistory().addCard(card);
+        if (game.getRecorder() != null) game.getRecorder().onPlay(game, player, index);
         return CardUseFeedback.Successful;
     }
 }
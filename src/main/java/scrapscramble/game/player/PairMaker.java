@@ -1,8 +1,7 @@
 package scrapscramble.game.player;
 
-import org.apache.commons.lang3.RandomUtils;
+import scrapscramble.game.GameRandom;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,13 +21,19 @@ public class PairMaker {
      * The mapping of each player to their current opponent.
      */
     private Map<Player, Player> opponents;
+    /**
+     * The random number generator used for shuffling the players.
+     */
+    private final GameRandom random;
 
     /**
      * Creates a new pair maker out of a list of players.
      * @param players
+     * @param random The random number generator used for shuffling the players.
      */
-    public PairMaker(List<Player> players) {
+    public PairMaker(List<Player> players, GameRandom random) {
         this.players = players;
+        this.random = random;
         this.opponents = new HashMap<>();
         this.players.forEach(x -> this.opponents.put(x, x));
     }
@@ -45,6 +50,16 @@ public class PairMaker {
         return null;
     }
 
+    /**
+     * Replaces the current pairings, for example when restoring a game. The
+     * pairings of the next round are still generated from the players' list.
+     * @param opponents Maps every player to their opponent, or to themselves if
+     *                  they have a bye.
+     */
+    public void setOpponents(Map<Player, Player> opponents) {
+        this.opponents = new HashMap<>(opponents);
+    }
+
     /**
      * Generates the pairings for the next round.
      *
@@ -63,7 +78,7 @@ public class PairMaker {
         } else {
              Player bye = this.currentBye();
              for (int attempt = 1; attempt <= RETRY_THRESHOLD; attempt++) {
-                 Collections.shuffle(this.players);
+                 this.random.shuffle(this.players);
                  // only matters for odd amount of players. the first player in the shuffled list gets a bye
                  if (bye == this.players.get(0)) continue;
                  boolean success = true;
@@ -1,13 +1,14 @@
 package scrapscramble.game.player;
 
-import org.apache.commons.lang3.exception.CloneFailedException;
 import org.jetbrains.annotations.NotNull;
+import scrapscramble.game.AttackEvent;
 import scrapscramble.game.CreatureData;
 import scrapscramble.game.FightOutput;
 import scrapscramble.game.Game;
 import scrapscramble.game.cards.*;
 import scrapscramble.game.cards.effects.Effect;
 import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.cards.effects.EffectRegistry;
 import scrapscramble.game.cards.effects.EffectTrigger;
 import scrapscramble.game.cards.effects.context.EffectContext;
 
@@ -64,7 +65,7 @@ public class Player {
     /**
      * The effects the player has. They are cleared at the start of the round.
      */
-    private List<Effect> effects;
+    private EffectRegistry effects;
     /**
      * Effects that are given to the player at the start of next round.
      */
@@ -79,7 +80,8 @@ public class Player {
     /**
      * The card pool of the player. All players start with the same pool but can
      * manipulate it through effects that remove upgrades or buff upgrades for
-     * the rest of the game.
+     * the rest of the game. The pool is derived from the game's pool and only
+     * keeps its own cards once it is modified.
      */
     private CardPool cardPool;
 
@@ -92,6 +94,12 @@ public class Player {
      * The name of the player.
      */
     private String name;
+    /**
+     * Goes up every time the mana, lives, name, aftermath messages or effects of
+     * the player are changed through the player. Changes to the stats, cards and
+     * histories are tracked by their own versions.
+     */
+    private long version;
 
     /**
      * Default constructor for the player class. Uses default values that are common
@@ -111,7 +119,7 @@ public class Player {
         this.buyHistory = new History<>();
         this.playHistory = new History<>();
 
-        this.effects = new ArrayList<>();
+        this.effects = new EffectRegistry();
         this.nextRoundEffects = new ArrayList<>();
 
         this.aftermathMessages = new ArrayList<>();
@@ -130,11 +138,7 @@ public class Player {
     public Player(Game game, String name) {
         this();
         this.name = name;
-        try {
-            this.cardPool = game.getCardPool().clone();
-        } catch (CloneNotSupportedException e) {
-            throw new CloneFailedException("Could not clone the card pool of the game object.");
-        }
+        this.cardPool = game.getCardPool().derive();
 
         this.maxMana = game.getSettings().getStartingMana();
         this.curMana = this.maxMana;
@@ -174,6 +178,14 @@ public class Player {
         return this.cardPool;
     }
 
+    /**
+     * Replaces the card pool of the player.
+     * @param cardPool The new card pool.
+     */
+    public void setCardPool(CardPool cardPool) {
+        this.cardPool = cardPool;
+    }
+
     /**
      * Gets the current mana the player has.
      * @return Current mana.
@@ -217,6 +229,7 @@ public class Player {
     public void setCurrentMana(int mana) {
         if (mana < 0) mana = 0;
         this.curMana = mana;
+        this.version++;
     }
 
     /**
@@ -230,6 +243,7 @@ public class Player {
     public void setMaximumMana(int maxMana) {
         if (maxMana < 0) maxMana = 0;
         this.maxMana = maxMana;
+        this.version++;
     }
 
     /**
@@ -243,6 +257,7 @@ public class Player {
     public void setMaximumManaCap(int manaCap) {
         if (manaCap < 0) manaCap = 0;
         this.manaCap = manaCap;
+        this.version++;
     }
 
     /**
@@ -251,6 +266,7 @@ public class Player {
      */
     public void setOverloadedMana(int overloadedMana) {
         this.overloadedMana = overloadedMana;
+        this.version++;
     }
 
     /**
@@ -271,11 +287,22 @@ public class Player {
         return this.getOverloadedMana() > 0 || this.getCreatureData().getStatusKeyword(StatusKeyword.Overload) > 0;
     }
 
+    /**
+     * Gets the version of the player. It goes up every time the mana, lives, name,
+     * aftermath messages or effects of the player are changed through the player.
+     * Together with the versions of the creature data, containers and histories
+     * of the player, it tells whether anything shown about the player changed.
+     * @return The version.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
     /**
      * Gets all effects that the player currently has.
-     * @return A list of all effects. Changes to this list are reflected in the actual list.
+     * @return The registry of all effects. Changes to it are reflected in the player.
      */
-    public List<Effect> getEffects() {
+    public EffectRegistry getEffects() {
         return this.effects;
     }
 
@@ -294,6 +321,7 @@ public class Player {
      */
     public void addAftermathMessage(String message) {
         this.aftermathMessages.add(message);
+        this.version++;
     }
 
     /**
@@ -302,6 +330,7 @@ public class Player {
      */
     public void clearAftermathMessages() {
         this.aftermathMessages.clear();
+        this.version++;
     }
 
     /**
@@ -334,8 +363,9 @@ public class Player {
      * effects for next turn are cleared.
      */
     public void gainNextRoundEffects() {
-        this.effects = this.nextRoundEffects;
+        this.effects = new EffectRegistry(this.nextRoundEffects);
         this.nextRoundEffects = new ArrayList<>();
+        this.version++;
     }
 
     /**
@@ -352,6 +382,7 @@ public class Player {
      */
     public void setName(String name) {
         this.name = name;
+        this.version++;
     }
 
     /**
@@ -398,11 +429,21 @@ public class Player {
         return this.getHealth() > 0;
     }
 
+    /**
+     * Sets how many lives the player has remaining.
+     * @param lives Remaining lives.
+     */
+    public void setLives(int lives) {
+        this.lives = lives;
+        this.version++;
+    }
+
     /**
      * Decreases the lives of the player by 1.
      */
     public void decreaseLives() {
         this.lives--;
+        this.version++;
     }
 
     /**
@@ -416,11 +457,13 @@ public class Player {
         caller.activate(upgrade.getEffects(), new EffectContext(EffectTrigger.OnPlay, game, this, upgrade));
         // TODO Trigger Magnetic
         // TODO Trigger Echo
-        if (upgrade.getCreatureData().getStatusKeyword(StatusKeyword.Binary) > 0) {
-            Card binaryCopy = this.getCardPool().get(upgrade.getName());
+        if (upgrade.getStatusKeyword(StatusKeyword.Binary) > 0) {
+            Card binaryCopy = upgrade.getCatalogId() >= 0
+                    ? this.getCardPool().get(upgrade.getCatalogId())
+                    : this.getCardPool().get(upgrade.getName());
             if (binaryCopy instanceof Upgrade u) {
                 u.getCreatureData().setStatusKeyword(StatusKeyword.Binary,
-                        upgrade.getCreatureData().getStatusKeyword(StatusKeyword.Binary) - 1);
+                        upgrade.getStatusKeyword(StatusKeyword.Binary) - 1);
                 if (u.getCardText().startsWith("Binary. ") || u.getCardText().startsWith("Binary, ")) {
                     u.setCardText(u.getCardText().substring(8));
                 } else {
@@ -430,7 +473,7 @@ public class Player {
             }
         }
 
-        this.creatureData.addStats(upgrade.getCreatureData());
+        upgrade.addStatsTo(this.creatureData);
         // remove keywords that don't affect the player
         this.creatureData.setStatusKeyword(StatusKeyword.Binary, 0);
         this.creatureData.setStatusKeyword(StatusKeyword.Magnetic, 0);
@@ -444,10 +487,10 @@ public class Player {
         }
 
         this.attachedUpgrades.addCard(upgrade);
-        // transfer effects
+        // transfer effects, stateless ones are shared with the upgrade
         upgrade.getEffects().forEach(x -> {
             try {
-                this.effects.add(x.clone());
+                this.effects.add(x.isStateless() ? x : x.clone());
             } catch (CloneNotSupportedException e) {
                 e.printStackTrace();
                 System.err.println("Couldn't clone the effect of " + upgrade.getName());
@@ -466,39 +509,29 @@ public class Player {
      * @param fightOutput Where to write the output.
      */
     public void attackPlayer(Game game, Player defender, FightOutput fightOutput) {
-        int damage = this.getAttack();
-        String message = this.getName() + " attacks for " + damage + " damage, ";
+        int baseDamage = this.getAttack();
+        int spikes = this.creatureData.getStatusKeyword(StatusKeyword.Spikes);
+        int shields = defender.getCreatureData().getStatusKeyword(StatusKeyword.Shields);
+        int damage = AttackEvent.damage(baseDamage, spikes, shields);
 
-        if (this.creatureData.getStatusKeyword(StatusKeyword.Spikes) > 0) {
-            damage += this.creatureData.getStatusKeyword(StatusKeyword.Spikes);
-            message += "increased to " + damage + " by Spikes, ";
-        }
-        if (defender.getCreatureData().getStatusKeyword(StatusKeyword.Shields) > 0) {
-            damage -= defender.getCreatureData().getStatusKeyword(StatusKeyword.Shields);
-            if (damage < 0) damage = 0;
-            if (this.creatureData.getStatusKeyword(StatusKeyword.Spikes) > 0) {
-                message = this.getName() + " attacks for " + this.getAttack() + " damage, ";
-                message += "adjusted to " + damage + " by Spikes and Shields, ";
-            } else {
-                message += "reduced to " + damage + " by Shields, ";
-            }
-        }
         this.getCreatureData().setStatusKeyword(StatusKeyword.Spikes, 0);
         defender.getCreatureData().setStatusKeyword(StatusKeyword.Shields, 0);
-        defender.takeDamage(game, this, fightOutput, message, damage);
+        defender.takeDamage(game, this, damage);
+        if (fightOutput.isLogging()) {
+            fightOutput.addEvent(FightOutput.Location.DuringCombat, new AttackEvent(
+                    this.getName(), defender.getName(), baseDamage, spikes, shields, damage, defender.getHealth()));
+        }
     }
 
-    public void takeDamage(Game game, Player attacker, FightOutput fightOutput, String message, int damage) {
+    /**
+     * The player takes damage from an attack.
+     * @param game The game both players are a part of.
+     * @param attacker The player dealing the damage.
+     * @param damage The amount of damage.
+     */
+    public void takeDamage(Game game, Player attacker, int damage) {
         // TODO trigger before taking damage effects
         this.setHealth(this.getHealth() - damage);
-        if (this.getHealth() > 0) {
-            message += "reducing " + this.getName() + " to " + this.getHealth() + " Health.";
-        } else {
-            message += "destroying " + this.getName() + ".";
-            fightOutput.addMessage(FightOutput.Location.DuringCombat, message);
-            return;
-        }
-        fightOutput.addMessage(FightOutput.Location.DuringCombat, message);
         // TODO poisonous and after this takes damage effects
     }
 }
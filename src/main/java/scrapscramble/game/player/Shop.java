@@ -37,7 +37,7 @@ public class Shop extends CardContainer<Upgrade> {
     public void refresh(Game game, Player player, boolean decreaseFreeze) {
         // get all frozen upgrades
         List<Upgrade> frozenUpgrades = new ArrayList<>(this.getAllCards().stream().filter(
-                u -> u.getCreatureData().getStatusKeyword(StatusKeyword.Frozen) > 0).toList());
+                u -> u.getStatusKeyword(StatusKeyword.Frozen) > 0).toList());
 
         if (decreaseFreeze) {
             frozenUpgrades.forEach(u -> u.getCreatureData().changeKeyword(StatusKeyword.Frozen, -1));
@@ -53,8 +53,7 @@ public class Shop extends CardContainer<Upgrade> {
             quantity -= (int)frozenUpgrades.stream().filter(u -> u.getRarity() == rarity).count();
 
             for (int i = 0; i < quantity; i++) {
-                Upgrade upgrade = player.getCardPool().randomUpgrade(u ->
-                        u.getRarity() == rarity && u.getCost() <= player.getMaximumMana() - 5);
+                Upgrade upgrade = player.getCardPool().randomUpgrade(game.getRandom(), rarity, player.getMaximumMana() - 5);
                 if (upgrade == null) break; // no matching upgrades
                 this.addCard(upgrade);
             }
@@ -83,7 +82,7 @@ public class Shop extends CardContainer<Upgrade> {
         if (upgrade.getCost() > player.getCurrentMana()) {
             return CardUseFeedback.NotEnoughMana;
         }
-        if (upgrade.getCreatureData().getStatusKeyword(StatusKeyword.Frozen) > 0) {
+        if (upgrade.getStatusKeyword(StatusKeyword.Frozen) > 0) {
             return CardUseFeedback.FrozenUpgrade;
         }
         // successfully bought
@@ -96,6 +95,7 @@ public class Shop extends CardContainer<Upgrade> {
         player.attachUpgrade(game, upgrade);
         player.getBuyHistory().addCard(upgrade);
         player.getPlayHistory().addCard(upgrade);
+        if (game.getRecorder() != null) game.getRecorder().onBuy(game, player, index);
         return CardUseFeedback.Successful;
     }
 }
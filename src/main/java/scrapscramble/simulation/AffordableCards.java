@@ -0,0 +1,39 @@
+package scrapscramble.simulation;
+
+import scrapscramble.game.CardContainer;
+import scrapscramble.game.cards.Card;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.player.Player;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for policies to find the cards a player can pay for.
+ */
+final class AffordableCards {
+
+    /**
+     * Utility class, not meant to be instantiated.
+     */
+    private AffordableCards() {}
+
+    /**
+     * Finds the positions of all cards in a container that the player has enough
+     * mana for. Frozen upgrades are left out since they can't be bought.
+     * @param container The shop or hand.
+     * @param player The player who pays.
+     * @return The positions, in order.
+     */
+    static int[] of(CardContainer<? extends Card> container, Player player) {
+        int[] ret = new int[container.containerSize()];
+        int count = 0;
+        for (int i = 0; i < container.containerSize(); i++) {
+            Card card = container.getCard(i);
+            if (card == null || card.getCost() > player.getCurrentMana()) continue;
+            if (card instanceof Upgrade u && u.getStatusKeyword(StatusKeyword.Frozen) > 0) continue;
+            ret[count++] = i;
+        }
+        return Arrays.copyOf(ret, count);
+    }
+}
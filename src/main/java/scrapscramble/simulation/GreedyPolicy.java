@@ -0,0 +1,40 @@
+package scrapscramble.simulation;
+
+import scrapscramble.game.Game;
+import scrapscramble.game.CardContainer;
+import scrapscramble.game.cards.Card;
+import scrapscramble.game.player.Player;
+
+/**
+ * Always buys and plays the most expensive card the player can afford, on the
+ * assumption that cost reflects power.
+ */
+public class GreedyPolicy implements PlayerPolicy {
+
+    @Override
+    public int chooseUpgradeToBuy(Game game, Player player) {
+        return this.mostExpensive(player.getShop(), AffordableCards.of(player.getShop(), player));
+    }
+
+    @Override
+    public int chooseCardToPlay(Game game, Player player) {
+        return this.mostExpensive(player.getHand(), AffordableCards.of(player.getHand(), player));
+    }
+
+    /**
+     * Finds the most expensive card among the given positions. Ties go to the
+     * first position.
+     * @param container The container of the cards.
+     * @param positions The positions to choose from.
+     * @return The position of the most expensive card, or -1 if there are none.
+     */
+    private int mostExpensive(CardContainer<? extends Card> container, int[] positions) {
+        int best = -1;
+        for (int position : positions) {
+            if (best == -1 || container.getCard(position).getCost() > container.getCard(best).getCost()) {
+                best = position;
+            }
+        }
+        return best;
+    }
+}
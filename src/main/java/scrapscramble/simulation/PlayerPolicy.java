@@ -0,0 +1,28 @@
+package scrapscramble.simulation;
+
+import scrapscramble.game.Game;
+import scrapscramble.game.player.Player;
+
+/**
+ * Decides what a simulated player does during the shop phase of a round. The
+ * simulator keeps asking the policy for upgrades to buy and then for cards to
+ * play until it declines or a choice can't be made.
+ */
+public interface PlayerPolicy {
+
+    /**
+     * Chooses an upgrade to buy from the player's shop.
+     * @param game The game the player is a part of.
+     * @param player The player who buys.
+     * @return The index of the upgrade in the shop, or -1 to stop buying.
+     */
+    int chooseUpgradeToBuy(Game game, Player player);
+
+    /**
+     * Chooses a card to play from the player's hand.
+     * @param game The game the player is a part of.
+     * @param player The player who plays.
+     * @return The index of the card in the hand, or -1 to stop playing.
+     */
+    int chooseCardToPlay(Game game, Player player);
+}
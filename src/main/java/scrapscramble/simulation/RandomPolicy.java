@@ -0,0 +1,55 @@
+package scrapscramble.simulation;
+
+import scrapscramble.game.Game;
+import scrapscramble.game.GameRandom;
+import scrapscramble.game.player.Player;
+
+/**
+ * Buys and plays random cards the player can afford until the mana runs out.
+ * Useful as a baseline that doesn't favour any card. Draws from a generator of its
+ * own, seeded from the seed of the game and the name of the player, so seeded games
+ * stay reproducible. The generator of the game is left alone, so a recorded game
+ * can be played again without the policy.
+ */
+public class RandomPolicy implements PlayerPolicy {
+
+    /**
+     * The generator the choices are drawn from, created in the first game the
+     * policy plays.
+     */
+    private GameRandom random;
+
+    @Override
+    public int chooseUpgradeToBuy(Game game, Player player) {
+        return this.pick(this.randomFor(game, player), AffordableCards.of(player.getShop(), player));
+    }
+
+    @Override
+    public int chooseCardToPlay(Game game, Player player) {
+        return this.pick(this.randomFor(game, player), AffordableCards.of(player.getHand(), player));
+    }
+
+    /**
+     * Gets the generator of the policy, creating it if needed.
+     * @param game The game the player is a part of.
+     * @param player The player the policy plays for.
+     * @return The generator.
+     */
+    private GameRandom randomFor(Game game, Player player) {
+        if (this.random == null) {
+            this.random = new GameRandom(game.getRandom().getInitialSeed() * 31 + player.getName().hashCode());
+        }
+        return this.random;
+    }
+
+    /**
+     * Picks one of the given positions at random.
+     * @param random The random number generator to use.
+     * @param positions The positions to pick from.
+     * @return One of the positions, or -1 if there are none.
+     */
+    private int pick(GameRandom random, int[] positions) {
+        if (positions.length == 0) return -1;
+        return positions[random.nextInt(positions.length)];
+    }
+}
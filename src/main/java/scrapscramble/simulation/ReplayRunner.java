@@ -0,0 +1,62 @@
+package scrapscramble.simulation;
+
+import scrapscramble.game.GameReplayer;
+import scrapscramble.game.ReplayResult;
+import scrapscramble.game.SnapshotFormatException;
+import scrapscramble.game.cards.CardCatalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Plays recorded games again from the command line and checks that they go the
+ * same way as when they were recorded. Takes journal files or folders of them as
+ * arguments. Exits with 1 if any game didn't match, so it can be used to check
+ * that a change to the engine keeps recorded games the same.
+ */
+public class ReplayRunner {
+
+    /**
+     * Replays the games.
+     * @param args The journal files or folders.
+     * @throws IOException If a folder couldn't be listed.
+     */
+    public static void main(String[] args) throws IOException {
+        List<Path> journals = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    files.filter(x -> x.toString().endsWith(".journal")).sorted().forEach(journals::add);
+                }
+            } else {
+                journals.add(path);
+            }
+        }
+
+        GameReplayer replayer = new GameReplayer(CardCatalog.getInstance());
+        int faithful = 0;
+        long fights = 0, start = System.nanoTime();
+        for (Path journal : journals) {
+            try {
+                ReplayResult result = replayer.replay(journal);
+                fights += result.getFightOutputs().size();
+                if (result.isFaithful()) {
+                    faithful++;
+                } else {
+                    System.out.println(journal + ": " + result.getMismatch());
+                }
+            } catch (IOException | SnapshotFormatException e) {
+                System.out.println(journal + ": " + e.getMessage());
+            }
+        }
+        System.out.printf("%d/%d games matched their journals, %d fights, in %.2fs%n",
+                faithful, journals.size(), fights, (System.nanoTime() - start) / 1e9);
+        if (faithful != journals.size()) System.exit(1);
+    }
+}
@@ -0,0 +1,209 @@
+package scrapscramble.simulation;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The results of a batch of simulated games, as they were when the report was
+ * made.
+ */
+public class SimulationReport {
+
+    /**
+     * How many games were simulated.
+     */
+    private final long games;
+    /**
+     * How many of the games ended with a single player left.
+     */
+    private final long gamesWithWinner;
+    /**
+     * How many rounds a game lasted on average.
+     */
+    private final double averageRounds;
+    /**
+     * The round a player was eliminated in on average.
+     */
+    private final double averageEliminationRound;
+    /**
+     * Maps the name of a card to its results.
+     */
+    private final Map<String, CardResult> cards;
+    /**
+     * How many cards of each cost were bought or played.
+     */
+    private final long[] manaCurve;
+
+    /**
+     * Creates a new report.
+     * @param games How many games were simulated.
+     * @param gamesWithWinner How many of the games ended with a single player left.
+     * @param averageRounds How many rounds a game lasted on average.
+     * @param averageEliminationRound The round a player was eliminated in on average.
+     * @param cards Maps the name of a card to its results.
+     * @param manaCurve How many cards of each cost were bought or played.
+     */
+    SimulationReport(long games, long gamesWithWinner, double averageRounds, double averageEliminationRound,
+                     Map<String, CardResult> cards, long[] manaCurve) {
+        this.games = games;
+        this.gamesWithWinner = gamesWithWinner;
+        this.averageRounds = averageRounds;
+        this.averageEliminationRound = averageEliminationRound;
+        this.cards = Map.copyOf(cards);
+        this.manaCurve = manaCurve;
+    }
+
+    /**
+     * Gets how many games were simulated.
+     * @return The amount of games.
+     */
+    public long getGames() {
+        return this.games;
+    }
+
+    /**
+     * Gets how many of the games ended with a single player left. The other games
+     * ran out of rounds.
+     * @return The amount of games.
+     */
+    public long getGamesWithWinner() {
+        return this.gamesWithWinner;
+    }
+
+    /**
+     * Gets how many rounds a game lasted on average.
+     * @return The average amount of rounds.
+     */
+    public double getAverageRounds() {
+        return this.averageRounds;
+    }
+
+    /**
+     * Gets the round a player was eliminated in on average.
+     * @return The average round, or 0 if no one was eliminated.
+     */
+    public double getAverageEliminationRound() {
+        return this.averageEliminationRound;
+    }
+
+    /**
+     * Gets the results of a card.
+     * @param name The name of the card.
+     * @return The results, or null if no player used the card.
+     */
+    public @Nullable CardResult getCard(String name) {
+        return this.cards.get(name);
+    }
+
+    /**
+     * Gets the results of all cards that were used.
+     * @return An unmodifiable map from the name of a card to its results.
+     */
+    public Map<String, CardResult> getCards() {
+        return this.cards;
+    }
+
+    /**
+     * Gets how many cards of a cost were bought or played.
+     * @param cost The mana cost.
+     * @return The amount of cards.
+     */
+    public long getManaCurve(int cost) {
+        return cost >= 0 && cost < this.manaCurve.length ? this.manaCurve[cost] : 0;
+    }
+
+    /**
+     * Gets the highest cost of a card that was bought or played.
+     * @return The highest cost, or -1 if no cards were used.
+     */
+    public int getHighestCost() {
+        return this.manaCurve.length - 1;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d (%d with a winner), %.2f rounds on average%n",
+                this.games, this.gamesWithWinner, this.averageRounds));
+        sb.append(String.format("Average elimination round: %.2f%n", this.averageEliminationRound));
+        sb.append("Mana curve:");
+        for (int i = 0; i < this.manaCurve.length; i++) {
+            if (this.manaCurve[i] > 0) sb.append(String.format(" %d:%d", i, this.manaCurve[i]));
+        }
+        sb.append(String.format("%nWin rates:%n"));
+        List<CardResult> sorted = new ArrayList<>(this.cards.values());
+        sorted.sort(Comparator.comparingDouble(CardResult::getWinRate).reversed()
+                .thenComparing(CardResult::getName));
+        for (CardResult card : sorted) {
+            sb.append(String.format("  %-30s %6.2f%% (%d games)%n", card.getName(), 100 * card.getWinRate(), card.getUsed()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The results of a single card.
+     */
+    public static class CardResult {
+        /**
+         * The name of the card.
+         */
+        private final String name;
+        /**
+         * How many players used the card in a game.
+         */
+        private final long used;
+        /**
+         * How many of those players won their game.
+         */
+        private final long won;
+
+        /**
+         * Creates the results of a card.
+         * @param name The name of the card.
+         * @param used How many players used the card in a game.
+         * @param won How many of those players won their game.
+         */
+        CardResult(String name, long used, long won) {
+            this.name = name;
+            this.used = used;
+            this.won = won;
+        }
+
+        /**
+         * Gets the name of the card.
+         * @return The name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets how many players used the card in a game. A player who used multiple
+         * copies in the same game is only counted once.
+         * @return The amount of players.
+         */
+        public long getUsed() {
+            return this.used;
+        }
+
+        /**
+         * Gets how many of the players who used the card won their game.
+         * @return The amount of players.
+         */
+        public long getWon() {
+            return this.won;
+        }
+
+        /**
+         * Gets the share of the players who used the card that won their game.
+         * @return The win rate, between 0 and 1.
+         */
+        public double getWinRate() {
+            return this.used == 0 ? 0 : (double) this.won / this.used;
+        }
+    }
+}
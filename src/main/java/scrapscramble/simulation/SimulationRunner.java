@@ -0,0 +1,31 @@
+package scrapscramble.simulation;
+
+/**
+ * Runs a simulation from the command line and prints the results. Takes the
+ * amount of games, the amount of players and the policy ("random" or "greedy")
+ * as optional arguments.
+ */
+public class SimulationRunner {
+
+    /**
+     * Runs the simulation.
+     * @param args The amount of games, the amount of players and the policy.
+     */
+    public static void main(String[] args) {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        String policy = args.length > 2 ? args[2] : "random";
+
+        long start = System.nanoTime();
+        SimulationReport report = Simulator.builder()
+                .withGames(games)
+                .withPlayers(players)
+                .withPolicies(seat -> policy.equalsIgnoreCase("greedy") ? new GreedyPolicy() : new RandomPolicy())
+                .withBatchSize(1000)
+                .withProgressListener(progress -> System.err.printf("%d/%d games%n", progress.getGames(), games))
+                .build()
+                .run();
+        System.out.println(report);
+        System.out.printf("Finished in %.2fs%n", (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,141 @@
+package scrapscramble.simulation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Adds up the results of simulated games. Each worker thread fills its own
+ * instance and merges it into the shared one from time to time, so this class
+ * is not thread-safe on its own.
+ */
+final class SimulationStats {
+
+    /**
+     * How many games have been simulated.
+     */
+    private long games;
+    /**
+     * How many of the games ended with a single player left.
+     */
+    private long gamesWithWinner;
+    /**
+     * The sum of the rounds all games lasted.
+     */
+    private long rounds;
+    /**
+     * How many players were eliminated.
+     */
+    private long eliminations;
+    /**
+     * The sum of the rounds players were eliminated in.
+     */
+    private long eliminationRounds;
+    /**
+     * Maps the name of a card to how many players used it in a game and how many
+     * of those players won the game.
+     */
+    private final Map<String, long[]> cards;
+    /**
+     * How many cards of each cost were bought or played.
+     */
+    private long[] manaCurve;
+
+    /**
+     * Creates empty stats.
+     */
+    SimulationStats() {
+        this.cards = new HashMap<>();
+        this.manaCurve = new long[0];
+    }
+
+    /**
+     * Records a finished game.
+     * @param rounds How many rounds the game lasted.
+     * @param hasWinner Whether the game ended with a single player left.
+     */
+    void addGame(int rounds, boolean hasWinner) {
+        this.games++;
+        this.rounds += rounds;
+        if (hasWinner) this.gamesWithWinner++;
+    }
+
+    /**
+     * Records a player being eliminated.
+     * @param round The round the player was eliminated in.
+     */
+    void addElimination(int round) {
+        this.eliminations++;
+        this.eliminationRounds += round;
+    }
+
+    /**
+     * Records that a player used a card in a game. Should be called once per card
+     * for each player, no matter how many copies they used.
+     * @param name The name of the card.
+     * @param won Whether the player won the game.
+     */
+    void addCard(String name, boolean won) {
+        long[] counts = this.cards.computeIfAbsent(name, x -> new long[2]);
+        counts[0]++;
+        if (won) counts[1]++;
+    }
+
+    /**
+     * Records a card of the given cost being bought or played.
+     * @param cost The mana cost of the card.
+     */
+    void addCost(int cost) {
+        cost = Math.max(cost, 0);
+        if (cost >= this.manaCurve.length) this.manaCurve = Arrays.copyOf(this.manaCurve, cost + 1);
+        this.manaCurve[cost]++;
+    }
+
+    /**
+     * Adds the results of other stats to these ones.
+     * @param other The stats to add.
+     */
+    void merge(SimulationStats other) {
+        this.games += other.games;
+        this.gamesWithWinner += other.gamesWithWinner;
+        this.rounds += other.rounds;
+        this.eliminations += other.eliminations;
+        this.eliminationRounds += other.eliminationRounds;
+        other.cards.forEach((name, counts) -> {
+            long[] own = this.cards.computeIfAbsent(name, x -> new long[2]);
+            own[0] += counts[0];
+            own[1] += counts[1];
+        });
+        if (other.manaCurve.length > this.manaCurve.length) {
+            this.manaCurve = Arrays.copyOf(this.manaCurve, other.manaCurve.length);
+        }
+        for (int i = 0; i < other.manaCurve.length; i++) this.manaCurve[i] += other.manaCurve[i];
+    }
+
+    /**
+     * Removes all results.
+     */
+    void clear() {
+        this.games = 0;
+        this.gamesWithWinner = 0;
+        this.rounds = 0;
+        this.eliminations = 0;
+        this.eliminationRounds = 0;
+        this.cards.clear();
+        this.manaCurve = new long[0];
+    }
+
+    /**
+     * Creates a report of the results so far.
+     * @return A report that doesn't change if these stats do.
+     */
+    SimulationReport toReport() {
+        Map<String, SimulationReport.CardResult> cardResults = new HashMap<>();
+        this.cards.forEach((name, counts) ->
+                cardResults.put(name, new SimulationReport.CardResult(name, counts[0], counts[1])));
+        return new SimulationReport(this.games, this.gamesWithWinner,
+                this.games == 0 ? 0 : (double) this.rounds / this.games,
+                this.eliminations == 0 ? 0 : (double) this.eliminationRounds / this.eliminations,
+                cardResults, this.manaCurve.clone());
+    }
+}
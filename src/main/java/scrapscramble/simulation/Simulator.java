@@ -0,0 +1,431 @@
+package scrapscramble.simulation;
+
+import org.jetbrains.annotations.Nullable;
+import scrapscramble.game.Game;
+import scrapscramble.game.GameJournal;
+import scrapscramble.game.GameRandom;
+import scrapscramble.game.GameRecorder;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.CardUseFeedback;
+import scrapscramble.game.player.Player;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Plays whole games without anyone watching, with every player controlled by a
+ * {@link PlayerPolicy}, and adds up how they went. Games are spread over multiple
+ * threads; each thread keeps its own results and hands them in after every batch
+ * of games, at which point the progress listener gets a report of everything so far.
+ * Should be instantiated through {@link Simulator#builder()}.
+ */
+public class Simulator {
+
+    /**
+     * How many buys or plays a player can make in a single round. Stops policies
+     * from looping forever on cards that cost nothing.
+     */
+    private static final int MAX_ACTIONS_PER_ROUND = 100;
+
+    /**
+     * How many players are in each game.
+     */
+    private int players;
+    /**
+     * How many games to simulate.
+     */
+    private long games;
+    /**
+     * After how many rounds a game is stopped if there's still more than one player left.
+     */
+    private int maxRounds;
+    /**
+     * How many threads simulate games at the same time.
+     */
+    private int threads;
+    /**
+     * How many games a thread simulates before handing in its results.
+     */
+    private int batchSize;
+    /**
+     * Creates the policy of the player at a seat, once for every game.
+     */
+    private IntFunction<PlayerPolicy> policies;
+    /**
+     * The catalog the card pools of the games are created from.
+     */
+    private CardCatalog catalog;
+    /**
+     * Gets a report every time a batch of games is handed in. Can be called from
+     * any of the threads, but never by two at the same time.
+     */
+    private Consumer<SimulationReport> progressListener;
+    /**
+     * The seed the generators of the games are derived from, or null to seed every
+     * game differently each run.
+     */
+    private Long seed;
+    /**
+     * The folder every game is recorded to as a {@link GameJournal}, or null to
+     * not record the games.
+     */
+    private Path journalDirectory;
+
+    /**
+     * Private constructor, only to be used by {@link SimulatorBuilder}.
+     */
+    private Simulator() {
+        this.players = 2;
+        this.games = 1;
+        this.maxRounds = 50;
+        this.threads = Runtime.getRuntime().availableProcessors();
+        this.batchSize = 100;
+        this.policies = seat -> new RandomPolicy();
+        this.progressListener = report -> {};
+    }
+
+    /**
+     * Starts building a simulator.
+     * @return A builder for simulators.
+     */
+    public static SimulatorBuilder builder() {
+        return new SimulatorBuilder();
+    }
+
+    /**
+     * Simulates all games and waits until they're over.
+     * @return A report of all games.
+     */
+    public SimulationReport run() {
+        SimulationStats total = new SimulationStats();
+        AtomicLong nextGame = new AtomicLong();
+        int workers = (int) Math.min(this.threads, this.games);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(workers, 1));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> this.work(nextGame, total)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The simulation was interrupted!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        synchronized (total) {
+            return total.toReport();
+        }
+    }
+
+    /**
+     * Keeps simulating games until all of them have been claimed by a thread.
+     * @param nextGame The number of the next game to claim.
+     * @param total The results all threads hand theirs in to.
+     */
+    private void work(AtomicLong nextGame, SimulationStats total) {
+        SimulationStats local = new SimulationStats();
+        int played = 0;
+        long gameNumber;
+        while ((gameNumber = nextGame.getAndIncrement()) < this.games) {
+            this.playGame(gameNumber, local);
+            if (++played == this.batchSize) {
+                this.handIn(local, total);
+                played = 0;
+            }
+        }
+        if (played > 0) this.handIn(local, total);
+    }
+
+    /**
+     * Adds the results of a thread to the total and tells the progress listener.
+     * @param local The results of the thread, which are cleared afterwards.
+     * @param total The results of all threads.
+     */
+    private void handIn(SimulationStats local, SimulationStats total) {
+        synchronized (total) {
+            total.merge(local);
+            this.progressListener.accept(total.toReport());
+        }
+        local.clear();
+    }
+
+    /**
+     * Simulates a single game. If the simulator has a seed, the game only depends
+     * on it and the number of the game, not on which thread plays it.
+     * @param gameNumber The number of the game, starting at 0.
+     * @param stats Where to record the results.
+     */
+    void playGame(long gameNumber, SimulationStats stats) {
+        if (this.journalDirectory == null) {
+            this.playGame(gameNumber, stats, null);
+            return;
+        }
+        try (GameJournal journal = GameJournal.create(this.journalDirectory.resolve("game-" + gameNumber + ".journal"))) {
+            this.playGame(gameNumber, stats, journal);
+        } catch (IOException e) {
+            e.printStackTrace();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Simulates a single game.
+     * @param gameNumber The number of the game, starting at 0.
+     * @param stats Where to record the results.
+     * @param recorder What records the actions of the game, or null.
+     */
+    private void playGame(long gameNumber, SimulationStats stats, @Nullable GameRecorder recorder) {
+        GameRandom random = this.seed == null ? new GameRandom() : new GameRandom(this.seed + gameNumber);
+        Game game = new Game(new EffectCaller(), random);
+        game.setCombatLogging(false);
+        game.setRecorder(recorder);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < this.players; i++) names.add("Seat " + (i + 1));
+        game.start(this.players, names, this.catalog.createPool());
+
+        List<Player> seats = game.getPlayers();
+        List<PlayerPolicy> policies = new ArrayList<>();
+        List<Set<String>> used = new ArrayList<>();
+        for (int i = 0; i < this.players; i++) {
+            policies.add(this.policies.apply(i));
+            used.add(new HashSet<>());
+        }
+
+        boolean[] eliminated = new boolean[this.players];
+        int alive = this.players;
+        while (true) {
+            for (int i = 0; i < this.players; i++) {
+                Player player = seats.get(i);
+                if (player.getLives() <= 0) continue;
+                this.takeTurn(game, player, policies.get(i), used.get(i), stats);
+            }
+            game.conductFights();
+            for (int i = 0; i < this.players; i++) {
+                if (eliminated[i] || seats.get(i).getLives() > 0) continue;
+                eliminated[i] = true;
+                alive--;
+                stats.addElimination(game.getRound());
+            }
+            if (alive <= 1 || game.getRound() >= this.maxRounds) break;
+            game.nextRound();
+        }
+
+        boolean hasWinner = alive == 1;
+        stats.addGame(game.getRound(), hasWinner);
+        for (int i = 0; i < this.players; i++) {
+            boolean won = hasWinner && seats.get(i).getLives() > 0;
+            for (String name : used.get(i)) stats.addCard(name, won);
+        }
+    }
+
+    /**
+     * Lets a policy buy and play cards for a player until it stops or can't
+     * anymore.
+     * @param game The game.
+     * @param player The player.
+     * @param policy The policy of the player.
+     * @param used The names of the cards the player used in the game so far.
+     * @param stats Where to record the mana curve.
+     */
+    private void takeTurn(Game game, Player player, PlayerPolicy policy, Set<String> used, SimulationStats stats) {
+        for (int actions = 0; actions < MAX_ACTIONS_PER_ROUND; actions++) {
+            int index = policy.chooseUpgradeToBuy(game, player);
+            if (index < 0) break;
+            Upgrade upgrade = player.getShop().getCard(index);
+            if (upgrade == null || player.getShop().buy(index, game, player) != CardUseFeedback.Successful) break;
+            used.add(upgrade.getName());
+            stats.addCost(upgrade.getCost());
+        }
+        for (int actions = 0; actions < MAX_ACTIONS_PER_ROUND; actions++) {
+            int index = policy.chooseCardToPlay(game, player);
+            if (index < 0) break;
+            var card = player.getHand().getCard(index);
+            if (card == null || player.getHand().play(index, game, player) != CardUseFeedback.Successful) break;
+            if (card instanceof Upgrade) used.add(card.getName());
+            stats.addCost(card.getCost());
+        }
+    }
+
+    /**
+     * Builder class for simulators. Should be instantiated through {@link Simulator#builder()}.
+     */
+    public static class SimulatorBuilder {
+        /**
+         * Whether the builder is available to be used.
+         */
+        private boolean available;
+        /**
+         * The simulator onto which the methods will build.
+         */
+        private final Simulator simulator;
+
+        /**
+         * Private default constructor, only to be initialised by the static
+         * {@link Simulator#builder()} method.
+         */
+        private SimulatorBuilder() {
+            this.available = true;
+            this.simulator = new Simulator();
+        }
+
+        /**
+         * Puts how many players are in each game. Defaults to 2.
+         * @param players Amount of players, at least 2.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withPlayers(int players) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            if (players < 2) throw new IllegalArgumentException("A game needs at least 2 players!");
+            this.simulator.players = players;
+            return this;
+        }
+
+        /**
+         * Puts how many games to simulate. Defaults to 1.
+         * @param games Amount of games.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withGames(long games) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.games = games;
+            return this;
+        }
+
+        /**
+         * Puts after how many rounds a game is stopped if no one has won yet. Defaults to 50.
+         * @param maxRounds Amount of rounds.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withMaxRounds(int maxRounds) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.maxRounds = maxRounds;
+            return this;
+        }
+
+        /**
+         * Puts how many threads simulate games at the same time. Defaults to the
+         * amount of available processors.
+         * @param threads Amount of threads, at least 1.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withThreads(int threads) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.threads = Math.max(threads, 1);
+            return this;
+        }
+
+        /**
+         * Puts how many games a thread simulates before handing in its results.
+         * Defaults to 100.
+         * @param batchSize Amount of games, at least 1.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withBatchSize(int batchSize) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.batchSize = Math.max(batchSize, 1);
+            return this;
+        }
+
+        /**
+         * Puts the same kind of policy on every seat. Defaults to {@link RandomPolicy}.
+         * @param policies Creates the policy of the player at a seat, once for
+         *                 every game. Gets the number of the seat, starting at 0.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withPolicies(IntFunction<PlayerPolicy> policies) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.policies = policies;
+            return this;
+        }
+
+        /**
+         * Puts the catalog the card pools of the games are created from. Defaults
+         * to {@link CardCatalog#getInstance()}.
+         * @param catalog The catalog.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withCatalog(CardCatalog catalog) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.catalog = catalog;
+            return this;
+        }
+
+        /**
+         * Puts what gets a report every time a batch of games is handed in.
+         * @param progressListener The listener.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withProgressListener(Consumer<SimulationReport> progressListener) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Puts the seed the games are derived from, so that running the simulator
+         * again gives the same results. By default every run is different.
+         * @param seed The seed.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withSeed(long seed) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.seed = seed;
+            return this;
+        }
+
+        /**
+         * Puts a folder where every game is recorded as a {@link GameJournal}, named
+         * after the number of the game. The recorded games can be played again by a
+         * {@link scrapscramble.game.GameReplayer}. By default nothing is recorded.
+         * @param journalDirectory The folder. Must exist.
+         * @return A reference to this builder.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public SimulatorBuilder withJournals(Path journalDirectory) throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.simulator.journalDirectory = journalDirectory;
+            return this;
+        }
+
+        /**
+         * Finishes building the simulator and makes the builder unavailable.
+         * @return The simulator.
+         * @throws IllegalStateException If the builder has already been built.
+         */
+        public Simulator build() throws IllegalStateException {
+            if (!available) throw new IllegalStateException("The build has already been built!");
+            this.available = false;
+            if (this.simulator.catalog == null) this.simulator.catalog = CardCatalog.getInstance();
+            return this.simulator;
+        }
+    }
+}
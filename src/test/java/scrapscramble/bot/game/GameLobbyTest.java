@@ -0,0 +1,55 @@
+package scrapscramble.bot.game;
+
+import discord4j.core.object.entity.User;
+import org.junit.jupiter.api.Test;
+import scrapscramble.game.cards.CardCatalog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static scrapscramble.bot.game.TestUsers.user;
+
+class GameLobbyTest {
+
+    @Test
+    void usersJoiningWhileTheGameStartsAreEitherInItOrRejected() throws Exception {
+        for (int attempt = 0; attempt < 20; attempt++) {
+            GameLobby lobby = new GameLobby();
+            lobby.setCardCatalog(CardCatalog.getInstance());
+            lobby.addPlayer(user(1), "1");
+            lobby.addPlayer(user(2), "2");
+            List<User> joining = new ArrayList<>();
+            for (long id = 3; id < 40; id++) joining.add(user(id));
+
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            CountDownLatch go = new CountDownLatch(1);
+            try {
+                for (User user : joining) {
+                    pool.execute(() -> {
+                        try {
+                            go.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        lobby.addPlayer(user, user.getId().asString());
+                    });
+                }
+                go.countDown();
+                lobby.setUpGame(null);
+            } finally {
+                pool.shutdown();
+                assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            }
+
+            assertThat(lobby.getGame().getPlayers()).hasSize(lobby.size());
+            for (long id : lobby.getUserIds()) {
+                assertThat(lobby.getPlayer(id)).isNotNull();
+            }
+        }
+    }
+}
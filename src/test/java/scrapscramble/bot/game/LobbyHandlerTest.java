@@ -0,0 +1,81 @@
+package scrapscramble.bot.game;
+
+import discord4j.core.object.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static scrapscramble.bot.game.TestUsers.user;
+
+class LobbyHandlerTest {
+
+    private static final long[] GUILDS = {100, 200, 300};
+
+    @Test
+    void usersJoiningAndLeavingAtOnceAreInExactlyOneLobby() throws Exception {
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBean(GameLobby.class)).thenAnswer(invocation -> {
+            GameLobby lobby = new GameLobby();
+            lobby.setLobbyExecutor(Runnable::run);
+            return lobby;
+        });
+        LobbyHandler handler = new LobbyHandler(context, null, mock(LobbySnapshotStore.class));
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) users.add(user(id));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            for (int thread = 0; thread < 8; thread++) {
+                Random random = new Random(thread);
+                pool.execute(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 5000; i++) {
+                        User user = users.get(random.nextInt(users.size()));
+                        long guildId = GUILDS[random.nextInt(GUILDS.length)];
+                        if (random.nextBoolean()) handler.joinLobby(guildId, user);
+                        else handler.leaveLobby(guildId, user.getId().asLong());
+                    }
+                });
+            }
+            go.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        }
+
+        int inLobbies = 0;
+        for (long guildId : GUILDS) {
+            GameLobby lobby = handler.getLobbyOfServer(guildId);
+            if (lobby == null) continue;
+            assertThat(lobby.size()).isPositive();
+            for (long userId : lobby.getUserIds()) {
+                assertThat(handler.getLobbyOfUser(userId)).isSameAs(lobby);
+            }
+            inLobbies += lobby.size();
+        }
+        for (User user : users) {
+            GameLobby lobby = handler.getLobbyOfUser(user);
+            if (lobby == null) continue;
+            assertThat(handler.getLobbyOfServer(lobby.getGuildId())).isSameAs(lobby);
+            assertThat(lobby.getUserIds()).containsOnlyOnce(user.getId().asLong());
+            inLobbies--;
+        }
+        assertThat(inLobbies).isZero();
+    }
+}
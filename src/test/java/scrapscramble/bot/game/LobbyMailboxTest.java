@@ -0,0 +1,84 @@
+package scrapscramble.bot.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LobbyMailboxTest {
+
+    @Test
+    void runsTasksOneAtATimeInOrder() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            LobbyMailbox mailbox = new LobbyMailbox(pool);
+            List<Integer> order = new ArrayList<>(); // not thread-safe on purpose
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger overlaps = new AtomicInteger();
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int task = i;
+                futures.add(mailbox.run(() -> {
+                    if (running.incrementAndGet() > 1) overlaps.incrementAndGet();
+                    order.add(task);
+                    running.decrementAndGet();
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+            assertThat(overlaps).hasValue(0);
+            assertThat(order).hasSize(1000).isSorted();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void differentMailboxesRunInParallel() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            LobbyMailbox first = new LobbyMailbox(pool), second = new LobbyMailbox(pool);
+            CountDownLatch bothStarted = new CountDownLatch(2);
+            Runnable waitForTheOther = () -> {
+                bothStarted.countDown();
+                try {
+                    bothStarted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            };
+            var a = first.run(waitForTheOther);
+            var b = second.run(waitForTheOther);
+            CompletableFuture.allOf(a, b).get(10, TimeUnit.SECONDS);
+
+            assertThat(bothStarted.getCount()).isZero();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void failingTaskDoesNotStopTheMailbox() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            LobbyMailbox mailbox = new LobbyMailbox(pool);
+            var failed = mailbox.submit(() -> {
+                throw new IllegalStateException("broken");
+            });
+            var next = mailbox.submit(() -> 42);
+
+            assertThat(next.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+            assertThat(failed).isCompletedExceptionally();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
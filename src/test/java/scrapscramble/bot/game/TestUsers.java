@@ -0,0 +1,29 @@
+package scrapscramble.bot.game;
+
+import discord4j.core.GatewayDiscordClient;
+import discord4j.core.object.entity.User;
+import discord4j.discordjson.json.UserData;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Creates discord users for tests. {@link User#getId()} is final, so they can't be mocked.
+ */
+final class TestUsers {
+
+    private static final GatewayDiscordClient CLIENT = mock(GatewayDiscordClient.class);
+
+    private TestUsers() {
+    }
+
+    static User user(long id) {
+        return new User(CLIENT, UserData.builder()
+                .id(id)
+                .username("user" + id)
+                .discriminator("0001")
+                .avatar(Optional.empty())
+                .build());
+    }
+}
@@ -0,0 +1,58 @@
+package scrapscramble.bot.ui;
+
+import discord4j.core.spec.EmbedCreateSpec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmbedBatcherTest {
+
+    private static EmbedCreateSpec embed(int characters) {
+        return EmbedCreateSpec.builder()
+                .title("T")
+                .description("x".repeat(characters - 1))
+                .build();
+    }
+
+    @Test
+    void countsTitleDescriptionAndFields() {
+        var embed = EmbedCreateSpec.builder()
+                .title("Fight!")
+                .description("abc")
+                .addField("[Combat]", "hit", false)
+                .build();
+
+        assertThat(EmbedBatcher.length(embed)).isEqualTo(6 + 3 + 8 + 3);
+    }
+
+    @Test
+    void packsUpToTenSmallEmbedsPerMessage() {
+        List<EmbedCreateSpec> embeds = new ArrayList<>(Collections.nCopies(23, embed(100)));
+
+        var batches = EmbedBatcher.batch(embeds);
+
+        assertThat(batches).extracting(List::size).containsExactly(10, 10, 3);
+        assertThat(batches.stream().flatMap(List::stream).toList()).isEqualTo(embeds);
+    }
+
+    @Test
+    void splitsWhenTheCharacterLimitWouldBeExceeded() {
+        var embeds = List.of(embed(2500), embed(2500), embed(1500), embed(500));
+
+        var batches = EmbedBatcher.batch(embeds);
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 2);
+    }
+
+    @Test
+    void givesOversizedEmbedsTheirOwnMessage() {
+        var embeds = List.of(embed(10), embed(7000), embed(10));
+
+        assertThat(EmbedBatcher.batch(embeds)).extracting(List::size).containsExactly(1, 1, 1);
+        assertThat(EmbedBatcher.batch(List.of())).isEmpty();
+    }
+}
@@ -0,0 +1,75 @@
+package scrapscramble.bot.ui;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scrapscramble.game.Game;
+import scrapscramble.game.GameRandom;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.CardUseFeedback;
+import scrapscramble.game.player.Player;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlayerUITest {
+
+    private Game game;
+    private Player player;
+    private PlayerUI ui;
+
+    @BeforeEach
+    void setUp() {
+        game = new Game(new EffectCaller(), new GameRandom(7));
+        game.start(2, List.of("A", "B"), CardCatalog.getInstance().createPool());
+        player = game.getPlayers().get(0);
+        ui = new PlayerUI(null, game, player);
+    }
+
+    @Test
+    void panelsAreReusedWhileNothingChanges() {
+        String shop = ui.getPanelShop(), mech = ui.getPanelMechInfo(), hand = ui.getPanelHand();
+
+        assertThat(ui.getPanelShop()).isSameAs(shop);
+        assertThat(ui.getPanelMechInfo()).isSameAs(mech);
+        assertThat(ui.getPanelHand()).isSameAs(hand);
+    }
+
+    @Test
+    void panelsAreRenderedAgainAfterAChange() {
+        String shop = ui.getPanelShop(), mech = ui.getPanelMechInfo(), keywords = ui.getPanelKeywords();
+
+        player.setCurrentMana(player.getCurrentMana() - 1);
+        assertThat(ui.getPanelMechInfo()).isNotEqualTo(mech);
+        assertThat(ui.getPanelKeywords()).isSameAs(keywords);
+
+        Upgrade first = player.getShop().getCard(0);
+        first.setAttack(first.getAttack() + 5);
+        assertThat(ui.getPanelShop()).isNotEqualTo(shop).contains(first.toUIString(game, player));
+    }
+
+    @Test
+    void buyingChangesTheShopAndUpgrades() {
+        player.setCurrentMana(100);
+        String shop = ui.getPanelShop(), upgrades = ui.getPanelAttachedUpgrades();
+        String name = player.getShop().getCard(0).getName();
+
+        assertThat(player.getShop().buy(0, game, player)).isEqualTo(CardUseFeedback.Successful);
+
+        assertThat(ui.getPanelShop()).isNotEqualTo(shop);
+        assertThat(ui.getPanelAttachedUpgrades()).isNotEqualTo(upgrades).contains(name);
+    }
+
+    @Test
+    void clearingKeywordsRendersTheKeywordsAgain() {
+        player.getCreatureData().setStatusKeyword(StatusKeyword.Rush, 2);
+        assertThat(ui.getPanelKeywords()).contains("Rush: 2");
+
+        player.getCreatureData().clearStatusKeywords();
+
+        assertThat(ui.getPanelKeywords()).doesNotContain("Rush").isEqualTo("\u200B");
+    }
+}
@@ -272,4 +272,20 @@ class CardContainerTest {
         var cards = container.getAllCards();
         assertThrows(UnsupportedOperationException.class, () -> {cards.add(new CardImpl());});
     }
-}
\ No newline at end of file
+
+    @Test
+    void versionGoesUpOnEveryChange() {
+        CardImpl card = new CardImpl();
+        long start = container.getVersion();
+        container.addCard(card);
+        container.setCard(0, new CardImpl());
+        container.removeCard(0);
+        container.clear();
+        assertThat(container.getVersion()).isEqualTo(start + 4);
+
+        container.addCard(card);
+        long cards = container.getCardsVersion();
+        card.setCost(3);
+        assertThat(container.getCardsVersion()).isGreaterThan(cards);
+    }
+}
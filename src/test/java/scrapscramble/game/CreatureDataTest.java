@@ -110,4 +110,22 @@ class CreatureDataTest {
         var keywords = creatureData.getPresentKeywords();
         assertThat(keywords).containsExactlyInAnyOrder(StatusKeyword.Rush, StatusKeyword.Overload);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testClearAndAddStatsKeepPresentKeywords() {
+        creatureData.setStatusKeyword(StatusKeyword.Spikes, 2);
+        creatureData.setStatusKeyword(StatusKeyword.Rush, 1);
+        assertThat(creatureData.getPresentKeywords()).containsExactly(StatusKeyword.Rush, StatusKeyword.Spikes);
+
+        creatureData.clearStatusKeywords();
+        assertThat(creatureData.getPresentKeywords()).isEmpty();
+        assertThat(creatureData.getStatusKeyword(StatusKeyword.Spikes)).isZero();
+
+        CreatureData other = new CreatureData();
+        other.setStatusKeyword(StatusKeyword.Shields, 4);
+        creatureData.addStats(other);
+        creatureData.addStats(other);
+        assertThat(creatureData.getPresentKeywords()).containsExactly(StatusKeyword.Shields);
+        assertThat(creatureData.getStatusKeyword(StatusKeyword.Shields)).isEqualTo(8);
+    }
+}
@@ -0,0 +1,160 @@
+package scrapscramble.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.Player;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameJournalTest {
+
+    private final CardCatalog catalog = CardCatalog.getInstance();
+
+    @TempDir
+    Path folder;
+
+    private static void playRound(Game game) {
+        for (Player player : game.getPlayers()) {
+            for (int i = 0; i < player.getShop().containerSize(); i++) {
+                player.getShop().buy(i, game, player);
+            }
+        }
+        game.conductFights();
+        game.nextRound();
+    }
+
+    @Test
+    void recordsEveryAction() throws IOException {
+        Path file = folder.resolve("game.journal");
+        Game game = new Game(new EffectCaller(), new GameRandom(5));
+        try (GameJournal journal = GameJournal.create(file)) {
+            game.setRecorder(journal);
+            game.start(3, List.of("A", "B", "C"), catalog.createPool());
+            Player b = game.getPlayers().stream().filter(p -> p.getName().equals("B")).findFirst().orElseThrow();
+            b.getShop().buy(0, game, b);
+            game.conductFights();
+            game.nextRound();
+        }
+
+        List<JournalEntry> entries = GameJournal.read(file);
+        assertThat(entries).extracting(JournalEntry::getType).containsExactly(
+                JournalEntry.Type.Start, JournalEntry.Type.Buy, JournalEntry.Type.Fights, JournalEntry.Type.NextRound);
+        assertThat(entries.get(0).getNames()).containsExactly("A", "B", "C");
+        assertThat(entries.get(0).createRandom().nextLong()).isEqualTo(new GameRandom(5).nextLong());
+        assertThat(entries.get(1).getPlayer()).isEqualTo(1);
+        assertThat(entries.get(1).getIndex()).isEqualTo(0);
+        assertThat(entries.get(3).getRound()).isEqualTo(2);
+        assertThat(entries.get(3).getSeed()).isEqualTo(game.getRandom().getSeed());
+    }
+
+    @Test
+    void snapshotAndTailRestoreTheGame() throws IOException {
+        Path file = folder.resolve("game.journal");
+        Game game = new Game(new EffectCaller(), new GameRandom(21));
+        byte[] snapshot;
+        try (GameJournal journal = GameJournal.create(file)) {
+            game.setRecorder(journal);
+            game.start(5, List.of("A", "B", "C", "D", "E"), catalog.createPool());
+            playRound(game);
+            playRound(game);
+            journal.markSnapshot(game);
+            snapshot = GameSnapshot.save(game, catalog);
+            playRound(game);
+            Player c = game.getPlayers().get(2);
+            for (int i = 0; i < c.getShop().containerSize(); i++) c.getShop().buy(i, game, c);
+        }
+
+        // only what happened after the snapshot is played again
+        Game restored = GameSnapshot.restore(snapshot, catalog);
+        int replayed = GameJournal.replayTail(file, restored);
+
+        assertThat(replayed).isGreaterThan(2);
+        assertThat(GameSnapshot.save(restored, catalog)).isEqualTo(GameSnapshot.save(game, catalog));
+    }
+
+    @Test
+    void replaysNothingWithoutAMatchingSnapshot() throws IOException {
+        Path file = folder.resolve("game.journal");
+        Game game = new Game(new EffectCaller(), new GameRandom(8));
+        try (GameJournal journal = GameJournal.create(file)) {
+            game.setRecorder(journal);
+            game.start(2, List.of("A", "B"), catalog.createPool());
+            playRound(game);
+        }
+        Game other = new Game();
+        other.start(2, List.of("A", "B"), catalog.createPool());
+
+        assertThat(GameJournal.replayTail(file, other)).isZero();
+        assertThat(other.getRound()).isEqualTo(1);
+    }
+
+    @Test
+    void closedJournalRecordsNothingMore() throws IOException {
+        Path file = folder.resolve("game.journal");
+        Game game = new Game(new EffectCaller(), new GameRandom(4));
+        GameJournal journal = GameJournal.create(file);
+        game.setRecorder(journal);
+        game.start(2, List.of("A", "B"), catalog.createPool());
+        journal.close();
+        journal.close();
+        journal.markSnapshot(game);
+
+        assertThat(journal.isClosed()).isTrue();
+        assertThat(GameJournal.read(file)).extracting(JournalEntry::getType).containsExactly(JournalEntry.Type.Start);
+    }
+
+    @Test
+    void snapshotMarkedAfterABadTailIsReplayedFrom() throws IOException {
+        Path file = folder.resolve("game.journal");
+        Game recorded = new Game(new EffectCaller(), new GameRandom(6));
+        try (GameJournal journal = GameJournal.create(file)) {
+            recorded.setRecorder(journal);
+            recorded.start(2, List.of("A", "B"), catalog.createPool());
+            journal.markSnapshot(recorded);
+            playRound(recorded);
+        }
+        // a snapshot of another game at the same round doesn't match the tail
+        Game other = new Game(new EffectCaller(), new GameRandom(7));
+        other.start(2, List.of("A", "B"), catalog.createPool());
+        byte[] snapshot = GameSnapshot.save(other, catalog);
+        assertThatThrownBy(() -> GameJournal.replayTail(file, GameSnapshot.restore(snapshot, catalog)))
+                .isInstanceOf(SnapshotFormatException.class);
+
+        Game game = GameSnapshot.restore(snapshot, catalog);
+        try (GameJournal journal = GameJournal.open(file)) {
+            journal.markSnapshot(game);
+            game.setRecorder(journal);
+            playRound(game);
+        }
+
+        Game restored = GameSnapshot.restore(snapshot, catalog);
+        assertThat(GameJournal.replayTail(file, restored)).isGreaterThan(2);
+        assertThat(GameSnapshot.save(restored, catalog)).isEqualTo(GameSnapshot.save(game, catalog));
+    }
+
+    @Test
+    void journalsOfTheFirstVersionAreRejected() throws IOException {
+        Path file = folder.resolve("game.journal");
+        try (GameJournal journal = GameJournal.create(file)) {
+            Game game = new Game(new EffectCaller(), new GameRandom(9));
+            game.setRecorder(journal);
+            game.start(2, List.of("A", "B"), catalog.createPool());
+        }
+        byte[] data = Files.readAllBytes(file);
+        ByteBuffer.wrap(data).putInt(4, 1);
+        Files.write(file, data);
+
+        assertThatThrownBy(() -> GameJournal.read(file))
+                .isInstanceOf(SnapshotFormatException.class)
+                .hasMessageContaining("version 1");
+    }
+}
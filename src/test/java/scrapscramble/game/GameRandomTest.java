@@ -0,0 +1,57 @@
+package scrapscramble.game;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameRandomTest {
+
+    @Test
+    void sameSeedGeneratesTheSameNumbers() {
+        GameRandom a = new GameRandom(123), b = new GameRandom(123);
+        for (int i = 0; i < 100; i++) {
+            assertThat(a.nextInt(1000)).isEqualTo(b.nextInt(1000));
+        }
+        assertThat(a.getInitialSeed()).isEqualTo(123);
+    }
+
+    @Test
+    void matchesSplittableRandom() {
+        GameRandom a = new GameRandom(99);
+        SplittableRandom b = new SplittableRandom(99);
+        for (int i = 0; i < 100; i++) {
+            assertThat(a.nextInt(37)).isEqualTo(b.nextInt(37));
+            assertThat(a.nextLong()).isEqualTo(b.nextLong());
+        }
+        GameRandom splitA = a.split();
+        SplittableRandom splitB = b.split();
+        assertThat(splitA.nextLong()).isEqualTo(splitB.nextLong());
+    }
+
+    @Test
+    void splitsAreReproducible() {
+        GameRandom a = new GameRandom(5).split(), b = new GameRandom(5).split();
+        assertThat(a.nextLong()).isEqualTo(b.nextLong());
+    }
+
+    @Test
+    void nextIntStaysInRange() {
+        GameRandom random = new GameRandom(1);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(random.nextInt(3, 10)).isBetween(3, 9);
+        }
+        assertThatThrownBy(() -> random.nextInt(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void shuffleKeepsAllElements() {
+        List<Integer> list = new ArrayList<>(List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        new GameRandom(8).shuffle(list);
+        assertThat(list).containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6, 7, 8);
+    }
+}
@@ -0,0 +1,93 @@
+package scrapscramble.game;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.Player;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameReplayerTest {
+
+    private final CardCatalog catalog = CardCatalog.getInstance();
+    private final GameReplayer replayer = new GameReplayer(catalog);
+
+    @TempDir
+    Path folder;
+
+    /**
+     * Records a seeded game where every player buys and plays everything they can.
+     */
+    private List<String> recordGame(Path file, int rounds) throws IOException {
+        List<String> messages = new ArrayList<>();
+        Game game = new Game(new EffectCaller(), new GameRandom(31));
+        try (GameJournal journal = GameJournal.create(file)) {
+            game.setRecorder(journal);
+            game.start(6, List.of("A", "B", "C", "D", "E", "F"), catalog.createPool());
+            for (int round = 0; round < rounds; round++) {
+                for (Player player : game.getPlayers()) {
+                    for (int i = 0; i < player.getShop().containerSize(); i++) player.getShop().buy(i, game, player);
+                    for (int i = 0; i < player.getHand().containerSize(); i++) player.getHand().play(i, game, player);
+                }
+                for (var output : game.conductFights()) messages.addAll(describe(output));
+                game.nextRound();
+            }
+        }
+        return messages;
+    }
+
+    private static List<String> describe(FightOutput output) {
+        List<String> ret = new ArrayList<>();
+        for (var location : FightOutput.Location.values()) ret.addAll(output.getMessages(location));
+        return ret;
+    }
+
+    @Test
+    void replayProducesTheSameFights() throws IOException {
+        Path file = folder.resolve("game.journal");
+        List<String> recorded = recordGame(file, 5);
+
+        ReplayResult result = replayer.replay(file);
+
+        assertThat(result.isFaithful()).isTrue();
+        assertThat(result.getCheckedHashes()).isEqualTo(10);
+        assertThat(result.getGame().getRound()).isEqualTo(6);
+        assertThat(result.getFightOutputs().stream().flatMap(x -> describe(x).stream()).toList())
+                .isEqualTo(recorded);
+    }
+
+    @Test
+    void stopsAtTheGivenRound() throws IOException {
+        Path file = folder.resolve("game.journal");
+        recordGame(file, 5);
+
+        ReplayResult result = replayer.replay(GameJournal.read(file), 3);
+
+        assertThat(result.isFaithful()).isTrue();
+        assertThat(result.getGame().getRound()).isEqualTo(3);
+        assertThat(result.getFightOutputs()).hasSize(9);
+    }
+
+    @Test
+    void reportsWhereTheReplayDiffers() throws IOException {
+        Path file = folder.resolve("game.journal");
+        recordGame(file, 3);
+        List<JournalEntry> entries = new ArrayList<>(GameJournal.read(file));
+        // someone who bought something in the first round now buys nothing
+        int buy = 0;
+        while (entries.get(buy).getType() != JournalEntry.Type.Buy) buy++;
+        entries.remove(buy);
+
+        ReplayResult result = replayer.replay(entries);
+
+        assertThat(result.isFaithful()).isFalse();
+        assertThat(result.getMismatch()).contains("round 1");
+        assertThat(result.getGame().getRound()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,113 @@
+package scrapscramble.game;
+
+import org.junit.jupiter.api.Test;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.Upgrade;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.player.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GameSnapshotTest {
+
+    private final CardCatalog catalog = CardCatalog.getInstance();
+
+    /**
+     * Starts a seeded game and plays a few rounds where every player buys the
+     * first upgrade they can afford.
+     */
+    private Game playedGame(int rounds) {
+        Game game = new Game(new EffectCaller(), new GameRandom(11));
+        List<String> names = List.of("A", "B", "C", "D", "E");
+        game.start(names.size(), names, catalog.createPool());
+        for (int round = 0; round < rounds; round++) {
+            buyEverything(game);
+            game.conductFights();
+            game.nextRound();
+        }
+        return game;
+    }
+
+    private static void buyEverything(Game game) {
+        for (Player player : game.getPlayers()) {
+            for (int i = 0; i < player.getShop().containerSize(); i++) {
+                player.getShop().buy(i, game, player);
+            }
+        }
+    }
+
+    private static String describe(Game game) {
+        StringBuilder sb = new StringBuilder("round " + game.getRound());
+        for (Player p : game.getPlayers()) {
+            sb.append('\n').append(p.getName()).append(' ').append(p.getLives()).append(' ')
+                    .append(p.getCurrentMana()).append('/').append(p.getMaximumMana()).append(' ')
+                    .append(p.getAttack()).append('/').append(p.getHealth()).append(' ')
+                    .append(p.getCreatureData().getPresentKeywords()).append(' ')
+                    .append(p.getShop().getCardsWithEmptySlot().stream().map(u -> u == null ? "-" : u.getName() + " " + u.getCost() + "/" + u.getAttack() + "/" + u.getHealth()).toList())
+                    .append(p.getAttachedUpgrades().getFullList().stream().map(Upgrade::getName).toList())
+                    .append(" vs ").append(game.getOpponent(p).getName());
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void restoredGameMatchesTheSavedOne() {
+        Game game = playedGame(4);
+        byte[] snapshot = GameSnapshot.save(game, catalog);
+        Game restored = GameSnapshot.restore(snapshot, catalog);
+
+        assertThat(describe(restored)).isEqualTo(describe(game));
+        assertThat(GameSnapshot.save(restored, catalog)).isEqualTo(snapshot);
+    }
+
+    @Test
+    void restoredGameContinuesTheSameWay() {
+        Game game = playedGame(3);
+        Game restored = GameSnapshot.restore(GameSnapshot.save(game, catalog), catalog);
+        List<String> original = new ArrayList<>(), copy = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            buyEverything(game);
+            buyEverything(restored);
+            for (var output : game.conductFights()) original.addAll(output.getMessages(FightOutput.Location.DuringCombat));
+            for (var output : restored.conductFights()) copy.addAll(output.getMessages(FightOutput.Location.DuringCombat));
+            game.nextRound();
+            restored.nextRound();
+        }
+        assertThat(copy).isEqualTo(original);
+        assertThat(describe(restored)).isEqualTo(describe(game));
+    }
+
+    @Test
+    void modifiedCardsKeepTheirChanges() {
+        Game game = playedGame(1);
+        Player player = game.getPlayers().get(0);
+        Upgrade upgrade = player.getShop().getCard(0);
+        upgrade.setCost(upgrade.getCost() - 4);
+        upgrade.getCreatureData().setStatusKeyword(StatusKeyword.Frozen, 2);
+        player.getCardPool().removeCard(upgrade.getName());
+
+        Game restored = GameSnapshot.restore(GameSnapshot.save(game, catalog), catalog);
+        Player restoredPlayer = restored.getPlayers().get(0);
+        Upgrade restoredUpgrade = restoredPlayer.getShop().getCard(0);
+        assertThat(restoredUpgrade.getCost()).isEqualTo(upgrade.getCost());
+        assertThat(restoredUpgrade.getStatusKeyword(StatusKeyword.Frozen)).isEqualTo(2);
+        assertThat(restoredPlayer.getCardPool().totalUpgrades()).isEqualTo(player.getCardPool().totalUpgrades());
+        assertThat(restored.getPlayers().get(1).getCardPool().totalUpgrades()).isEqualTo(catalog.getUpgrades().size());
+    }
+
+    @Test
+    void rejectsOtherData() {
+        assertThatThrownBy(() -> GameSnapshot.restore(new byte[]{1, 2, 3, 4, 5}, catalog))
+                .isInstanceOf(SnapshotFormatException.class);
+        byte[] snapshot = GameSnapshot.save(playedGame(1), catalog);
+        snapshot[4] = (byte) (2 * (GameSnapshot.VERSION + 1));
+        assertThatThrownBy(() -> GameSnapshot.restore(snapshot, catalog))
+                .isInstanceOf(SnapshotFormatException.class)
+                .hasMessageContaining("version");
+    }
+}
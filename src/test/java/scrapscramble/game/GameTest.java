@@ -2,10 +2,21 @@ package scrapscramble.game;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import scrapscramble.game.cards.CardCatalog;
+import scrapscramble.game.cards.CardPool;
 import scrapscramble.game.cards.StatusKeyword;
+import scrapscramble.game.cards.effects.Effect;
+import scrapscramble.game.cards.effects.EffectCaller;
+import scrapscramble.game.cards.effects.EffectTrigger;
+import scrapscramble.game.cards.effects.context.EffectContext;
 import scrapscramble.game.player.Player;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -53,4 +64,168 @@ class GameTest {
         assertThat(p2.getHealth()).isEqualTo(13);
         assertThat(p2.getLives()).isEqualTo(startingLives - 1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSpikesAndShieldsAreLogged() {
+        Player p1 = players.get(0), p2 = players.get(1);
+        p1.setAttack(3);
+        p1.setHealth(20);
+        p1.getCreatureData().setStatusKeyword(StatusKeyword.Rush, 1);
+        p1.getCreatureData().setStatusKeyword(StatusKeyword.Spikes, 4);
+        p2.setAttack(2);
+        p2.setHealth(20);
+        p2.getCreatureData().setStatusKeyword(StatusKeyword.Shields, 5);
+        var output = game.fight(p1, p2);
+        var inCombat = output.getMessages(FightOutput.Location.DuringCombat);
+        assertThat(inCombat.get(0)).isEqualTo(
+                "Player 1 attacks for 3 damage, adjusted to 2 by Spikes and Shields, reducing Player 2 to 18 Health.");
+        assertThat(output.getEvents(FightOutput.Location.DuringCombat).get(0))
+                .isInstanceOf(AttackSequence.class);
+    }
+
+    @Test
+    void testFightWithoutLogging() {
+        Player p1 = players.get(0), p2 = players.get(1);
+        int startingLives = p2.getLives();
+        game.setCombatLogging(false);
+        p1.setAttack(5);
+        p1.setHealth(9);
+        p1.getCreatureData().setStatusKeyword(StatusKeyword.Rush, 1);
+        p2.setAttack(4);
+        p2.setHealth(13);
+        var output = game.fight(p1, p2);
+        assertThat(output.isLogging()).isFalse();
+        assertThat(output.getMessages(FightOutput.Location.DuringCombat)).isEmpty();
+        assertThat(output.getMessages(FightOutput.Location.BeforeCombat)).isEmpty();
+        assertThat(p2.getLives()).isEqualTo(startingLives - 1);
+    }
+
+    /**
+     * Prepares a fight between the first two players of a new game, where the
+     * first player has Attack Priority.
+     */
+    private static Player[] prepareFight(Game game, int attack1, int health1, int spikes1, int shields1,
+                                         int attack2, int health2, int spikes2, int shields2, boolean perAttackEffect) {
+        Player p1 = game.addPlayer("Player 1"), p2 = game.addPlayer("Player 2");
+        p1.setAttack(attack1);
+        p1.setHealth(health1);
+        p1.getCreatureData().setStatusKeyword(StatusKeyword.Rush, 1);
+        p1.getCreatureData().setStatusKeyword(StatusKeyword.Spikes, spikes1);
+        p1.getCreatureData().setStatusKeyword(StatusKeyword.Shields, shields1);
+        p2.setAttack(attack2);
+        p2.setHealth(health2);
+        p2.getCreatureData().setStatusKeyword(StatusKeyword.Spikes, spikes2);
+        p2.getCreatureData().setStatusKeyword(StatusKeyword.Shields, shields2);
+        if (perAttackEffect) {
+            p1.getEffects().add(new Effect(EffectTrigger.AfterThisAttacks) {
+                @Override
+                public void activate(EffectContext ctx) {}
+            });
+        }
+        return new Player[]{p1, p2};
+    }
+
+    @Test
+    void testResolvedCombatMatchesAttackByAttack() {
+        int[][] stats = {
+                {5, 9, 0, 0, 4, 13, 0, 0},
+                {3, 20, 4, 0, 2, 20, 0, 5},
+                {1, 10, 0, 3, 7, 4, 2, 0},
+                {10, 5, 0, 0, 1, 11, 0, 0},
+                {2, 3, 0, 0, 3, 2, 5, 1},
+                {0, 8, 6, 0, 1, 6, 0, 0},
+        };
+        for (int[] s : stats) {
+            Game resolved = new Game(), stepwise = new Game();
+            Player[] a = prepareFight(resolved, s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7], false);
+            Player[] b = prepareFight(stepwise, s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7], true);
+            var outA = resolved.fight(a[0], a[1]);
+            var outB = stepwise.fight(b[0], b[1]);
+            assertThat(outA.getMessages(FightOutput.Location.DuringCombat))
+                    .isEqualTo(outB.getMessages(FightOutput.Location.DuringCombat));
+            assertThat(outA.getWinner().getName()).isEqualTo(outB.getWinner().getName());
+            assertThat(a[1].getLives()).isEqualTo(b[1].getLives());
+        }
+    }
+
+    @Test
+    void testStalemate() {
+        for (boolean perAttackEffect : new boolean[]{false, true}) {
+            Game g = new Game();
+            Player[] p = prepareFight(g, 0, 10, 3, 0, 2, 10, 0, 0, perAttackEffect);
+            p[1].getCreatureData().setStatusKeyword(StatusKeyword.Shields, 0);
+            p[1].setAttack(0);
+            int lives1 = p[0].getLives(), lives2 = p[1].getLives();
+            var output = g.fight(p[0], p[1]);
+            assertThat(output.isStalemate()).isTrue();
+            assertThat(output.getWinner()).isNull();
+            assertThat(output.getMessages(FightOutput.Location.DuringCombat)).last().asString().contains("stalemate");
+            assertThat(p[0].getLives()).isEqualTo(lives1);
+            assertThat(p[1].getLives()).isEqualTo(lives2);
+        }
+    }
+
+    @Test
+    void testHugeStatsAreResolvedAtOnce() {
+        Game g = new Game();
+        g.setCombatLogging(false);
+        Player[] p = prepareFight(g, 1, 1_000_000_000, 0, 0, 1, 1_000_000_000, 0, 0, false);
+        var output = g.fight(p[0], p[1]);
+        assertThat(output.getWinner()).isSameAs(p[0]);
+        assertThat(p[0].getHealth()).isEqualTo(1_000_000_000);
+    }
+
+    @Test
+    void testParallelFightsKeepTheirOrder() {
+        Game g = new Game();
+        List<String> names = List.of("A", "B", "C", "D", "E", "F", "G", "H");
+        g.start(names.size(), names, new CardPool());
+        List<Player> expectedOrder = new ArrayList<>();
+        Set<Player> paired = new HashSet<>();
+        for (Player p : g.getPlayers()) {
+            p.setAttack(names.indexOf(p.getName()) + 1);
+            p.setHealth(50);
+            Player opponent = g.getOpponent(p);
+            if (paired.contains(p) || opponent == p) continue;
+            expectedOrder.add(p);
+            paired.add(p);
+            paired.add(opponent);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            g.setFightExecutor(executor);
+            var outputs = g.conductFights();
+            assertThat(outputs).extracting(FightOutput::getPlayer1).containsExactlyElementsOf(expectedOrder);
+            for (var output : outputs) {
+                assertThat(output.getWinner()).isNotNull();
+                assertThat(output.getPlayer1().getLives() + output.getPlayer2().getLives())
+                        .isEqualTo(2 * g.getSettings().getStartingLives() - 1);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSameSeedPlaysTheSameGame() {
+        List<String> results = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            Game g = new Game(new EffectCaller(), new GameRandom(2024));
+            List<String> names = List.of("A", "B", "C", "D", "E");
+            g.start(names.size(), names, CardCatalog.getInstance().createPool());
+            StringBuilder sb = new StringBuilder();
+            for (int round = 0; round < 3; round++) {
+                for (Player p : g.getPlayers()) {
+                    sb.append(p.getShop().getAllCards().stream().map(x -> x.getName()).toList());
+                }
+                for (var output : g.conductFights()) {
+                    sb.append(output.getMessages(FightOutput.Location.BeforeCombat));
+                }
+                g.nextRound();
+            }
+            results.add(sb.toString());
+        }
+        assertThat(results.get(0)).isEqualTo(results.get(1));
+    }
+}
@@ -0,0 +1,95 @@
+package scrapscramble.game.cards;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CardCatalogTest {
+
+    @Test
+    void instanceIsOnlyBuiltOnce() {
+        assertThat(CardCatalog.getInstance()).isSameAs(CardCatalog.getInstance());
+    }
+
+    @Test
+    void containsAnnotatedCards() {
+        var catalog = CardCatalog.getInstance();
+        assertThat(catalog.getUpgrades()).extracting(Card::getName).contains("Toy Tank", "Paradox Engine");
+        assertThat(catalog.getTokens()).extracting(Card::getName).contains("Prize Plushie");
+        assertThat(catalog.getUpgrades()).extracting(Card::getName).doesNotContain("Prize Plushie");
+    }
+
+    @Test
+    void catalogIsUnmodifiable() {
+        var catalog = CardCatalog.getInstance();
+        assertThrows(UnsupportedOperationException.class, () -> catalog.getUpgrades().add(new Upgrade()));
+    }
+
+    @Test
+    void createdPoolContainsAllCards() {
+        var catalog = CardCatalog.getInstance();
+        var pool = catalog.createPool();
+        assertThat(pool.totalUpgrades()).isEqualTo(catalog.getUpgrades().size());
+        assertThat(pool.totalTokens()).isEqualTo(catalog.getTokens().size());
+        assertThat(pool.get("Toy Tank")).isNotNull();
+    }
+
+    @Test
+    void poolHandsOutCopies() {
+        var catalog = CardCatalog.getInstance();
+        var pool = catalog.createPool();
+        Card card = pool.get("Toy Tank");
+        card.setCost(100);
+        assertThat(catalog.getUpgrades().stream().filter(x -> x.getName().equals("Toy Tank")).findFirst())
+                .get().extracting(Card::getCost).isEqualTo(1);
+    }
+
+    @Test
+    void idsAreDenseAndUnique() {
+        var catalog = CardCatalog.getInstance();
+        for (int id = 0; id < catalog.size(); id++) {
+            assertThat(catalog.get(id)).isNotNull();
+            assertThat(catalog.get(id).getCatalogId()).isEqualTo(id);
+        }
+        assertThat(catalog.get(catalog.size())).isNull();
+        assertThat(catalog.get(-1)).isNull();
+    }
+
+    @Test
+    void getByName() {
+        var catalog = CardCatalog.getInstance();
+        Card tank = catalog.get("Toy Tank");
+        assertThat(tank).isNotNull();
+        assertThat(catalog.get(tank.getCatalogId())).isSameAs(tank);
+        assertThat(catalog.get("No Such Card")).isNull();
+    }
+
+    @Test
+    void copiesShareTheDefinitionUntilModified() {
+        var catalog = CardCatalog.getInstance();
+        Upgrade prototype = (Upgrade) catalog.get("Toy Tank");
+        Upgrade copy = (Upgrade) catalog.createPool().get("Toy Tank");
+
+        assertThat(copy.getDefinition()).isSameAs(prototype.getDefinition());
+        assertThat(copy.sharesEffects()).isTrue();
+        assertThat(copy.getAttack()).isEqualTo(prototype.getDefinition().getCreatureData().getAttack());
+
+        copy.setAttack(100);
+        copy.getEffects().clear();
+        assertThat(copy.sharesEffects()).isFalse();
+        assertThat(prototype.getAttack()).isNotEqualTo(100);
+        assertThat(prototype.getEffects()).hasSameSizeAs(prototype.getDefinition().getEffects());
+    }
+
+    @Test
+    void prototypesCannotBeModifiedThroughSharedData() {
+        var catalog = CardCatalog.getInstance();
+        Upgrade prototype = (Upgrade) catalog.get("Toy Tank");
+        int attack = prototype.getAttack();
+
+        prototype.getCreatureData().setAttack(attack + 100);
+        assertThat(prototype.getAttack()).isEqualTo(attack);
+        assertThrows(UnsupportedOperationException.class, () -> prototype.getEffects().clear());
+    }
+}
@@ -1,15 +1,91 @@
 package scrapscramble.game.cards;
 
 import org.junit.jupiter.api.Test;
+import scrapscramble.game.GameRandom;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 class CardPoolTest {
 
+    private final GameRandom random = new GameRandom(7);
+
     @Test
     public void defaultConstructor() {
         var pool = new CardPool();
         assertThat(pool.totalUpgrades()).isZero();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void randomUpgradeByRarityAndCost() {
+        var pool = CardCatalog.getInstance().createPool();
+        for (int i = 0; i < 50; i++) {
+            Upgrade u = pool.randomUpgrade(random, Rarity.Common, 2);
+            assertThat(u).isNotNull();
+            assertThat(u.getRarity()).isEqualTo(Rarity.Common);
+            assertThat(u.getCost()).isLessThanOrEqualTo(2);
+        }
+    }
+
+    @Test
+    public void randomUpgradeByRarityAndCostNoMatches() {
+        var pool = CardCatalog.getInstance().createPool();
+        assertThat(pool.randomUpgrade(random, Rarity.Legendary, 0)).isNull();
+        assertThat(new CardPool().randomUpgrade(random, Rarity.Common, 100)).isNull();
+    }
+
+    @Test
+    public void getByNameAndId() {
+        var pool = CardCatalog.getInstance().createPool();
+        Card byName = pool.get("Prize Plushie");
+        assertThat(byName).isNotNull();
+        Card byId = pool.get(byName.getCatalogId());
+        assertThat(byId).isNotNull().isNotSameAs(byName);
+        assertThat(byId.getName()).isEqualTo("Prize Plushie");
+        assertThat(pool.get("No Such Card")).isNull();
+        assertThat(pool.get(-1)).isNull();
+    }
+
+    @Test
+    public void derivedPoolSharesCardsUntilModified() {
+        var base = CardCatalog.getInstance().createPool();
+        var derived = base.derive();
+        assertThat(derived.totalUpgrades()).isEqualTo(base.totalUpgrades());
+
+        assertThat(derived.removeCard("Toy Tank")).isTrue();
+        assertThat(derived.get("Toy Tank")).isNull();
+        assertThat(derived.totalUpgrades()).isEqualTo(base.totalUpgrades() - 1);
+        assertThat(base.get("Toy Tank")).isNotNull();
+        assertThat(derived.removeCard("Toy Tank")).isFalse();
+    }
+
+    @Test
+    public void replaceCardOnlyChangesOnePool() {
+        var base = CardCatalog.getInstance().createPool();
+        var derived = base.derive();
+        Card buffed = derived.get("Toy Tank");
+        buffed.setCost(100);
+
+        assertThat(derived.replaceCard(buffed)).isTrue();
+        assertThat(derived.get("Toy Tank").getCost()).isEqualTo(100);
+        assertThat(base.get("Toy Tank").getCost()).isEqualTo(1);
+        assertThat(derived.randomUpgrade(random, u -> u.getName().equals("Toy Tank")).getCost()).isEqualTo(100);
+        for (int i = 0; i < 50; i++) {
+            assertThat(derived.randomUpgrade(random, Rarity.Common, 99).getName()).isNotEqualTo("Toy Tank");
+        }
+    }
+
+    @Test
+    public void modifyingOriginalDoesNotAffectDerivedPool() {
+        var pool = new CardPool();
+        Upgrade u = new Upgrade();
+        u.setName("Test Upgrade");
+        pool.addCard(u);
+        var derived = pool.derive();
+
+        assertThat(pool.removeCard("Test Upgrade")).isTrue();
+        assertThat(pool.totalUpgrades()).isZero();
+        assertThat(derived.totalUpgrades()).isEqualTo(1);
+        assertThat(derived.get("Test Upgrade")).isNotNull();
+    }
+}
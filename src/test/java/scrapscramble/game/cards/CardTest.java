@@ -90,4 +90,18 @@ class CardTest {
         card.getEffects().clear();
         assertThat(copy.getEffects()).hasSize(2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void cloneSharesStatelessEffects() throws CloneNotSupportedException {
+        Effect stateless = mock(Effect.class);
+        when(stateless.isStateless()).thenReturn(true);
+        Effect stateful = mock(Effect.class);
+        card.getEffects().add(stateless);
+        card.getEffects().add(stateful);
+
+        Card copy = card.clone();
+        assertThat(copy.getEffects()).hasSize(2).contains(stateless).doesNotContain(stateful);
+        verify(stateless, never()).clone();
+        verify(stateful, times(1)).clone();
+    }
+}
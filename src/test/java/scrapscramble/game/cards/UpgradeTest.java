@@ -3,6 +3,7 @@ package scrapscramble.game.cards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import scrapscramble.game.CreatureData;
+import scrapscramble.game.cards.effects.EffectTrigger;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,4 +28,15 @@ class UpgradeTest {
         assertThat(data.getAttack()).isEqualTo(upgrade.getAttack());
         assertThat(data.getHealth()).isEqualTo(upgrade.getHealth());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void builderLambdaEffectsAreStateless() throws CloneNotSupportedException {
+        Upgrade built = Upgrade.builder()
+                .hasEffect(EffectTrigger.Battlecry, ctx -> {})
+                .build();
+        assertThat(built.getEffects().get(0).isStateless()).isTrue();
+
+        Upgrade copy = built.clone();
+        assertThat(copy.getEffects().get(0)).isSameAs(built.getEffects().get(0));
+    }
+}
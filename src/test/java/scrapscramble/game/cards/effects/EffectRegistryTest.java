@@ -0,0 +1,119 @@
+package scrapscramble.game.cards.effects;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scrapscramble.game.cards.effects.context.EffectContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EffectRegistryTest {
+
+    /**
+     * Effect that counts its activations and can expire after the first one.
+     */
+    private static class CountingEffect extends Effect {
+        int activations = 0;
+        final boolean expireOnActivation;
+
+        CountingEffect(EffectTrigger trigger, boolean expireOnActivation) {
+            super(trigger);
+            this.expireOnActivation = expireOnActivation;
+        }
+
+        @Override
+        public void activate(EffectContext ctx) {
+            this.activations++;
+            if (this.expireOnActivation) this.isExpired = true;
+        }
+    }
+
+    private EffectRegistry registry;
+    private EffectCaller caller;
+
+    @BeforeEach
+    void setUp() {
+        registry = new EffectRegistry();
+        caller = new EffectCaller();
+    }
+
+    private EffectContext context(EffectTrigger trigger) {
+        return new EffectContext(trigger, null, null, null);
+    }
+
+    @Test
+    void onlyMatchingEffectsAreActivated() {
+        var battlecry = new CountingEffect(EffectTrigger.Battlecry, false);
+        var aftermath = new CountingEffect(EffectTrigger.AftermathPlayer, false);
+        registry.add(battlecry);
+        registry.add(aftermath);
+
+        caller.activate(registry, context(EffectTrigger.Battlecry));
+        assertThat(battlecry.activations).isEqualTo(1);
+        assertThat(aftermath.activations).isZero();
+        assertThat(registry).containsExactly(battlecry, aftermath);
+    }
+
+    @Test
+    void effectWithMultipleTriggersIsInEveryGroup() {
+        var effect = new CountingEffect(EffectTrigger.Battlecry, false);
+        effect.getTriggers().add(EffectTrigger.Combo);
+        registry.add(effect);
+
+        caller.activate(registry, context(EffectTrigger.Battlecry));
+        caller.activate(registry, context(EffectTrigger.Combo));
+        assertThat(effect.activations).isEqualTo(2);
+        assertThat(registry.size()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredEffectsAreSkippedAndRemoved() {
+        var once = new CountingEffect(EffectTrigger.AftermathPlayer, true);
+        once.getTriggers().add(EffectTrigger.OnBuyingUpgrade);
+        var always = new CountingEffect(EffectTrigger.AftermathPlayer, false);
+        registry.add(once);
+        registry.add(always);
+
+        caller.activate(registry, context(EffectTrigger.AftermathPlayer));
+        caller.activate(registry, context(EffectTrigger.AftermathPlayer));
+        caller.activate(registry, context(EffectTrigger.OnBuyingUpgrade));
+        assertThat(once.activations).isEqualTo(1);
+        assertThat(always.activations).isEqualTo(2);
+        assertThat(registry).containsExactly(always);
+        assertThat(registry.get(EffectTrigger.OnBuyingUpgrade)).isEmpty();
+    }
+
+    @Test
+    void effectsCanBeAddedWhileActivating() {
+        List<Effect> added = new ArrayList<>();
+        registry.add(new Effect(EffectTrigger.Battlecry) {
+            @Override
+            public void activate(EffectContext ctx) {
+                var extra = new CountingEffect(EffectTrigger.Battlecry, false);
+                added.add(extra);
+                registry.add(extra);
+            }
+        });
+
+        caller.activate(registry, context(EffectTrigger.Battlecry));
+        assertThat(added).hasSize(1);
+        assertThat(((CountingEffect) added.get(0)).activations).isZero();
+        assertThat(registry.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removeAfterActivation() {
+        var battlecry = new CountingEffect(EffectTrigger.Battlecry, false);
+        battlecry.getTriggers().add(EffectTrigger.Combo);
+        var aftermath = new CountingEffect(EffectTrigger.AftermathPlayer, false);
+        registry.add(battlecry);
+        registry.add(aftermath);
+
+        caller.activate(registry, context(EffectTrigger.Battlecry), true);
+        caller.activate(registry, context(EffectTrigger.Combo));
+        assertThat(battlecry.activations).isEqualTo(1);
+        assertThat(registry).containsExactly(aftermath);
+    }
+}
@@ -2,6 +2,7 @@ package scrapscramble.game.player;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import scrapscramble.game.GameRandom;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -33,7 +34,7 @@ class PairMakerTest {
 
     @Test
     void testConstructor() {
-        var pm = new PairMaker(players);
+        var pm = new PairMaker(players, new GameRandom(42));
         for (var p : players) {
             assertThat(pm.getOpponent(p)).isEqualTo(p);
         }
@@ -41,7 +42,7 @@ class PairMakerTest {
 
     @Test
     void testNextPairings() {
-        var pm = new PairMaker(players);
+        var pm = new PairMaker(players, new GameRandom(42));
         pm.generateNextTurnPairings();
         for (int attempt = 1; attempt <= 10; attempt++) {
             Map<Player, Player> initPairs = new HashMap<>();
@@ -8,7 +8,7 @@ import scrapscramble.game.cards.Upgrade;
 import scrapscramble.game.cards.effects.Effect;
 import scrapscramble.game.cards.effects.EffectTrigger;
 
-import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,9 +75,9 @@ class ShopTest {
     @Test
     void buyUpgradeSuccessful() {
         Effect effBattlecry = mock(Effect.class);
-        when(effBattlecry.getTriggers()).thenReturn(List.of(EffectTrigger.Battlecry));
+        when(effBattlecry.getTriggers()).thenReturn(Set.of(EffectTrigger.Battlecry));
         Effect effAftermath = mock(Effect.class);
-        when(effAftermath.getTriggers()).thenReturn(List.of(EffectTrigger.AftermathPlayer));
+        when(effAftermath.getTriggers()).thenReturn(Set.of(EffectTrigger.AftermathPlayer));
 
         Shop shop = new Shop();
         shop.addCard(new Upgrade());
@@ -0,0 +1,100 @@
+package scrapscramble.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import scrapscramble.game.GameReplayer;
+import scrapscramble.game.ReplayResult;
+import scrapscramble.game.cards.CardCatalog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimulatorTest {
+
+    @Test
+    void simulatesEveryGameOnce() {
+        List<Long> progress = Collections.synchronizedList(new ArrayList<>());
+        SimulationReport report = Simulator.builder()
+                .withGames(20)
+                .withPlayers(4)
+                .withThreads(3)
+                .withBatchSize(2)
+                .withMaxRounds(30)
+                .withSeed(3)
+                .withProgressListener(r -> progress.add(r.getGames()))
+                .build()
+                .run();
+
+        assertThat(report.getGames()).isEqualTo(20);
+        assertThat(progress).isSorted().last().isEqualTo(20L);
+        assertThat(report.getAverageRounds()).isBetween(1.0, 30.0);
+        assertThat(report.getGamesWithWinner()).isBetween(1L, 20L);
+        assertThat(report.getAverageEliminationRound()).isBetween(1.0, 30.0);
+        for (var card : report.getCards().values()) {
+            assertThat(card.getWon()).isBetween(0L, card.getUsed());
+        }
+    }
+
+    @Test
+    void greedyPlayersSpendTheirMana() {
+        SimulationReport report = Simulator.builder()
+                .withGames(5)
+                .withPlayers(2)
+                .withThreads(1)
+                .withPolicies(seat -> new GreedyPolicy())
+                .build()
+                .run();
+
+        long cardsUsed = 0;
+        for (int cost = 0; cost <= report.getHighestCost(); cost++) cardsUsed += report.getManaCurve(cost);
+        assertThat(cardsUsed).isPositive();
+        assertThat(report.getCards()).isNotEmpty();
+        assertThat(report.toString()).contains("Games: 5");
+    }
+
+    @Test
+    void seededRunsAreReproducible() {
+        List<String> reports = new ArrayList<>();
+        for (int threads : new int[]{1, 4}) {
+            reports.add(Simulator.builder()
+                    .withGames(12)
+                    .withPlayers(3)
+                    .withThreads(threads)
+                    .withSeed(77)
+                    .build()
+                    .run()
+                    .toString());
+        }
+        assertThat(reports.get(0)).isEqualTo(reports.get(1));
+    }
+
+    @Test
+    void recordedGamesReplayTheSame(@TempDir Path folder) throws IOException {
+        Simulator.builder()
+                .withGames(10)
+                .withPlayers(4)
+                .withThreads(2)
+                .withSeed(5)
+                .withJournals(folder)
+                .build()
+                .run();
+
+        GameReplayer replayer = new GameReplayer(CardCatalog.getInstance());
+        List<Path> journals;
+        try (var files = Files.list(folder)) {
+            journals = files.toList();
+        }
+        assertThat(journals).hasSize(10);
+        for (Path journal : journals) {
+            ReplayResult result = replayer.replay(journal);
+            assertThat(result.getMismatch()).isNull();
+            assertThat(result.getCheckedHashes()).isPositive();
+        }
+    }
+}